@@ -0,0 +1,141 @@
+package com.template.batch.benchmark;
+
+import com.template.batch.SpringBatchApplication;
+import com.template.batch.performance.JobResult;
+import com.template.batch.performance.SyntheticDataGenerator;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Banco + contexto Spring da aplicação para os benchmarks ponta a ponta
+ *
+ * BANCO (propriedades de sistema):
+ * - load.jdbc-url vazio: PostgreSQL embarcado (zonky, binários via Maven, sem servidor externo)
+ * - load.jdbc-url preenchido: PostgreSQL local (load.username / load.password)
+ * - Schema da aplicação (db/migration) e tabelas BATCH_ criados na subida
+ *
+ * JOBS:
+ * - Disparados via JobLauncherTestUtils (spring-batch-test), com parâmetros únicos
+ * - Cada execução parte de staging/target vazios (SyntheticDataGenerator.resetOutputs)
+ */
+public class BenchmarkEnvironment implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BenchmarkEnvironment.class);
+
+    private final EmbeddedPostgres embeddedPostgres;
+    private final ConfigurableApplicationContext context;
+    private final SyntheticDataGenerator generator;
+
+    private BenchmarkEnvironment(EmbeddedPostgres embeddedPostgres, ConfigurableApplicationContext context) {
+        this.embeddedPostgres = embeddedPostgres;
+        this.context = context;
+        this.generator = new SyntheticDataGenerator(context.getBean(DataSource.class));
+    }
+
+    public static BenchmarkEnvironment start(String[] args) throws IOException {
+        String jdbcUrl = property("load.jdbc-url", "");
+        EmbeddedPostgres embeddedPostgres = null;
+        if (jdbcUrl.isEmpty()) {
+            embeddedPostgres = EmbeddedPostgres.builder().start();
+            jdbcUrl = embeddedPostgres.getJdbcUrl("postgres", "postgres");
+        }
+        try {
+            ConfigurableApplicationContext context = startApplication(jdbcUrl, args);
+            logger.info("Benchmark conectado em {}", jdbcUrl);
+            return new BenchmarkEnvironment(embeddedPostgres, context);
+        } catch (RuntimeException e) {
+            if (embeddedPostgres != null) {
+                embeddedPostgres.close();
+            }
+            throw e;
+        }
+    }
+
+    public SyntheticDataGenerator generator() {
+        return generator;
+    }
+
+    public DataSource dataSource() {
+        return context.getBean(DataSource.class);
+    }
+
+    /**
+     * Executa o job a partir de staging/target vazios e devolve o resultado medido
+     */
+    public JobResult run(String jobName) throws Exception {
+        generator.resetOutputs();
+        return runKeepingOutputs(jobName);
+    }
+
+    /**
+     * Executa o job sobre o estado atual (staging, target e watermarks da execução anterior)
+     */
+    public JobResult runKeepingOutputs(String jobName) throws Exception {
+        JobLauncherTestUtils jobLauncherTestUtils = new JobLauncherTestUtils();
+        jobLauncherTestUtils.setJobLauncher(context.getBean(JobLauncher.class));
+        jobLauncherTestUtils.setJobRepository(context.getBean(JobRepository.class));
+        jobLauncherTestUtils.setJob(context.getBean(jobName, Job.class));
+
+        long start = System.nanoTime();
+        JobExecution execution = jobLauncherTestUtils.launchJob(jobLauncherTestUtils.getUniqueJobParameters());
+        return JobResult.of(execution, System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            context.close();
+        } finally {
+            if (embeddedPostgres != null) {
+                embeddedPostgres.close();
+            }
+        }
+    }
+
+    static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static ConfigurableApplicationContext startApplication(String jdbcUrl, String[] args) {
+        // Argumentos de linha de comando: precedência sobre o application.yml
+        List<String> defaults = List.of(
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + property("load.username", "postgres"),
+                "--spring.datasource.password=" + property("load.password", "postgres"),
+                // Jobs disparados pelo benchmark, não pelo JobLauncherRunner
+                "--spring.batch.job.name=",
+                "--batch.incremental.enabled=false",
+                "--batch.merge.incremental=false",
+                "--batch.progress.log-interval-seconds=10",
+                // Statements por item (orçamentos, LoadBenchmark) vêm do DataSource instrumentado
+                "--batch.jdbc.instrumentation.enabled=true",
+                // DEBUG do Spring Batch (application.yml) loga cada chunk e distorce a medição
+                "--logging.level.org.springframework.batch=INFO",
+                "--logging.level.com.template.batch=INFO");
+        // Padrão repetido nos argumentos do chamador é substituído, não duplicado
+        List<String> arguments = new ArrayList<>();
+        for (String argument : defaults) {
+            String key = argument.substring(0, argument.indexOf('=') + 1);
+            if (Arrays.stream(args).noneMatch(arg -> arg.startsWith(key))) {
+                arguments.add(argument);
+            }
+        }
+        arguments.addAll(Arrays.asList(args));
+        return SpringApplication.run(SpringBatchApplication.class, arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,63 @@
+package com.template.batch.benchmark;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.Map;
+
+/**
+ * Dados de apoio dos benchmarks JMH (sem banco e sem contexto Spring)
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * ResultSet em memória com uma linha fixa: getLong/getString/getBigDecimal por nome de coluna
+     * Custo constante e desprezível: o benchmark mede apenas o RowMapper
+     */
+    public static ResultSet resultSet(Map<String, Object> row) {
+        return (ResultSet) Proxy.newProxyInstance(
+                BenchmarkFixtures.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object value = args != null && args.length == 1 && args[0] instanceof String column
+                            ? row.get(column)
+                            : null;
+                    return switch (method.getName()) {
+                        case "getLong" -> value != null ? ((Number) value).longValue() : 0L;
+                        case "getString" -> value != null ? value.toString() : null;
+                        case "getBigDecimal" -> (BigDecimal) value;
+                        case "getObject" -> value;
+                        case "wasNull" -> false;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+
+    /**
+     * StepExecution avulsa, como a injetada via #{stepExecution} nos processors @StepScope
+     */
+    public static StepExecution stepExecution(JobParameters jobParameters) {
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "benchmarkJob"), jobParameters);
+        return new StepExecution("benchmarkStep", jobExecution);
+    }
+
+    /**
+     * processDate como o JobLauncherRunner envia (Long yyyyMMdd), ou vazio
+     */
+    public static JobParameters jobParameters(boolean withProcessDate) {
+        JobParametersBuilder builder = new JobParametersBuilder().addLong("time", 1L);
+        if (withProcessDate) {
+            builder.addLong("processDate", 20260119L);
+        }
+        return builder.toJobParameters();
+    }
+}
@@ -0,0 +1,97 @@
+package com.template.batch.benchmark;
+
+import com.template.batch.performance.JobResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verificação do modo incremental (watermark) contra linhas que o reader não pode perder
+ *
+ * CENÁRIOS:
+ * - Commit tardio: transação aberta ANTES do high de uma execução e commitada DEPOIS
+ *   (updated_at = início da transação, anterior ao high). A execução seguinte precisa lê-la
+ * - UPDATE na origem: linha já processada e alterada depois; o trigger (V2) renova
+ *   updated_at e a execução seguinte precisa levar o novo nome para target_table
+ *
+ * COMO FUNCIONA:
+ * - jobA incremental com batch.incremental.safety-lag-seconds=0: só o recuo até a
+ *   transação aberta mais antiga protege a linha tardia (a margem esconderia a falha)
+ * - Execuções sobre o mesmo estado (BenchmarkEnvironment.runKeepingOutputs): o watermark
+ *   de uma execução é o low da seguinte
+ * - Qualquer linha perdida encerra com código 1 (mvn -Pbenchmarks verify falha)
+ *
+ * Banco: ver BenchmarkEnvironment (load.jdbc-url vazio = PostgreSQL embarcado)
+ */
+public class IncrementalWatermarkCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalWatermarkCheck.class);
+
+    private static final String JOB_NAME = "jobA";
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        arguments.add("--batch.incremental.enabled=true");
+        arguments.add("--batch.incremental.safety-lag-seconds=0");
+
+        List<String> violations = new ArrayList<>();
+        try (BenchmarkEnvironment environment = BenchmarkEnvironment.start(arguments.toArray(String[]::new))) {
+            environment.generator().generate(1000, 0.5, 0.0, 10);
+            DataSource dataSource = environment.dataSource();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            expectCompleted(violations, "carga inicial", environment.run(JOB_NAME));
+
+            long lateId = jdbcTemplate.queryForObject("SELECT MAX(id) + 1 FROM source_table_a", Long.class);
+            long updatedId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM source_table_a", Long.class);
+
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO source_table_a (id, nome, valor) VALUES (?, 'Linha tardia', 1)")) {
+                    insert.setLong(1, lateId);
+                    insert.executeUpdate();
+                }
+                // LOCALTIMESTAMP da execução abaixo fica depois do updated_at da linha tardia
+                Thread.sleep(1100);
+                expectCompleted(violations, "execução com transação aberta", environment.runKeepingOutputs(JOB_NAME));
+                connection.commit();
+            }
+            jdbcTemplate.update("UPDATE source_table_a SET nome = 'Nome alterado' WHERE id = ?", updatedId);
+
+            expectCompleted(violations, "execução após o commit", environment.runKeepingOutputs(JOB_NAME));
+
+            if (count(jdbcTemplate, "SELECT COUNT(*) FROM target_table WHERE id = ?", lateId) != 1) {
+                violations.add("linha commitada após o high (id " + lateId + ") não chegou a target_table");
+            }
+            if (count(jdbcTemplate, "SELECT COUNT(*) FROM target_table WHERE id = ? AND nome = 'Nome alterado'",
+                    updatedId) != 1) {
+                violations.add("UPDATE na origem (id " + updatedId + ") não chegou a target_table");
+            }
+        }
+
+        if (!violations.isEmpty()) {
+            logger.error("Modo incremental perdeu linhas:");
+            violations.forEach(violation -> logger.error("  {}", violation));
+            System.exit(1);
+        }
+        logger.info("Modo incremental: commit tardio e UPDATE na origem lidos pela execução seguinte");
+        System.exit(0);
+    }
+
+    private static void expectCompleted(List<String> violations, String description, JobResult result) {
+        if (!result.successful()) {
+            violations.add(description + ": status " + result.status());
+        }
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate, String sql, long id) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, id);
+        return count != null ? count : 0L;
+    }
+}
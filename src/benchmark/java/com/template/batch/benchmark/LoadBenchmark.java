@@ -0,0 +1,72 @@
+package com.template.batch.benchmark;
+
+import com.template.batch.performance.JobResult;
+import com.template.batch.performance.SyntheticDataGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark de carga ponta a ponta: gera N linhas por origem e executa cada job sobre elas
+ *
+ * EXECUÇÃO (perfil benchmarks):
+ *   mvn -Pbenchmarks test-compile exec:exec@load-benchmark -Dload.rows=1000000
+ *
+ * PROPRIEDADES (-D na JVM do benchmark):
+ * - load.rows (padrão 100000), load.overlap (0.5), load.id-gap (0.1),
+ *   load.name-cardinality (1000), load.jobs (jobA,jobB,joinDirectJob,joinStagingJob)
+ * - Banco: ver BenchmarkEnvironment (load.jdbc-url vazio = PostgreSQL embarcado)
+ *
+ * RELATÓRIO POR JOB:
+ * - Tempo total (wall), itens lidos e itens/s
+ * - Pico de heap, statements enviados ao banco e bytes alocados por item
+ */
+public class LoadBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadBenchmark.class);
+
+    private static final String DEFAULT_JOBS = "jobA,jobB,joinDirectJob,joinStagingJob";
+
+    public static void main(String[] args) throws Exception {
+        long rows = Long.parseLong(BenchmarkEnvironment.property("load.rows", "100000"));
+        double overlap = Double.parseDouble(BenchmarkEnvironment.property("load.overlap", "0.5"));
+        double idGap = Double.parseDouble(BenchmarkEnvironment.property("load.id-gap", "0.1"));
+        int nameCardinality = Integer.parseInt(BenchmarkEnvironment.property("load.name-cardinality", "1000"));
+        List<String> jobs = Arrays.stream(BenchmarkEnvironment.property("load.jobs", DEFAULT_JOBS).split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+
+        int exitCode = 0;
+        try (BenchmarkEnvironment environment = BenchmarkEnvironment.start(args)) {
+            SyntheticDataGenerator.GeneratedData data =
+                    environment.generator().generate(rows, overlap, idGap, nameCardinality);
+
+            List<JobResult> results = new ArrayList<>();
+            for (String jobName : jobs) {
+                JobResult result = environment.run(jobName);
+                results.add(result);
+                if (!result.successful()) {
+                    exitCode = 1;
+                }
+            }
+
+            logger.info("=========================================");
+            logger.info("Benchmark de carga: A={} linhas, B={} linhas, ids comuns={}, id-gap={}, nomes={}",
+                    data.rowsA(), data.rowsB(), data.overlappingIds(), idGap, nameCardinality);
+            logger.info(String.format("%-16s %-10s %12s %12s %12s %14s %12s %12s",
+                    "job", "status", "tempo (ms)", "itens", "itens/s", "pico heap (MB)", "statements", "bytes/item"));
+            for (JobResult result : results) {
+                logger.info(String.format("%-16s %-10s %12d %12d %12.0f %14.1f %12d %12.0f",
+                        result.jobName(), result.status(), result.wallMillis(), result.itemsRead(),
+                        result.itemsPerSecond(), result.peakHeapBytes() / (1024.0 * 1024.0),
+                        result.sqlStatements(), result.allocatedBytesPerItem()));
+            }
+            logger.info("=========================================");
+        }
+        System.exit(exitCode);
+    }
+}
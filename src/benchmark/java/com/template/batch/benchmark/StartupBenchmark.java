@@ -0,0 +1,174 @@
+package com.template.batch.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tempo de subida da aplicação (JVM nova por execução) em cada modo de build
+ *
+ * EXECUÇÃO:
+ *   mvn -Paot,cds package -DskipTests      (jar com AOT + jar/arquivo CDS em target/cds)
+ *   mvn -Pbenchmarks test-compile exec:exec@startup-benchmark
+ *
+ * MODOS (startup.modes, padrão jvm,aot,cds,aot-cds):
+ * - jvm: jar executável sem flags (build atual)
+ * - aot: -Dspring.aot.enabled=true (jar gerado com -Paot)
+ * - cds: jar fino de target/cds + -XX:SharedArchiveFile
+ * - aot-cds: os dois
+ * Modo sem artefato (jar/arquivo ausente) é ignorado com WARN.
+ *
+ * MEDIÇÃO:
+ * - startup.runs execuções por modo (padrão 5) após uma de aquecimento do disco/SO
+ * - Tempo de parede do processo (subida + runners sem job + encerramento) e o
+ *   "Started ... in X seconds" do Spring Boot; mediana de cada um
+ * - Sem job (spring.batch.job.name vazio): mede só o custo fixo de cada JVM
+ *
+ * BANCO: PostgreSQL embarcado (ou load.jdbc-url). Sem arquivo CDS, o benchmark faz a
+ * subida de treino (mesmos parâmetros do perfil cds do pom) antes de medir.
+ */
+public class StartupBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    public static void main(String[] args) throws Exception {
+        Path buildDirectory = Path.of(BenchmarkEnvironment.property("startup.build-dir", "target"));
+        String finalName = BenchmarkEnvironment.property("startup.final-name", "template-spring-batch-1.0.0");
+        Path executableJar = buildDirectory.resolve(finalName + ".jar");
+        Path cdsJar = buildDirectory.resolve("cds").resolve(finalName + "-cds.jar");
+        Path cdsArchive = buildDirectory.resolve("cds").resolve("application.jsa");
+        int runs = Integer.parseInt(BenchmarkEnvironment.property("startup.runs", "5"));
+        List<String> modes = Arrays.stream(BenchmarkEnvironment.property("startup.modes", "jvm,aot,cds,aot-cds").split(","))
+                .map(String::trim)
+                .filter(mode -> !mode.isEmpty())
+                .toList();
+
+        String jdbcUrl = BenchmarkEnvironment.property("load.jdbc-url", "");
+        EmbeddedPostgres embeddedPostgres = null;
+        if (jdbcUrl.isEmpty()) {
+            embeddedPostgres = EmbeddedPostgres.builder().start();
+            jdbcUrl = embeddedPostgres.getJdbcUrl("postgres", "postgres");
+        }
+        List<String> applicationArgs = List.of(
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + BenchmarkEnvironment.property("load.username", "postgres"),
+                "--spring.datasource.password=" + BenchmarkEnvironment.property("load.password", "postgres"),
+                "--spring.batch.job.name=");
+
+        int exitCode = 0;
+        try {
+            if (Files.exists(cdsJar) && !Files.exists(cdsArchive)) {
+                logger.info("Arquivo CDS ausente: subida de treino em {}", cdsArchive);
+                List<String> training = new ArrayList<>(List.of("java", "-XX:ArchiveClassesAtExit=" + cdsArchive,
+                        "-Dspring.context.exit=onRefresh", "-Dspring.aot.enabled=" + modes.contains("aot-cds"),
+                        "-jar", cdsJar.toString(), "--batch.schema.mode=none"));
+                training.addAll(applicationArgs);
+                if (execute(training).exitCode() != 0) {
+                    throw new IllegalStateException("Falha na subida de treino do CDS");
+                }
+            }
+
+            Map<String, List<String>> commands = new LinkedHashMap<>();
+            for (String mode : modes) {
+                List<String> command = new ArrayList<>(List.of("java"));
+                boolean aot = mode.startsWith("aot");
+                boolean cds = mode.endsWith("cds");
+                if (cds && (!Files.exists(cdsJar) || !Files.exists(cdsArchive))) {
+                    logger.warn("Modo {} ignorado: {} ou {} ausente (mvn -Pcds package)", mode, cdsJar, cdsArchive);
+                    continue;
+                }
+                if (!cds && !Files.exists(executableJar)) {
+                    logger.warn("Modo {} ignorado: {} ausente (mvn package)", mode, executableJar);
+                    continue;
+                }
+                if (aot) {
+                    command.add("-Dspring.aot.enabled=true");
+                }
+                if (cds) {
+                    command.add("-XX:SharedArchiveFile=" + cdsArchive);
+                }
+                command.addAll(List.of("-jar", (cds ? cdsJar : executableJar).toString()));
+                command.addAll(applicationArgs);
+                commands.put(mode, command);
+            }
+
+            Map<String, double[]> results = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> mode : commands.entrySet()) {
+                // Aquecimento: cache de disco/SO e migração do schema (SchemaVersionManager)
+                if (execute(mode.getValue()).exitCode() != 0) {
+                    logger.error("Modo {} falhou: {}", mode.getKey(), String.join(" ", mode.getValue()));
+                    exitCode = 1;
+                    continue;
+                }
+                List<Double> wall = new ArrayList<>();
+                List<Double> started = new ArrayList<>();
+                for (int i = 0; i < runs; i++) {
+                    Execution execution = execute(mode.getValue());
+                    wall.add(execution.wallMillis());
+                    started.add(execution.startedMillis());
+                }
+                results.put(mode.getKey(), new double[] {median(wall), median(started)});
+                logger.info("Modo {}: processo {} ms, Spring Boot {} ms (medianas de {} execuções)",
+                        mode.getKey(), Math.round(median(wall)), Math.round(median(started)), runs);
+            }
+
+            double baseline = results.containsKey("jvm") ? results.get("jvm")[0] : Double.NaN;
+            logger.info("=========================================");
+            logger.info("Subida da aplicação (medianas de {} execuções)", runs);
+            logger.info(String.format("%-10s %14s %14s %12s", "modo", "processo (ms)", "started (ms)", "vs jvm"));
+            for (Map.Entry<String, double[]> result : results.entrySet()) {
+                double[] values = result.getValue();
+                logger.info(String.format("%-10s %14.0f %14.0f %11.0f%%",
+                        result.getKey(), values[0], values[1], (values[0] / baseline - 1.0) * 100.0));
+            }
+            logger.info("=========================================");
+        } finally {
+            if (embeddedPostgres != null) {
+                embeddedPostgres.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static Execution execute(List<String> command) throws Exception {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        double startedMillis = Double.NaN;
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+                if (matcher.find()) {
+                    startedMillis = Double.parseDouble(matcher.group(1)) * 1000.0;
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        return new Execution(exitCode, (System.nanoTime() - start) / 1_000_000.0, startedMillis);
+    }
+
+    private static double median(List<Double> values) {
+        List<Double> sorted = values.stream().sorted().toList();
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2.0;
+    }
+
+    private record Execution(int exitCode, double wallMillis, double startedMillis) {
+    }
+}
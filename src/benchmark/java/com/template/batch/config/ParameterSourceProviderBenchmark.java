@@ -0,0 +1,57 @@
+package com.template.batch.config;
+
+import com.template.batch.domain.SourceRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.batch.item.database.ItemSqlParameterSourceProvider;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Providers de MapSqlParameterSource do WriterConfig
+ * 
+ * Mede o que o JdbcBatchItemWriter faz por item: cria o SqlParameterSource e
+ * resolve os parâmetros nomeados do SQL (buildValueArray)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParameterSourceProviderBenchmark {
+
+    private ItemSqlParameterSourceProvider<SourceRecord> stagingProvider;
+    private ItemSqlParameterSourceProvider<SourceRecord> changeLogProvider;
+    private ParsedSql stagingSql;
+    private ParsedSql changeLogSql;
+    private SourceRecord item;
+
+    @Setup
+    public void setUp() {
+        stagingProvider = WriterConfig.stagingParameterSourceProvider();
+        changeLogProvider = WriterConfig.changeLogParameterSourceProvider();
+        stagingSql = NamedParameterUtils.parseSqlStatement(
+                "INSERT INTO staging_table_a (id, name, value) VALUES (:id, :nome, :valor) " +
+                "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, value = EXCLUDED.value");
+        changeLogSql = NamedParameterUtils.parseSqlStatement(
+                "INSERT INTO staging_change_log (id, changed_at) VALUES (:id, LOCALTIMESTAMP) " +
+                "ON CONFLICT (id) DO UPDATE SET changed_at = EXCLUDED.changed_at");
+        item = new SourceRecord(42L, "Produto A42", new BigDecimal("100.50"));
+    }
+
+    @Benchmark
+    public Object[] stagingParameters() {
+        return NamedParameterUtils.buildValueArray(stagingSql, stagingProvider.createSqlParameterSource(item), null);
+    }
+
+    @Benchmark
+    public Object[] changeLogParameters() {
+        return NamedParameterUtils.buildValueArray(changeLogSql, changeLogProvider.createSqlParameterSource(item), null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.template.batch.config;
+
+import com.template.batch.benchmark.BenchmarkFixtures;
+import com.template.batch.domain.JoinedSourceRecord;
+import com.template.batch.domain.MergedRecord;
+import com.template.batch.domain.SourceRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RowMappers do ReaderConfig: custo por linha lida (chamado uma vez por registro do cursor)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RowMapperBenchmark {
+
+    private RowMapper<SourceRecord> sourceRecordRowMapper;
+    private RowMapper<JoinedSourceRecord> joinedSourceRecordRowMapper;
+    private RowMapper<MergedRecord> mergedRecordRowMapper;
+
+    private ResultSet sourceRow;
+    private ResultSet joinedRow;
+    private ResultSet mergedRow;
+
+    @Setup
+    public void setUp() {
+        ReaderConfig readerConfig = new ReaderConfig();
+        sourceRecordRowMapper = readerConfig.sourceRecordRowMapper();
+        joinedSourceRecordRowMapper = readerConfig.joinedSourceRecordRowMapper();
+        mergedRecordRowMapper = readerConfig.mergedRecordRowMapper();
+
+        sourceRow = BenchmarkFixtures.resultSet(Map.of(
+                "id", 42L, "nome", "Produto A42", "valor", new BigDecimal("100.50")));
+        joinedRow = BenchmarkFixtures.resultSet(Map.of(
+                "id", 42L, "name", "Produto A42", "value_a", new BigDecimal("100.50"),
+                "value_b", new BigDecimal("300.00")));
+        mergedRow = BenchmarkFixtures.resultSet(Map.of(
+                "id", 42L, "name_a", "Produto A42", "value_a", new BigDecimal("100.50"),
+                "name_b", "Serviço B42", "value_b", new BigDecimal("300.00")));
+    }
+
+    @Benchmark
+    public SourceRecord sourceRecord() throws SQLException {
+        return sourceRecordRowMapper.mapRow(sourceRow, 0);
+    }
+
+    @Benchmark
+    public JoinedSourceRecord joinedSourceRecord() throws SQLException {
+        return joinedSourceRecordRowMapper.mapRow(joinedRow, 0);
+    }
+
+    @Benchmark
+    public MergedRecord mergedRecord() throws SQLException {
+        return mergedRecordRowMapper.mapRow(mergedRow, 0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.template.batch.processor;
+
+import com.template.batch.benchmark.BenchmarkFixtures;
+import com.template.batch.domain.JoinedSourceRecord;
+import com.template.batch.domain.MergedRecord;
+import com.template.batch.domain.SourceRecord;
+import com.template.batch.domain.TargetRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.batch.core.StepExecution;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processors (um process() por item)
+ * 
+ * withProcessDate:
+ * - true: processDate nos JobParameters (conversão yyyyMMdd a cada item)
+ * - false: LocalDateTime.now() a cada item
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProcessorBenchmark {
+
+    @Param({"true", "false"})
+    public boolean withProcessDate;
+
+    private CommonItemProcessor commonItemProcessor;
+    private JoinedSourceRecordProcessor joinedSourceRecordProcessor;
+    private MergedRecordProcessor mergedRecordProcessor;
+
+    private SourceRecord sourceRecord;
+    private JoinedSourceRecord joinedSourceRecord;
+    private MergedRecord mergedRecord;
+
+    @Setup
+    public void setUp() {
+        StepExecution stepExecution = BenchmarkFixtures.stepExecution(BenchmarkFixtures.jobParameters(withProcessDate));
+
+        commonItemProcessor = new CommonItemProcessor();
+        commonItemProcessor.setStepExecution(stepExecution);
+        joinedSourceRecordProcessor = new JoinedSourceRecordProcessor();
+        joinedSourceRecordProcessor.setStepExecution(stepExecution);
+        mergedRecordProcessor = new MergedRecordProcessor();
+        mergedRecordProcessor.setStepExecution(stepExecution);
+
+        sourceRecord = new SourceRecord(42L, "Produto A42", new BigDecimal("100.50"));
+
+        joinedSourceRecord = new JoinedSourceRecord();
+        joinedSourceRecord.setId(42L);
+        joinedSourceRecord.setName("Produto A42");
+        joinedSourceRecord.setValueA(new BigDecimal("100.50"));
+        joinedSourceRecord.setValueB(new BigDecimal("300.00"));
+
+        mergedRecord = new MergedRecord();
+        mergedRecord.setId(42L);
+        mergedRecord.setNameA("Produto A42");
+        mergedRecord.setValueA(new BigDecimal("100.50"));
+        mergedRecord.setNameB("Serviço B42");
+        mergedRecord.setValueB(new BigDecimal("300.00"));
+    }
+
+    @Benchmark
+    public TargetRecord commonItemProcessor() throws Exception {
+        return commonItemProcessor.process(sourceRecord);
+    }
+
+    @Benchmark
+    public TargetRecord joinedSourceRecordProcessor() throws Exception {
+        return joinedSourceRecordProcessor.process(joinedSourceRecord);
+    }
+
+    @Benchmark
+    public TargetRecord mergedRecordProcessor() throws Exception {
+        return mergedRecordProcessor.process(mergedRecord);
+    }
+}
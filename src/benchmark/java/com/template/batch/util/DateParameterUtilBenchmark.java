@@ -0,0 +1,49 @@
+package com.template.batch.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DateParameterUtil: chamado pelos processors uma vez por item
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DateParameterUtilBenchmark {
+
+    private JobParameters longDate;
+    private JobParameters stringDate;
+    private JobParameters noDate;
+
+    @Setup
+    public void setUp() {
+        longDate = new JobParametersBuilder().addLong("processDate", 20260119L).toJobParameters();
+        stringDate = new JobParametersBuilder().addString("processDate", "20260119").toJobParameters();
+        noDate = new JobParametersBuilder().addLong("time", 1L).toJobParameters();
+    }
+
+    @Benchmark
+    public LocalDateTime processDateAsLong() {
+        return DateParameterUtil.getProcessDate(longDate);
+    }
+
+    @Benchmark
+    public LocalDateTime processDateAsString() {
+        return DateParameterUtil.getProcessDate(stringDate);
+    }
+
+    @Benchmark
+    public LocalDateTime processDateOrDefaultWithoutParameter() {
+        return DateParameterUtil.getProcessDateOrDefault(noDate);
+    }
+}
@@ -2,11 +2,22 @@ package com.template.batch;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
 
 @SpringBootApplication
 public class SpringBatchApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(SpringBatchApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(SpringBatchApplication.class, args);
+
+        // Modo servidor/agendador: a aplicação continua no ar recebendo jobs
+        Environment environment = context.getEnvironment();
+        if (environment.getProperty("batch.server.enabled", Boolean.class, false)
+                || environment.getProperty("batch.scheduler.enabled", Boolean.class, false)) {
+            return;
+        }
+        // Código de saída combinado dos jobs executados na subida (JobLauncherRunner)
+        System.exit(SpringApplication.exit(context));
     }
 }
@@ -0,0 +1,156 @@
+package com.template.batch.config;
+
+import com.template.batch.util.DateParameterUtil;
+import com.template.batch.util.JobParametersUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Backfill: executa um job uma vez por data de uma faixa (startDate a endDate, inclusive)
+ *
+ * EXECUÇÃO:
+ * - Uma JobExecution por data (processDate), até batch.backfill.max-concurrent-dates
+ *   datas ao mesmo tempo no pool "backfill-" (padrão 1: em ordem, a data mais recente
+ *   prevalece na target_table)
+ * - Modo incremental (batch.incremental.enabled): sempre uma data por vez; datas
+ *   concorrentes leriam e gravariam o mesmo batch_job_watermark (job_name, step_name)
+ * - Linhas com (nome, valor) iguais também são reescritas (rewriteUnchanged, ver
+ *   JobParametersUtil.buildRestartable): com skip-unchanged o backfill não mudaria nada
+ * - Parâmetros sem "time" (JobParametersUtil.buildRestartable): cada data é uma
+ *   JobInstance própria e reiniciável
+ *
+ * REEXECUTAR A MESMA FAIXA:
+ * - Datas já COMPLETED não rodam de novo (JÁ CONCLUÍDO)
+ * - Datas FAILED/STOPPED são reiniciadas do ponto em que pararam
+ *
+ * RESUMO:
+ * - Por data: status, tempo e itens lidos/escritos
+ * - Consolidado: datas concluídas/com falha, itens e tempo total
+ */
+@Component
+public class BackfillLauncher {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackfillLauncher.class);
+
+    private static final String ALREADY_COMPLETE = "JÁ CONCLUÍDO";
+
+    private final JobLauncher jobLauncher;
+    private final JobRegistry jobRegistry;
+    private final int maxConcurrentDates;
+    private final int maxDates;
+
+    public BackfillLauncher(
+            JobLauncher jobLauncher,
+            JobRegistry jobRegistry,
+            @Value("${batch.backfill.max-concurrent-dates:1}") int maxConcurrentDates,
+            @Value("${batch.backfill.max-dates:366}") int maxDates,
+            @Value("${batch.incremental.enabled:false}") boolean incremental) {
+        this.jobLauncher = jobLauncher;
+        this.jobRegistry = jobRegistry;
+        if (incremental && maxConcurrentDates > 1) {
+            logger.warn("Backfill com batch.incremental.enabled: datas executadas uma por vez "
+                    + "(batch.backfill.max-concurrent-dates={} ignorado, o watermark é único por step)", maxConcurrentDates);
+        }
+        this.maxConcurrentDates = incremental ? 1 : Math.max(maxConcurrentDates, 1);
+        this.maxDates = maxDates;
+    }
+
+    /**
+     * @param startDate primeira data (yyyyMMdd)
+     * @param endDate última data (yyyyMMdd, inclusive)
+     * @param fullReprocess repassado a cada execução (não identificador)
+     * @return código de saída: 0 se todas as datas estão concluídas, 1 caso contrário
+     */
+    public int launch(String jobName, String startDate, String endDate, String fullReprocess) throws Exception {
+        LocalDate start = DateParameterUtil.parseDate(startDate);
+        LocalDate end = DateParameterUtil.parseDate(endDate);
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Backfill: endDate " + endDate + " anterior a startDate " + startDate);
+        }
+        long dateCount = ChronoUnit.DAYS.between(start, end) + 1;
+        if (dateCount > maxDates) {
+            throw new IllegalArgumentException("Backfill: " + dateCount + " datas acima do limite batch.backfill.max-dates=" + maxDates);
+        }
+        Job job = jobRegistry.getJob(jobName);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize((int) Math.min(maxConcurrentDates, dateCount));
+        executor.setMaxPoolSize(executor.getCorePoolSize());
+        executor.setThreadNamePrefix("backfill-");
+        executor.initialize();
+
+        logger.info("Backfill de {}: {} a {} ({} datas, até {} simultâneas)",
+                jobName, startDate, endDate, dateCount, executor.getCorePoolSize());
+        long backfillStart = System.nanoTime();
+        List<CompletableFuture<JobGraphLauncher.JobRun>> runs = new ArrayList<>();
+        try {
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                String processDate = DateParameterUtil.formatDate(date);
+                runs.add(CompletableFuture.supplyAsync(() -> run(job, processDate, fullReprocess), executor));
+            }
+            CompletableFuture.allOf(runs.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<JobGraphLauncher.JobRun> results = runs.stream().map(CompletableFuture::join).toList();
+        logSummary(jobName, results, backfillStart);
+        return results.stream().allMatch(this::isDone) ? 0 : 1;
+    }
+
+    private JobGraphLauncher.JobRun run(Job job, String processDate, String fullReprocess) {
+        long start = System.nanoTime();
+        try {
+            JobExecution execution = jobLauncher.run(job, JobParametersUtil.buildRestartable(processDate, fullReprocess));
+            return JobGraphLauncher.JobRun.of(processDate, execution, start, System.nanoTime());
+        } catch (JobInstanceAlreadyCompleteException e) {
+            logger.info("Backfill: {} já concluído para {}, ignorado", job.getName(), processDate);
+            return new JobGraphLauncher.JobRun(processDate, ALREADY_COMPLETE, start, System.nanoTime(), 0L, 0L, false);
+        } catch (Exception e) {
+            logger.error("Backfill: falha ao iniciar {} para {}", job.getName(), processDate, e);
+            return new JobGraphLauncher.JobRun(processDate, "FALHA AO INICIAR", start, System.nanoTime(), 0L, 0L, false);
+        }
+    }
+
+    private boolean isDone(JobGraphLauncher.JobRun run) {
+        return run.completed() || ALREADY_COMPLETE.equals(run.status());
+    }
+
+    private void logSummary(String jobName, List<JobGraphLauncher.JobRun> results, long backfillStart) {
+        long wallMillis = (System.nanoTime() - backfillStart) / 1_000_000;
+        logger.info("=========================================");
+        logger.info("Resumo do backfill de {}", jobName);
+        logger.info(String.format("%-10s %-16s %12s %12s %12s", "data", "status", "tempo (ms)", "lidos", "escritos"));
+        long readCount = 0L;
+        long writeCount = 0L;
+        long executedMillis = 0L;
+        for (JobGraphLauncher.JobRun run : results) {
+            logger.info(String.format("%-10s %-16s %12d %12d %12d",
+                    run.name(), run.status(), run.wallMillis(), run.readCount(), run.writeCount()));
+            readCount += run.readCount();
+            writeCount += run.writeCount();
+            executedMillis += run.wallMillis();
+        }
+        long completed = results.stream().filter(JobGraphLauncher.JobRun::completed).count();
+        long alreadyComplete = results.stream().filter(run -> ALREADY_COMPLETE.equals(run.status())).count();
+        logger.info("Datas: {} concluídas, {} já concluídas antes, {} sem sucesso (reexecute a mesma faixa para reiniciá-las)",
+                completed, alreadyComplete, results.size() - completed - alreadyComplete);
+        logger.info("Itens: {} lidos, {} escritos | Tempo total: {} ms (soma das datas: {} ms)",
+                readCount, writeCount, wallMillis, executedMillis);
+        logger.info("=========================================");
+    }
+}
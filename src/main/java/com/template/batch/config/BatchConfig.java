@@ -1,9 +1,239 @@
 package com.template.batch.config;
 
+import com.template.batch.jdbc.InstrumentedDataSource;
+import com.template.batch.jdbc.SqlStatementRecorder;
+import com.template.batch.repository.BatchedMetadataJobRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.SimpleJobOperator;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.UUID;
 
 @Configuration
+@ImportRuntimeHints(BatchRuntimeHints.class)
 public class BatchConfig {
     // Spring Boot 3.x já faz autoconfiguração do Spring Batch automaticamente
     // Não precisa de @EnableBatchProcessing - isso desativa a autoconfiguração
+
+    /**
+     * TaskExecutor das partições por faixa de id (batch.partition.grid-size)
+     * Uma thread por partição: cada thread escreve apenas a sua faixa de ids
+     */
+    @Bean
+    public ThreadPoolTaskExecutor partitionTaskExecutor(@Value("${batch.partition.grid-size:1}") int gridSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(gridSize);
+        executor.setMaxPoolSize(gridSize);
+        executor.setThreadNamePrefix("partition-");
+        return executor;
+    }
+
+    /**
+     * Substitui o DataSource de cada pool por InstrumentedDataSource (batch.jdbc.instrumentation.enabled)
+     * 
+     * POR QUE UM BeanPostProcessor?
+     * - O decorator precisa ser o MESMO objeto usado pelo PlatformTransactionManager,
+     *   pelo JobRepository e pelos readers/writers/JdbcTemplates
+     * - Trocando o bean na criação, todos recebem a versão instrumentada sem mudanças
+     *   nas demais configurações
+     * 
+     * static: BeanPostProcessors são criados antes dos demais beans da configuração
+     * PriorityOrdered: registrado antes do jobRegistryBeanPostProcessor do Spring Boot,
+     * que ao ser criado já instancia o DataSource (sem a prioridade o DataSource
+     * nasceria antes deste post-processor e não seria instrumentado); o tipo de retorno
+     * é a classe concreta para o Spring enxergar o PriorityOrdered antes de instanciá-la
+     */
+    @Bean
+    public static InstrumentedDataSourcePostProcessor instrumentedDataSourcePostProcessor(
+            @Value("${batch.jdbc.instrumentation.enabled:false}") boolean enabled,
+            ObjectProvider<SqlStatementRecorder> recorder) {
+        return new InstrumentedDataSourcePostProcessor(enabled, recorder);
+    }
+
+    static class InstrumentedDataSourcePostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        private final boolean enabled;
+        private final ObjectProvider<SqlStatementRecorder> recorder;
+
+        InstrumentedDataSourcePostProcessor(boolean enabled, ObjectProvider<SqlStatementRecorder> recorder) {
+            this.enabled = enabled;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (enabled && bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                String poolName = bean instanceof HikariDataSource hikari && hikari.getPoolName() != null
+                        ? hikari.getPoolName() : beanName;
+                return new InstrumentedDataSource(dataSource, recorder.getObject(), poolName);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    /**
+     * Modo do JobRepository (batch.repository.mode)
+     *
+     * - jdbc (padrão): metadados gravados a cada chunk (restart a partir do último chunk)
+     * - batched: BatchedMetadataJobRepository, metadados do step a cada
+     *   batch.repository.flush-interval-chunks chunks ou flush-interval-seconds segundos
+     * - memory: JobRepository e JobExplorer em um H2 em memória, sem I/O de metadados no
+     *   PostgreSQL; sem restart nem histórico entre execuções (execuções ad hoc)
+     *
+     * Mesmo padrão do InstrumentedDataSourcePostProcessor: o bean é trocado na criação e
+     * os launchers da aplicação recebem a versão decorada
+     *
+     * JobLauncher/JobOperator do Spring Boot: a configuração do Batch não usa proxy nos
+     * métodos @Bean, então cada um nasce com um JobRepository próprio (não é o bean);
+     * fora do modo jdbc eles são religados aos beans JobRepository/JobExplorer/JobLauncher
+     */
+    @Bean
+    public static JobRepositoryPostProcessor jobRepositoryPostProcessor(
+            @Value("${batch.repository.mode:jdbc}") String mode,
+            @Value("${batch.repository.flush-interval-chunks:10}") int flushIntervalChunks,
+            @Value("${batch.repository.flush-interval-seconds:5}") long flushIntervalSeconds,
+            @Value("${batch.jdbc.instrumentation.enabled:false}") boolean instrumentationEnabled,
+            ObjectProvider<SqlStatementRecorder> recorder,
+            ObjectProvider<JobRepository> jobRepository,
+            ObjectProvider<JobExplorer> jobExplorer,
+            ObjectProvider<JobLauncher> jobLauncher) {
+        return new JobRepositoryPostProcessor(mode.trim().toLowerCase(), flushIntervalChunks, flushIntervalSeconds,
+                instrumentationEnabled, recorder, jobRepository, jobExplorer, jobLauncher);
+    }
+
+    static class JobRepositoryPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        private static final Logger logger = LoggerFactory.getLogger(JobRepositoryPostProcessor.class);
+
+        private final String mode;
+        private final int flushIntervalChunks;
+        private final long flushIntervalSeconds;
+        private final boolean instrumentationEnabled;
+        private final ObjectProvider<SqlStatementRecorder> recorder;
+        private final ObjectProvider<JobRepository> jobRepository;
+        private final ObjectProvider<JobExplorer> jobExplorer;
+        private final ObjectProvider<JobLauncher> jobLauncher;
+
+        // H2 compartilhado pelo JobRepository e pelo JobExplorer (modo memory)
+        private DataSource inMemoryDataSource;
+
+        JobRepositoryPostProcessor(String mode, int flushIntervalChunks, long flushIntervalSeconds,
+                                   boolean instrumentationEnabled, ObjectProvider<SqlStatementRecorder> recorder,
+                                   ObjectProvider<JobRepository> jobRepository, ObjectProvider<JobExplorer> jobExplorer,
+                                   ObjectProvider<JobLauncher> jobLauncher) {
+            if (!mode.equals("jdbc") && !mode.equals("batched") && !mode.equals("memory")) {
+                throw new IllegalArgumentException("batch.repository.mode inválido: " + mode + " (jdbc, batched ou memory)");
+            }
+            this.mode = mode;
+            this.flushIntervalChunks = flushIntervalChunks;
+            this.flushIntervalSeconds = flushIntervalSeconds;
+            this.instrumentationEnabled = instrumentationEnabled;
+            this.recorder = recorder;
+            this.jobRepository = jobRepository;
+            this.jobExplorer = jobExplorer;
+            this.jobLauncher = jobLauncher;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (mode.equals("jdbc")) {
+                return bean;
+            }
+            if (bean instanceof JobRepository repository && !(bean instanceof BatchedMetadataJobRepository)) {
+                if (mode.equals("batched")) {
+                    logger.info("JobRepository com metadados do step a cada {} chunks ou {} s",
+                            flushIntervalChunks, flushIntervalSeconds);
+                    return new BatchedMetadataJobRepository(repository, flushIntervalChunks, flushIntervalSeconds);
+                }
+                if (mode.equals("memory")) {
+                    logger.warn("JobRepository em memória (H2): execuções não podem ser reiniciadas nem consultadas depois");
+                    return inMemoryJobRepository();
+                }
+            }
+            if (bean instanceof JobExplorer && mode.equals("memory")) {
+                return inMemoryJobExplorer();
+            }
+            if (bean instanceof TaskExecutorJobLauncher launcher) {
+                launcher.setJobRepository(jobRepository.getObject());
+            }
+            if (bean instanceof SimpleJobOperator operator) {
+                operator.setJobRepository(jobRepository.getObject());
+                operator.setJobExplorer(jobExplorer.getObject());
+                operator.setJobLauncher(jobLauncher.getObject());
+            }
+            return bean;
+        }
+
+        private JobRepository inMemoryJobRepository() {
+            try {
+                JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+                factory.setDataSource(inMemoryDataSource());
+                factory.setTransactionManager(new DataSourceTransactionManager(inMemoryDataSource()));
+                factory.setDatabaseType("H2");
+                factory.setIsolationLevelForCreate("ISOLATION_READ_COMMITTED");
+                factory.afterPropertiesSet();
+                return factory.getObject();
+            } catch (Exception e) {
+                throw new BeanInitializationException("Falha ao criar o JobRepository em memória", e);
+            }
+        }
+
+        private JobExplorer inMemoryJobExplorer() {
+            try {
+                JobExplorerFactoryBean factory = new JobExplorerFactoryBean();
+                factory.setDataSource(inMemoryDataSource());
+                factory.setTransactionManager(new DataSourceTransactionManager(inMemoryDataSource()));
+                factory.afterPropertiesSet();
+                return factory.getObject();
+            } catch (Exception e) {
+                throw new BeanInitializationException("Falha ao criar o JobExplorer em memória", e);
+            }
+        }
+
+        private synchronized DataSource inMemoryDataSource() {
+            if (inMemoryDataSource == null) {
+                // Com pool: sem ele cada chamada ao repositório (3 por chunk) abriria uma sessão H2
+                HikariDataSource h2 = new HikariDataSource();
+                h2.setJdbcUrl("jdbc:h2:mem:batch-metadata-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+                h2.setUsername("sa");
+                h2.setPoolName("batch-metadata");
+                new ResourceDatabasePopulator(new ClassPathResource("org/springframework/batch/core/schema-h2.sql"))
+                        .execute(h2);
+                // Instrumentado: o custo dos metadados continua aparecendo no resumo do step
+                inMemoryDataSource = instrumentationEnabled ? new InstrumentedDataSource(h2, recorder.getObject(), h2.getPoolName()) : h2;
+            }
+            return inMemoryDataSource;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE + 1;
+        }
+    }
 }
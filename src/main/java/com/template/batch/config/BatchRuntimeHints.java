@@ -0,0 +1,42 @@
+package com.template.batch.config;
+
+import com.template.batch.jfr.BatchChunkCommitEvent;
+import com.template.batch.jfr.BatchJobEvent;
+import com.template.batch.jfr.BatchReaderFetchEvent;
+import com.template.batch.jfr.BatchStepEvent;
+import com.template.batch.jfr.BatchWriterFlushEvent;
+import com.template.batch.jfr.MergeLookupEvent;
+import com.template.batch.progress.BatchProgressMXBean;
+import com.template.batch.progress.StepProgressSnapshot;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflexão usada fora do Spring (AOT / GraalVM native-image)
+ *
+ * - JMX: o MXBean de progresso é introspectado pelo MBeanServer (interface + getters do snapshot)
+ * - JFR: eventos customizados são lidos por reflexão (campos anotados) ao registrar/emitir
+ * - Recursos: scripts do SchemaVersionManager (db/migration, db/seed) localizados por padrão
+ *
+ * Readers, writers e RowMappers não precisam de hints: não usam BeanPropertyRowMapper
+ * nem mapeamento por reflexão.
+ */
+public class BatchRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+                .registerType(BatchProgressMXBean.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+                .registerType(StepProgressSnapshot.class,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        for (Class<?> event : new Class<?>[] {BatchJobEvent.class, BatchStepEvent.class, BatchChunkCommitEvent.class,
+                BatchReaderFetchEvent.class, BatchWriterFlushEvent.class, MergeLookupEvent.class}) {
+            hints.reflection().registerType(event, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources()
+                .registerPattern("db/migration/*.sql")
+                .registerPattern("db/seed/*.sql");
+    }
+}
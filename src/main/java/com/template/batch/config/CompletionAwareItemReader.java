@@ -0,0 +1,72 @@
+package com.template.batch.config;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+
+/**
+ * ItemReader que executa uma ação quando o reader interno se esgota,
+ * DENTRO da transação do último chunk
+ * 
+ * POR QUE NO update() E NÃO NO afterStep()?
+ * 
+ * 1. ATOMICIDADE
+ *    - O TaskletStep chama ItemStream.update() dentro da transação do chunk,
+ *      logo depois do writer e antes de persistir o ExecutionContext
+ *    - A ação (ex: avançar watermark) faz commit junto com o último chunk
+ *    - Se o último chunk fizer rollback, a ação também é desfeita
+ *    - afterStep() roda FORA da transação: uma falha entre o commit do chunk
+ *      e o afterStep deixaria o estado inconsistente
+ * 
+ * 2. CHUNK FINAL VAZIO
+ *    - Quando o total de itens é múltiplo do chunk size (ou zero), o último chunk
+ *      não tem itens e o writer não é chamado
+ *    - update() é chamado mesmo assim, então a ação sempre é executada
+ * 
+ * REQUISITO:
+ * - A ação deve usar o mesmo DataSource do PlatformTransactionManager
+ *   (JdbcTemplate participa da transação do chunk automaticamente)
+ */
+public class CompletionAwareItemReader<T> implements ItemStreamReader<T> {
+
+    private final ItemStreamReader<T> delegate;
+    private final Runnable onCompletion;
+
+    private boolean exhausted;
+    private boolean completed;
+
+    public CompletionAwareItemReader(ItemStreamReader<T> delegate, Runnable onCompletion) {
+        this.delegate = delegate;
+        this.onCompletion = onCompletion;
+    }
+
+    @Override
+    public T read() throws Exception {
+        T item = delegate.read();
+        if (item == null) {
+            exhausted = true;
+        }
+        return item;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        exhausted = false;
+        completed = false;
+        delegate.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        delegate.update(executionContext);
+        // Reader esgotado: este é o chunk final (ainda dentro da transação)
+        if (exhausted && !completed) {
+            onCompletion.run();
+            completed = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,169 @@
+package com.template.batch.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Pools de conexão por papel (batch.datasource.*), com a URL/usuário de spring.datasource
+ * (reader e lookup: da réplica de leitura, quando configurada)
+ *
+ * POR QUE SEPARAR?
+ * - Cursor do JdbcCursorItemReader prende uma conexão durante todo o step; writers precisam
+ *   de uma conexão por chunk (transação) e o lookup do merge de uma por item
+ * - Em um pool único, N partições com cursor aberto esgotam as conexões e as transações dos
+ *   chunks (e o JobRepository) ficam esperando connection-timeout até falhar
+ * - Pool por papel: cursores nunca tiram conexão de transação, e cada papel tem o próprio
+ *   timeout e as próprias configurações de sessão
+ *
+ * PAPÉIS:
+ * - writer (@Primary, "dataSource"): PlatformTransactionManager, JobRepository, writers,
+ *   watermark e demais JdbcTemplates; tudo que participa da transação do chunk
+ * - reader ("readerDataSource"): cursores dos readers; autocommit desligado (o PostgreSQL só
+ *   busca em lotes de fetch-size dentro de transação, com autocommit traz o resultado inteiro),
+ *   READ ONLY e sem idle_in_transaction_session_timeout (a sessão fica ociosa entre fetches)
+ * - lookup ("lookupDataSource"): consultas curtas por item; timeout de conexão e de statement
+ *   curtos (lookup travado falha o chunk em vez de segurar a partição)
+ *
+ * CONFIGURAÇÃO POR PAPEL (batch.datasource.<papel>.*, como spring.datasource.hikari.*):
+ * - maximum-pool-size, connection-timeout-ms: atalhos (0 = dimensionamento automático)
+ * - options: parâmetros de sessão do PostgreSQL ("-c nome=valor ..."); reader padrão sem
+ *   idle_in_transaction_session_timeout nem statement_timeout, lookup acrescenta
+ *   statement_timeout=statement-timeout-ms
+ * - hikari.*: qualquer propriedade do HikariConfig (minimum-idle, max-lifetime,
+ *   leak-detection-threshold, data-source-properties.*, ...), aplicada por último
+ *   e com precedência sobre os valores acima
+ *
+ * DIMENSIONAMENTO (maximum-pool-size 0 = automático):
+ * - jobs = maior entre batch.graph.max-concurrent-jobs, batch.server.max-concurrent-jobs e
+ *   batch.backfill.max-concurrent-dates; steps = jobs × batch.partition.grid-size
+ * - reader = steps (um cursor por step) | lookup = steps (um lookup por vez por thread)
+ * - writer = steps + jobs (transação de cada step + metadados da thread de cada job)
+ *
+ * RÉPLICA DE LEITURA (batch.datasource.replica.url, opcional):
+ * - Preenchida: reader e lookup conectam na réplica (usuário/senha de spring.datasource se
+ *   não informados); writer, JobRepository e watermark continuam no primário
+ * - Atraso verificado no início de cada step e, nos readers com janela, depois do limite
+ *   (ReplicaLagListener); réplica que não é standby falha o step
+ * - Substituto local em testes: segundo banco no mesmo servidor (CREATE DATABASE ... TEMPLATE)
+ *   com batch.datasource.replica.allow-non-standby=true
+ *
+ * ESPERA POR CONEXÃO:
+ * - Actuator: hikaricp.connections.acquire/pending/timeout com a tag pool=batch-writer|reader|lookup
+ * - Resumo de cada step: espera por pool (InstrumentedDataSource, batch.jdbc.instrumentation.enabled)
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    private final DataSourceProperties properties;
+    private final Binder binder;
+    private final String applicationName;
+    private final int concurrentJobs;
+    private final int concurrentSteps;
+    private final String replicaUrl;
+    private final String replicaUsername;
+    private final String replicaPassword;
+
+    public DataSourceConfig(
+            DataSourceProperties properties,
+            Environment environment,
+            @Value("${spring.application.name:template-spring-batch}") String applicationName,
+            @Value("${batch.partition.grid-size:1}") int gridSize,
+            @Value("${batch.graph.max-concurrent-jobs:4}") int graphConcurrentJobs,
+            @Value("${batch.server.max-concurrent-jobs:2}") int serverConcurrentJobs,
+            @Value("${batch.backfill.max-concurrent-dates:1}") int backfillConcurrentDates,
+            @Value("${batch.datasource.replica.url:}") String replicaUrl,
+            @Value("${batch.datasource.replica.username:}") String replicaUsername,
+            @Value("${batch.datasource.replica.password:}") String replicaPassword) {
+        this.properties = properties;
+        this.binder = Binder.get(environment);
+        this.applicationName = applicationName;
+        this.concurrentJobs = Math.max(1, Math.max(graphConcurrentJobs, Math.max(serverConcurrentJobs, backfillConcurrentDates)));
+        this.concurrentSteps = concurrentJobs * Math.max(gridSize, 1);
+        this.replicaUrl = replicaUrl;
+        this.replicaUsername = replicaUsername;
+        this.replicaPassword = replicaPassword;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Value("${batch.datasource.writer.maximum-pool-size:0}") int maximumPoolSize,
+            @Value("${batch.datasource.writer.connection-timeout-ms:30000}") long connectionTimeoutMillis,
+            @Value("${batch.datasource.writer.options:}") String options) {
+        HikariDataSource pool = pool("writer", maximumPoolSize > 0 ? maximumPoolSize : concurrentSteps + concurrentJobs,
+                connectionTimeoutMillis, false);
+        return configure(pool, "writer", options);
+    }
+
+    @Bean
+    public DataSource readerDataSource(
+            @Value("${batch.datasource.reader.maximum-pool-size:0}") int maximumPoolSize,
+            @Value("${batch.datasource.reader.connection-timeout-ms:30000}") long connectionTimeoutMillis,
+            @Value("${batch.datasource.reader.fetch-size:1000}") int fetchSize,
+            @Value("${batch.datasource.reader.options:-c idle_in_transaction_session_timeout=0 -c statement_timeout=0}") String options) {
+        HikariDataSource pool = pool("reader", maximumPoolSize > 0 ? maximumPoolSize : concurrentSteps,
+                connectionTimeoutMillis, true);
+        pool.setAutoCommit(false);
+        pool.setReadOnly(true);
+        // Readers sem fetchSize explícito usam este (readers com .fetchSize(n) mantêm o próprio)
+        pool.addDataSourceProperty("defaultRowFetchSize", String.valueOf(fetchSize));
+        return configure(pool, "reader", options);
+    }
+
+    @Bean
+    public DataSource lookupDataSource(
+            @Value("${batch.datasource.lookup.maximum-pool-size:0}") int maximumPoolSize,
+            @Value("${batch.datasource.lookup.connection-timeout-ms:5000}") long connectionTimeoutMillis,
+            @Value("${batch.datasource.lookup.statement-timeout-ms:5000}") long statementTimeoutMillis,
+            @Value("${batch.datasource.lookup.options:}") String options) {
+        HikariDataSource pool = pool("lookup", maximumPoolSize > 0 ? maximumPoolSize : concurrentSteps,
+                connectionTimeoutMillis, true);
+        pool.setReadOnly(true);
+        return configure(pool, "lookup", ("-c statement_timeout=" + statementTimeoutMillis + " " + options).trim());
+    }
+
+    /**
+     * Parâmetros de sessão (options) e batch.datasource.<papel>.hikari.* sobre os padrões do papel
+     */
+    private HikariDataSource configure(HikariDataSource pool, String role, String options) {
+        if (options != null && !options.isBlank()) {
+            pool.addDataSourceProperty("options", options.trim());
+        }
+        binder.bind("batch.datasource." + role + ".hikari", Bindable.ofInstance(pool));
+        return pool;
+    }
+
+    private HikariDataSource pool(String role, int maximumPoolSize, long connectionTimeoutMillis, boolean readReplica) {
+        DataSourceBuilder<HikariDataSource> builder = properties.initializeDataSourceBuilder().type(HikariDataSource.class);
+        boolean replica = readReplica && replicaUrl != null && !replicaUrl.isBlank();
+        if (replica) {
+            builder.url(replicaUrl);
+            if (!replicaUsername.isBlank()) {
+                builder.username(replicaUsername).password(replicaPassword);
+            }
+        }
+        HikariDataSource pool = builder.build();
+        pool.setPoolName("batch-" + role);
+        pool.setMaximumPoolSize(maximumPoolSize);
+        pool.setConnectionTimeout(connectionTimeoutMillis);
+        // Papel visível em pg_stat_activity.application_name
+        pool.addDataSourceProperty("ApplicationName", applicationName + "-" + role);
+        logger.info("Pool {}{}: até {} conexões, espera máxima {} ms", pool.getPoolName(),
+                replica ? " (réplica " + replicaUrl + ")" : "", maximumPoolSize, connectionTimeoutMillis);
+        return pool;
+    }
+}
@@ -1,7 +1,10 @@
 package com.template.batch.config;
 
 import com.template.batch.listener.BatchExecutionListener;
+import com.template.batch.listener.JfrEventListener;
+import com.template.batch.listener.StepPerformanceListener;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
@@ -14,28 +17,80 @@ public class JobConfig {
     /**
      * Job A - Processa dados da source_table_a
      * Job independente que executa apenas o stepJobA
+     * Com batch.partition.grid-size > 1, executa stepJobA em partições por faixa de id
      */
     @Bean
     @org.springframework.beans.factory.annotation.Qualifier("jobA")
-    public Job jobA(JobRepository jobRepository, Step stepJobA, BatchExecutionListener listener) {
+    public Job jobA(
+            JobRepository jobRepository,
+            Step stepJobA,
+            Step stepJobAPartitioned,
+            @org.springframework.beans.factory.annotation.Value("${batch.partition.grid-size:1}") int gridSize,
+            BatchExecutionListener listener,
+            JfrEventListener jfrEventListener,
+            StepPerformanceListener performanceListener) {
         return new JobBuilder("jobA", jobRepository)
                 .incrementer(new org.springframework.batch.core.launch.support.RunIdIncrementer())
                 .listener(listener)
-                .start(stepJobA)
+                .listener((JobExecutionListener) jfrEventListener)
+                .listener(performanceListener)
+                .start(gridSize > 1 ? stepJobAPartitioned : stepJobA)
                 .build();
     }
 
     /**
      * Job B - Processa dados da source_table_b
      * Job independente que executa apenas o stepJobB
+     * Com batch.partition.grid-size > 1, executa stepJobB em partições por faixa de id
      */
     @Bean
     @org.springframework.beans.factory.annotation.Qualifier("jobB")
-    public Job jobB(JobRepository jobRepository, Step stepJobB, BatchExecutionListener listener) {
+    public Job jobB(
+            JobRepository jobRepository,
+            Step stepJobB,
+            Step stepJobBPartitioned,
+            @org.springframework.beans.factory.annotation.Value("${batch.partition.grid-size:1}") int gridSize,
+            BatchExecutionListener listener,
+            JfrEventListener jfrEventListener,
+            StepPerformanceListener performanceListener) {
         return new JobBuilder("jobB", jobRepository)
                 .incrementer(new org.springframework.batch.core.launch.support.RunIdIncrementer())
                 .listener(listener)
-                .start(stepJobB)
+                .listener((JobExecutionListener) jfrEventListener)
+                .listener(performanceListener)
+                .start(gridSize > 1 ? stepJobBPartitioned : stepJobB)
+                .build();
+    }
+
+    /**
+     * Union Job - Carrega source_table_a e source_table_b na target_table em UMA passada
+     * 
+     * QUANDO USAR ESTE JOB?
+     * 
+     * 1. SUBSTITUI jobA + jobB executados em sequência
+     *    - Mesmo resultado final: nos ids comuns a origem B prevalece
+     *      (configurável via batch.union.preferred-source)
+     *    - Ids comuns são escritos uma vez em vez de duas
+     * 
+     * 2. SEM DISPUTA DE LOCKS
+     *    - jobA e jobB concorrentes disputam row locks da target_table
+     *    - unionJob é o único escritor e grava em ordem crescente de id
+     * 
+     * DIFERENÇA DO joinDirectJob:
+     * - joinDirectJob: INNER JOIN e SOMA dos valores (apenas ids comuns)
+     * - unionJob: FULL OUTER JOIN e ESCOLHA de origem (todos os ids)
+     */
+    @Bean
+    @org.springframework.beans.factory.annotation.Qualifier("unionJob")
+    public Job unionJob(JobRepository jobRepository, Step unionStep, BatchExecutionListener listener,
+            JfrEventListener jfrEventListener,
+            StepPerformanceListener performanceListener) {
+        return new JobBuilder("unionJob", jobRepository)
+                .incrementer(new org.springframework.batch.core.launch.support.RunIdIncrementer())
+                .listener(listener)
+                .listener((JobExecutionListener) jfrEventListener)
+                .listener(performanceListener)
+                .start(unionStep)
                 .build();
     }
 
@@ -91,10 +146,14 @@ public class JobConfig {
      */
     @Bean
     @org.springframework.beans.factory.annotation.Qualifier("joinDirectJob")
-    public Job joinDirectJob(JobRepository jobRepository, Step joinDirectStep, BatchExecutionListener listener) {
+    public Job joinDirectJob(JobRepository jobRepository, Step joinDirectStep, BatchExecutionListener listener,
+            JfrEventListener jfrEventListener,
+            StepPerformanceListener performanceListener) {
         return new JobBuilder("joinDirectJob", jobRepository)
                 .incrementer(new org.springframework.batch.core.launch.support.RunIdIncrementer())
                 .listener(listener)
+                .listener((JobExecutionListener) jfrEventListener)
+                .listener(performanceListener)
                 .start(joinDirectStep)
                 .build();
     }
@@ -203,13 +262,35 @@ public class JobConfig {
             Step loadStagingAStep,
             Step loadStagingBStep,
             Step mergeFinalStep,
-            BatchExecutionListener listener) {
+            BatchExecutionListener listener,
+            JfrEventListener jfrEventListener,
+            StepPerformanceListener performanceListener) {
         return new JobBuilder("joinStagingJob", jobRepository)
                 .incrementer(new org.springframework.batch.core.launch.support.RunIdIncrementer())
                 .listener(listener)
+                .listener((JobExecutionListener) jfrEventListener)
+                .listener(performanceListener)
                 .start(loadStagingAStep)
                 .next(loadStagingBStep)
                 .next(mergeFinalStep)
                 .build();
     }
+
+    /**
+     * Expurgo dos metadados do Spring Batch (tabelas BATCH_*)
+     *
+     * - Remove (ou arquiva, batch.purge.archive) instâncias com execuções anteriores a
+     *   batch.purge.retention-days, em lotes e na ordem das chaves estrangeiras
+     * - Pode rodar com outros jobs ativos: só toca instâncias encerradas
+     * - Agendável como os demais (ex.: batch.scheduler.schedules: "metadataPurgeJob=0 0 3 * * *")
+     */
+    @Bean
+    @org.springframework.beans.factory.annotation.Qualifier("metadataPurgeJob")
+    public Job metadataPurgeJob(JobRepository jobRepository, Step metadataPurgeStep, BatchExecutionListener listener) {
+        return new JobBuilder("metadataPurgeJob", jobRepository)
+                .incrementer(new org.springframework.batch.core.launch.support.RunIdIncrementer())
+                .listener(listener)
+                .start(metadataPurgeStep)
+                .build();
+    }
 }
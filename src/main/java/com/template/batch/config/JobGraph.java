@@ -0,0 +1,112 @@
+package com.template.batch.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grafo de dependências entre jobs lido de --spring.batch.job.name
+ *
+ * SINTAXE:
+ * - "jobA": um job
+ * - "jobA,jobB": jobs independentes (executam em paralelo)
+ * - "jobA,jobB -> joinDirectJob": cada job de um estágio espera todos os jobs do estágio anterior
+ * - "jobA -> joinDirectJob; jobB -> unionJob": cadeias separadas por ';'; um job citado em
+ *   mais de uma cadeia é o mesmo nó (dependências somadas)
+ *
+ * Ciclos (ex.: "jobA -> jobB; jobB -> jobA") são rejeitados com IllegalArgumentException.
+ */
+public class JobGraph {
+
+    // Job → jobs dos quais depende, na ordem em que aparecem
+    private final Map<String, Set<String>> upstream;
+    private final List<String> executionOrder;
+
+    private JobGraph(Map<String, Set<String>> upstream) {
+        this.upstream = upstream;
+        this.executionOrder = topologicalOrder(upstream);
+    }
+
+    public static JobGraph parse(String expression) {
+        Map<String, Set<String>> upstream = new LinkedHashMap<>();
+        for (String chain : expression.split(";")) {
+            if (chain.isBlank()) {
+                continue;
+            }
+            List<String> previousStage = List.of();
+            for (String stage : chain.split("->")) {
+                List<String> jobs = new ArrayList<>();
+                for (String jobName : stage.split(",")) {
+                    if (!jobName.isBlank()) {
+                        jobs.add(jobName.trim());
+                    }
+                }
+                if (jobs.isEmpty()) {
+                    throw new IllegalArgumentException("Estágio vazio em '" + chain.trim() + "'");
+                }
+                for (String jobName : jobs) {
+                    upstream.computeIfAbsent(jobName, name -> new LinkedHashSet<>()).addAll(previousStage);
+                }
+                previousStage = jobs;
+            }
+        }
+        if (upstream.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum job informado");
+        }
+        return new JobGraph(upstream);
+    }
+
+    public boolean isSingleJob() {
+        return upstream.size() == 1;
+    }
+
+    /**
+     * Jobs em ordem topológica (todo job aparece depois das suas dependências)
+     */
+    public List<String> getExecutionOrder() {
+        return executionOrder;
+    }
+
+    public Set<String> getUpstream(String jobName) {
+        return Collections.unmodifiableSet(upstream.get(jobName));
+    }
+
+    private static List<String> topologicalOrder(Map<String, Set<String>> upstream) {
+        List<String> order = new ArrayList<>();
+        Set<String> visiting = new LinkedHashSet<>();
+        for (String jobName : upstream.keySet()) {
+            visit(jobName, upstream, visiting, order);
+        }
+        return Collections.unmodifiableList(order);
+    }
+
+    private static void visit(String jobName, Map<String, Set<String>> upstream, Set<String> visiting, List<String> order) {
+        if (order.contains(jobName)) {
+            return;
+        }
+        if (!visiting.add(jobName)) {
+            throw new IllegalArgumentException("Dependência circular entre jobs: " + String.join(" -> ", visiting) + " -> " + jobName);
+        }
+        for (String dependency : upstream.get(jobName)) {
+            visit(dependency, upstream, visiting, order);
+        }
+        visiting.remove(jobName);
+        order.add(jobName);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        for (String jobName : executionOrder) {
+            Set<String> dependencies = upstream.get(jobName);
+            description.append(description.length() > 0 ? "; " : "")
+                    .append(dependencies.isEmpty() ? "" : String.join(",", dependencies) + " -> ")
+                    .append(jobName);
+        }
+        return description.toString();
+    }
+}
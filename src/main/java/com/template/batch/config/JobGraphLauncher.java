@@ -0,0 +1,178 @@
+package com.template.batch.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Executa um JobGraph: jobs independentes em paralelo, dependentes após o fim das dependências
+ *
+ * EXECUÇÃO:
+ * - Cada job roda em uma thread do pool "graph-" (até batch.graph.max-concurrent-jobs
+ *   ao mesmo tempo) pelo JobLauncher da aplicação
+ * - Um job começa quando todas as dependências terminam; se alguma não termina
+ *   COMPLETED, o job não é executado (e nem os que dependem dele)
+ * - Jobs sem relação com a falha continuam normalmente
+ *
+ * RESUMO:
+ * - Por job: status, início relativo ao grafo, tempo de parede, itens lidos/escritos
+ * - Caminho crítico: cadeia de dependências que determinou o fim do grafo
+ *   (a partir do último job a terminar, volta pela dependência que terminou por último)
+ */
+@Component
+public class JobGraphLauncher {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobGraphLauncher.class);
+
+    private final JobLauncher jobLauncher;
+    private final JobRegistry jobRegistry;
+    private final int maxConcurrentJobs;
+
+    public JobGraphLauncher(
+            JobLauncher jobLauncher,
+            JobRegistry jobRegistry,
+            @Value("${batch.graph.max-concurrent-jobs:4}") int maxConcurrentJobs) {
+        this.jobLauncher = jobLauncher;
+        this.jobRegistry = jobRegistry;
+        this.maxConcurrentJobs = Math.max(maxConcurrentJobs, 1);
+    }
+
+    /**
+     * @param jobParameters parâmetros de cada execução (chamado uma vez por job)
+     * @return código de saída combinado: 0 se todos terminaram COMPLETED, 1 caso contrário
+     */
+    public int launch(JobGraph graph, Supplier<JobParameters> jobParameters) throws Exception {
+        // Job inexistente falha antes de qualquer execução
+        for (String jobName : graph.getExecutionOrder()) {
+            jobRegistry.getJob(jobName);
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.min(maxConcurrentJobs, graph.getExecutionOrder().size()));
+        executor.setMaxPoolSize(executor.getCorePoolSize());
+        executor.setThreadNamePrefix("graph-");
+        executor.initialize();
+
+        logger.info("Executando grafo de jobs: {} (até {} jobs simultâneos)", graph, executor.getCorePoolSize());
+        long graphStart = System.nanoTime();
+        Map<String, CompletableFuture<JobRun>> runs = new LinkedHashMap<>();
+        try {
+            // Ordem topológica: os futures das dependências já existem
+            for (String jobName : graph.getExecutionOrder()) {
+                List<CompletableFuture<JobRun>> dependencies = graph.getUpstream(jobName).stream().map(runs::get).toList();
+                CompletableFuture<JobRun> run = CompletableFuture
+                        .allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                        .thenApplyAsync(ignored -> {
+                            List<String> notCompleted = dependencies.stream()
+                                    .map(CompletableFuture::join)
+                                    .filter(dependency -> !dependency.completed())
+                                    .map(JobRun::name)
+                                    .toList();
+                            if (!notCompleted.isEmpty()) {
+                                logger.warn("Job {} não executado: dependências sem sucesso {}", jobName, notCompleted);
+                                return JobRun.skipped(jobName, System.nanoTime());
+                            }
+                            return run(jobName, jobParameters.get());
+                        }, executor);
+                runs.put(jobName, run);
+            }
+            CompletableFuture.allOf(runs.values().toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, JobRun> results = new LinkedHashMap<>();
+        runs.forEach((jobName, run) -> results.put(jobName, run.join()));
+        logSummary(graph, results, graphStart);
+        return results.values().stream().allMatch(JobRun::completed) ? 0 : 1;
+    }
+
+    private JobRun run(String jobName, JobParameters jobParameters) {
+        long start = System.nanoTime();
+        try {
+            JobExecution execution = jobLauncher.run(jobRegistry.getJob(jobName), jobParameters);
+            return JobRun.of(jobName, execution, start, System.nanoTime());
+        } catch (Exception e) {
+            logger.error("Falha ao iniciar o job {}", jobName, e);
+            return new JobRun(jobName, "FALHA AO INICIAR", start, System.nanoTime(), 0L, 0L, false);
+        }
+    }
+
+    private void logSummary(JobGraph graph, Map<String, JobRun> results, long graphStart) {
+        long graphEnd = results.values().stream().mapToLong(JobRun::endNanos).max().orElse(graphStart);
+        logger.info("=========================================");
+        logger.info("Resumo do grafo: {} ({} ms)", graph, (graphEnd - graphStart) / 1_000_000);
+        logger.info(String.format("%-16s %-16s %12s %12s %12s %12s",
+                "job", "status", "início (ms)", "tempo (ms)", "lidos", "escritos"));
+        for (JobRun run : results.values()) {
+            logger.info(String.format("%-16s %-16s %12d %12d %12d %12d",
+                    run.name(), run.status(), (run.startNanos() - graphStart) / 1_000_000,
+                    run.wallMillis(), run.readCount(), run.writeCount()));
+        }
+
+        // Volta do último job a terminar pela dependência que terminou por último
+        List<JobRun> criticalPath = new ArrayList<>();
+        JobRun current = results.values().stream()
+                .max((left, right) -> Long.compare(left.endNanos(), right.endNanos()))
+                .orElse(null);
+        while (current != null) {
+            criticalPath.add(0, current);
+            current = graph.getUpstream(current.name()).stream()
+                    .map(results::get)
+                    .max((left, right) -> Long.compare(left.endNanos(), right.endNanos()))
+                    .orElse(null);
+        }
+        StringBuilder path = new StringBuilder();
+        long criticalMillis = 0L;
+        for (JobRun run : criticalPath) {
+            path.append(path.length() > 0 ? " -> " : "").append(run.name()).append(" (").append(run.wallMillis()).append(" ms)");
+            criticalMillis += run.wallMillis();
+        }
+        logger.info("Caminho crítico: {} = {} ms", path, criticalMillis);
+        logger.info("=========================================");
+    }
+
+    /**
+     * Resultado de uma execução: job no grafo ou data no backfill (tempos em System.nanoTime)
+     */
+    record JobRun(String name, String status, long startNanos, long endNanos,
+                  long readCount, long writeCount, boolean completed) {
+
+        static JobRun of(String name, JobExecution execution, long startNanos, long endNanos) {
+            long readCount = 0L;
+            long writeCount = 0L;
+            for (StepExecution step : execution.getStepExecutions()) {
+                // Partições (step:partitionN) já estão agregadas no step gerenciador
+                if (!step.getStepName().contains(":")) {
+                    readCount += step.getReadCount();
+                    writeCount += step.getWriteCount();
+                }
+            }
+            return new JobRun(name, execution.getStatus().name(), startNanos, endNanos, readCount, writeCount,
+                    execution.getStatus() == BatchStatus.COMPLETED);
+        }
+
+        static JobRun skipped(String name, long nanos) {
+            return new JobRun(name, "NÃO EXECUTADO", nanos, nanos, 0L, 0L, false);
+        }
+
+        long wallMillis() {
+            return (endNanos - startNanos) / 1_000_000;
+        }
+    }
+}
@@ -1,25 +1,42 @@
 package com.template.batch.config;
 
+import com.template.batch.util.IncrementalParameterUtil;
+import com.template.batch.util.JobParametersUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
-import org.springframework.batch.core.JobParameters;
-import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.configuration.JobRegistry;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+/**
+ * Executa o(s) job(s) de --spring.batch.job.name na subida da aplicação
+ *
+ * - Um job: execução síncrona na thread principal
+ * - Lista ou grafo ("jobA,jobB -> joinDirectJob", ver JobGraph): JobGraphLauncher
+ * - Um job com --startDate/--endDate: backfill, uma execução por data (BackfillLauncher)
+ *
+ * Código de saída do processo (ExitCodeGenerator, ver SpringBatchApplication):
+ * 0 se todos os jobs terminaram COMPLETED, 1 caso contrário.
+ */
 @Component
 @Order(1)
-public class JobLauncherRunner implements CommandLineRunner {
+public class JobLauncherRunner implements CommandLineRunner, ExitCodeGenerator {
 
     private static final Logger logger = LoggerFactory.getLogger(JobLauncherRunner.class);
 
     private final JobLauncher jobLauncher;
     private final JobRegistry jobRegistry;
+    private final JobGraphLauncher jobGraphLauncher;
+    private final BackfillLauncher backfillLauncher;
+
+    private int exitCode;
 
     @Value("${spring.batch.job.name:}")
     private String jobName;
@@ -27,9 +44,21 @@ public class JobLauncherRunner implements CommandLineRunner {
     @Value("${spring.batch.job.processDate:}")
     private String processDateProperty;
 
-    public JobLauncherRunner(JobLauncher jobLauncher, JobRegistry jobRegistry) {
+    @Value("${spring.batch.job.fullReprocess:}")
+    private String fullReprocessProperty;
+
+    @Value("${spring.batch.job.startDate:}")
+    private String startDateProperty;
+
+    @Value("${spring.batch.job.endDate:}")
+    private String endDateProperty;
+
+    public JobLauncherRunner(JobLauncher jobLauncher, JobRegistry jobRegistry,
+                             JobGraphLauncher jobGraphLauncher, BackfillLauncher backfillLauncher) {
         this.jobLauncher = jobLauncher;
         this.jobRegistry = jobRegistry;
+        this.jobGraphLauncher = jobGraphLauncher;
+        this.backfillLauncher = backfillLauncher;
     }
 
     @Override
@@ -37,68 +66,86 @@ public class JobLauncherRunner implements CommandLineRunner {
         logger.info("JobLauncherRunner executado. jobName: '{}'", jobName);
         
         if (jobName != null && !jobName.isEmpty()) {
-            logger.info("Buscando job '{}' no JobRegistry...", jobName);
-            Job job = jobRegistry.getJob(jobName);
-            logger.info("Job '{}' encontrado. Iniciando execução...", jobName);
-            
             // Extrai parâmetro de data: primeiro tenta propriedade, depois argumentos
             String processDate = processDateProperty != null && !processDateProperty.isEmpty() 
                 ? processDateProperty 
-                : extractProcessDateFromArgs(args);
-            
-            JobParametersBuilder jobParametersBuilder = new JobParametersBuilder()
-                    .addLong("time", System.currentTimeMillis());
-            
-            // Adiciona parâmetro de data se fornecido
-            if (processDate != null && !processDate.isEmpty()) {
-                logger.info("Parâmetro de data encontrado: '{}' (formato yyyyMMdd)", processDate);
-                // Tenta adicionar como Long primeiro (se for número)
-                try {
-                    Long dateAsLong = Long.parseLong(processDate);
-                    jobParametersBuilder.addLong("processDate", dateAsLong);
-                    logger.debug("Data adicionada como Long: {}", dateAsLong);
-                } catch (NumberFormatException e) {
-                    // Se não for número, adiciona como String
-                    jobParametersBuilder.addString("processDate", processDate);
-                    logger.debug("Data adicionada como String: {}", processDate);
+                : extractArgument("processDate", args);
+
+            // Modo incremental: fullReprocess=true ignora o watermark e relê toda a origem
+            String fullReprocess = fullReprocessProperty != null && !fullReprocessProperty.isEmpty()
+                ? fullReprocessProperty
+                : extractArgument(IncrementalParameterUtil.FULL_REPROCESS_PARAMETER_NAME, args);
+
+            // Backfill: faixa de datas yyyyMMdd (inclusive), uma execução por data
+            String startDate = startDateProperty != null && !startDateProperty.isEmpty()
+                ? startDateProperty
+                : extractArgument("startDate", args);
+            String endDate = endDateProperty != null && !endDateProperty.isEmpty()
+                ? endDateProperty
+                : extractArgument("endDate", args);
+
+            JobGraph graph = JobGraph.parse(jobName);
+            if (startDate != null || endDate != null) {
+                if (startDate == null || endDate == null || !graph.isSingleJob()) {
+                    throw new IllegalArgumentException("Backfill exige um único job, startDate e endDate (yyyyMMdd)");
+                }
+                if (processDate != null && !processDate.isEmpty()) {
+                    logger.warn("processDate '{}' ignorado: o backfill usa cada data de {} a {}", processDate, startDate, endDate);
                 }
-            } else {
-                logger.info("Parâmetro de data não fornecido. Usará LocalDateTime.now() no processamento.");
+                exitCode = backfillLauncher.launch(graph.getExecutionOrder().get(0), startDate, endDate, fullReprocess);
+                return;
             }
-            
-            JobParameters jobParameters = jobParametersBuilder.toJobParameters();
-            jobLauncher.run(job, jobParameters);
+            if (!graph.isSingleJob()) {
+                exitCode = jobGraphLauncher.launch(graph, () -> JobParametersUtil.build(processDate, fullReprocess));
+                return;
+            }
+
+            String singleJobName = graph.getExecutionOrder().get(0);
+            logger.info("Buscando job '{}' no JobRegistry...", singleJobName);
+            Job job = jobRegistry.getJob(singleJobName);
+            logger.info("Job '{}' encontrado. Iniciando execução...", singleJobName);
+
+            JobExecution execution = jobLauncher.run(job, JobParametersUtil.build(processDate, fullReprocess));
+            exitCode = execution.getStatus() == BatchStatus.COMPLETED ? 0 : 1;
         } else {
             logger.info("Nenhum job especificado. Aplicação será encerrada.");
         }
     }
 
     /**
-     * Extrai o parâmetro de data dos argumentos da linha de comando
-     * Formato esperado: --processDate=yyyyMMdd ou --processDate yyyyMMdd
+     * Extrai um parâmetro dos argumentos da linha de comando
+     * Formato esperado: --nome=valor ou --nome valor
+     * Ex: --processDate=yyyyMMdd, --fullReprocess=true, --startDate=yyyyMMdd
      * 
+     * @param name Nome do parâmetro (sem --)
      * @param args Argumentos da linha de comando
-     * @return Data no formato yyyyMMdd ou null se não encontrado
+     * @return Valor do parâmetro ou null se não encontrado
      */
-    private String extractProcessDateFromArgs(String... args) {
+    private String extractArgument(String name, String... args) {
         if (args == null || args.length == 0) {
             return null;
         }
 
+        String prefix = "--" + name + "=";
         for (int i = 0; i < args.length; i++) {
             String arg = args[i];
             
-            // Formato: --processDate=yyyyMMdd
-            if (arg.startsWith("--processDate=")) {
-                return arg.substring("--processDate=".length());
+            // Formato: --nome=valor
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
             }
             
-            // Formato: --processDate yyyyMMdd
-            if (arg.equals("--processDate") && i + 1 < args.length) {
+            // Formato: --nome valor
+            if (arg.equals("--" + name) && i + 1 < args.length) {
                 return args[i + 1];
             }
         }
 
         return null;
     }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
 }
@@ -1,6 +1,9 @@
 package com.template.batch.config;
 
 import com.template.batch.domain.MergedRecord;
+import com.template.batch.jfr.MergeLookupEvent;
+import jdk.jfr.EventType;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.ItemStreamSupport;
@@ -18,9 +21,14 @@ import java.sql.SQLException;
  */
 public class MergedRecordItemReader extends ItemStreamSupport implements ItemReader<MergedRecord> {
 
+    // Consultado por item: sem gravação JFR com o evento habilitado, nada é alocado
+    private static final EventType LOOKUP_EVENT_TYPE = EventType.getEventType(MergeLookupEvent.class);
+
     private final JdbcCursorItemReader<StagingRecordA> stagingAReader;
     private final JdbcTemplate jdbcTemplate;
 
+    private StepExecution stepExecution;
+
     // Classe para representar registro de staging_table_a
     static class StagingRecordA {
         private Long id;
@@ -42,6 +50,13 @@ public class MergedRecordItemReader extends ItemStreamSupport implements ItemRea
         setName("mergedRecordReader");
     }
 
+    /**
+     * Step corrente: contexto (job, step, execuções) dos eventos JFR de lookup
+     */
+    public void setStepExecution(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+    }
+
     @Override
     public MergedRecord read() throws Exception {
         // Lê próximo registro de staging_table_a
@@ -54,7 +69,14 @@ public class MergedRecordItemReader extends ItemStreamSupport implements ItemRea
 
         // Faz lookup em staging_table_b usando JdbcTemplate
         // Usa queryForObject com tratamento de exceção para LEFT JOIN
+        // Evento JFR do lookup: criado apenas com o evento habilitado em uma gravação
+        MergeLookupEvent lookupEvent = null;
+        if (LOOKUP_EVENT_TYPE.isEnabled()) {
+            lookupEvent = new MergeLookupEvent();
+            lookupEvent.begin();
+        }
         MergedRecord merged = null;
+        boolean found = true;
         try {
             merged = jdbcTemplate.queryForObject(
                     "SELECT name, value FROM staging_table_b WHERE id = ?",
@@ -74,6 +96,7 @@ public class MergedRecordItemReader extends ItemStreamSupport implements ItemRea
             );
         } catch (org.springframework.dao.EmptyResultDataAccessException e) {
             // Não encontrou correspondente em staging_table_b (LEFT JOIN)
+            found = false;
             merged = new MergedRecord();
             merged.setId(recordA.getId());
             merged.setNameA(recordA.getName());
@@ -82,6 +105,22 @@ public class MergedRecordItemReader extends ItemStreamSupport implements ItemRea
             merged.setValueB(null);
         }
 
+        if (lookupEvent != null) {
+            lookupEvent.end();
+            if (lookupEvent.shouldCommit()) {
+                if (stepExecution != null) {
+                    lookupEvent.jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
+                    lookupEvent.stepName = stepExecution.getStepName();
+                    lookupEvent.jobExecutionId = stepExecution.getJobExecutionId();
+                    lookupEvent.stepExecutionId = stepExecution.getId();
+                }
+                lookupEvent.itemsRead = stagingAReader.getCurrentItemCount();
+                lookupEvent.id = recordA.getId() != null ? recordA.getId() : 0L;
+                lookupEvent.found = found;
+                lookupEvent.commit();
+            }
+        }
+
         return merged;
     }
 
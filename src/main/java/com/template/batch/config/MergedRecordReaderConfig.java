@@ -1,9 +1,16 @@
 package com.template.batch.config;
 
+import com.template.batch.domain.MergedRecord;
+import com.template.batch.listener.ReplicaLagListener;
+import com.template.batch.repository.WatermarkRepository;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -12,6 +19,8 @@ import org.springframework.jdbc.core.RowMapper;
 import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 
 /**
  * Configuração do ItemReader customizado para fazer merge entre staging_table_a e staging_table_b
@@ -37,11 +46,10 @@ import java.sql.SQLException;
  *    - Se job reiniciar, continua de onde parou no cursor principal
  *    - Lookup sempre busca dados atuais do banco
  * 
- * 4. CONSISTÊNCIA TRANSACIONAL
- *    - Reader está dentro da transação do Step
- *    - Lookup vê dados consistentes (mesma transação)
- *    - Não há race conditions
- *    - Snapshot consistente dos dados
+ * 4. CONSISTÊNCIA
+ *    - staging_table_b é escrita em step anterior: não muda durante o merge
+ *    - Lookup roda no lookupDataSource (pool próprio, statement_timeout curto), fora da
+ *      transação do chunk: não disputa conexão com o writer nem com o cursor
  * 
  * 5. FLEXIBILIDADE
  *    - Pode fazer LEFT JOIN (retorna null se não houver correspondente)
@@ -75,14 +83,16 @@ import java.sql.SQLException;
  *      * Aproveita otimizações do banco
  * 
  * IMPLEMENTAÇÃO:
- * - Usa JdbcCursorItemReader para ler staging_table_a (streaming)
- * - Usa JdbcTemplate para lookup em staging_table_b (query preparada)
+ * - Usa JdbcCursorItemReader para ler staging_table_a (streaming, readerDataSource)
+ * - Usa JdbcTemplate para lookup em staging_table_b (query preparada, lookupDataSource)
  * - Combina dados em MergedRecord
  * - Retorna null quando não há mais dados
  */
 @Configuration
 public class MergedRecordReaderConfig {
 
+    public static final String CHANGE_LOG_CUTOFF_KEY = "changeLog.cutoff";
+
     /**
      * Reader customizado que faz merge entre staging_table_a e staging_table_b
      * 
@@ -95,7 +105,10 @@ public class MergedRecordReaderConfig {
     @Bean
     @StepScope
     @Qualifier("mergedRecordReader")
-    public MergedRecordItemReader mergedRecordReader(DataSource dataSource) {
+    public MergedRecordItemReader mergedRecordReader(
+            @Qualifier("readerDataSource") DataSource readerDataSource,
+            @Qualifier("lookupDataSource") DataSource lookupDataSource,
+            @Value("#{stepExecution}") StepExecution stepExecution) {
         // IMPORTANTE: Retorna MergedRecordItemReader diretamente (não ItemReader)
         // Isso garante que Spring Batch detecte que implementa ItemStream
         // Se retornar ItemReader, Spring pode criar proxy que não preserva ItemStream
@@ -104,7 +117,7 @@ public class MergedRecordReaderConfig {
         JdbcCursorItemReader<MergedRecordItemReader.StagingRecordA> stagingAReader = 
                 new JdbcCursorItemReaderBuilder<MergedRecordItemReader.StagingRecordA>()
                 .name("stagingAReader")
-                .dataSource(dataSource)
+                .dataSource(readerDataSource)
                 .sql("SELECT id, name, value FROM staging_table_a ORDER BY id")
                 .rowMapper(new RowMapper<MergedRecordItemReader.StagingRecordA>() {
                     @Override
@@ -118,11 +131,93 @@ public class MergedRecordReaderConfig {
                 })
                 .build();
 
-        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(lookupDataSource);
 
         // Cria e retorna o reader customizado que implementa ItemStream
         // ItemStream é necessário para que Spring Batch gerencie o ciclo de vida (open, close, update)
         // Retornando MergedRecordItemReader diretamente, Spring Batch detecta automaticamente ItemStream
-        return new MergedRecordItemReader(stagingAReader, jdbcTemplate);
+        MergedRecordItemReader reader = new MergedRecordItemReader(stagingAReader, jdbcTemplate);
+        reader.setStepExecution(stepExecution);
+        return reader;
+    }
+
+    /**
+     * Reader do merge incremental (batch.merge.incremental=true)
+     * 
+     * POR QUE NÃO PERCORRER TODA A staging_table_a?
+     * - Em execuções diárias de delta, poucos ids mudam
+     * - Percorrer staging_table_a inteira (com lookup por linha em B) custa O(tabela)
+     * - Lendo apenas os ids de staging_change_log o custo é O(delta)
+     * 
+     * FLUXO:
+     * 1. cutoff = limite seguro do banco no início do step (WatermarkRepository.committedBoundary:
+     *    antes da transação aberta mais antiga; guardado no ExecutionContext)
+     * 2. Lê ids com changed_at <= cutoff (PK do log já deduplica)
+     * 3. LEFT JOIN com staging_table_a e staging_table_b em uma única query
+     *    - Sem lookup por linha
+     *    - Inclui ids que existem apenas em staging_table_b
+     *    - Ignora ids que não existem mais em nenhuma das stagings
+     * 4. Ao esgotar o cursor, remove do log os ids com changed_at <= cutoff
+     *    dentro da transação do último chunk (CompletionAwareItemReader)
+     *    - Ids reescritos durante o merge têm changed_at > cutoff e permanecem
+     * 
+     * POR QUE NÃO LOCALTIMESTAMP NO CUTOFF?
+     * - changed_at é o início da transação do writer de staging, não o commit
+     * - Transação iniciada antes do cutoff e commitada depois da abertura do cursor: o
+     *   cursor não vê o id, mas o DELETE final (changed_at <= cutoff) o remove do log
+     * - Com o cutoff antes da transação aberta mais antiga, toda linha com changed_at <= cutoff
+     *   já estava commitada quando o cursor abriu: o DELETE só remove ids que foram lidos
+     * - Cursor longo de outro job rodando junto segura o cutoff no início dele: os ids
+     *   mais novos ficam para o próximo merge (adiados, nunca perdidos)
+     * - Cursor na réplica (batch.datasource.replica.url): antes de abri-lo espera a réplica
+     *   aplicar um LSN capturado depois do cutoff; sem isso o DELETE no primário removeria
+     *   ids que a réplica ainda não mostrava ao cursor
+     * 
+     * O MergedRecord produzido é o mesmo do merge completo, então
+     * MergedRecordProcessor aplica exatamente as mesmas regras de negócio.
+     */
+    @Bean
+    @StepScope
+    @Qualifier("changedMergedRecordReader")
+    public ItemStreamReader<MergedRecord> changedMergedRecordReader(
+            DataSource dataSource,
+            @Qualifier("readerDataSource") DataSource readerDataSource,
+            WatermarkRepository watermarkRepository,
+            ReplicaLagListener replicaLagListener,
+            @Value("#{stepExecution}") StepExecution stepExecution) {
+        // Limpeza do log no pool transacional (transação do último chunk)
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Cutoff no ExecutionContext: restart relê exatamente os mesmos ids
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (!context.containsKey(CHANGE_LOG_CUTOFF_KEY)) {
+            context.putString(CHANGE_LOG_CUTOFF_KEY, watermarkRepository.committedBoundary().toString());
+            // staging_change_log até o cutoff precisa estar na réplica (LSN capturado depois do cutoff)
+            replicaLagListener.awaitReplay(stepExecution.getStepName());
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.parse(context.getString(CHANGE_LOG_CUTOFF_KEY)));
+
+        JdbcCursorItemReader<MergedRecord> changedReader = new JdbcCursorItemReaderBuilder<MergedRecord>()
+                .name("changedMergedRecordReader")
+                .dataSource(readerDataSource)
+                .sql("SELECT c.id, a.name AS name_a, a.value AS value_a, b.name AS name_b, b.value AS value_b " +
+                     "FROM staging_change_log c " +
+                     "LEFT JOIN staging_table_a a ON a.id = c.id " +
+                     "LEFT JOIN staging_table_b b ON b.id = c.id " +
+                     "WHERE c.changed_at <= ? " +
+                     "AND (a.id IS NOT NULL OR b.id IS NOT NULL) " +
+                     "ORDER BY c.id")
+                .preparedStatementSetter(ps -> ps.setTimestamp(1, cutoff))
+                .rowMapper((rs, rowNum) -> new MergedRecord(
+                        rs.getLong("id"),
+                        rs.getString("name_a"),
+                        rs.getBigDecimal("value_a"),
+                        rs.getString("name_b"),
+                        rs.getBigDecimal("value_b")))
+                .fetchSize(100)
+                .build();
+
+        return new CompletionAwareItemReader<>(changedReader,
+                () -> jdbcTemplate.update("DELETE FROM staging_change_log WHERE changed_at <= ?", cutoff));
     }
 }
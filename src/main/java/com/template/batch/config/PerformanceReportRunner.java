@@ -0,0 +1,136 @@
+package com.template.batch.config;
+
+import com.template.batch.repository.StepPerformanceRepository;
+import com.template.batch.repository.StepPerformanceRepository.StepPerformance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Relatório de regressão de performance (batch.report.job)
+ * 
+ * USO:
+ *   java -jar app.jar --batch.report.job=joinStagingJob
+ * 
+ * COMPARAÇÃO:
+ * - Execução mais recente (COMPLETED) do job x baseline móvel
+ * - Baseline = média das batch.report.baseline-runs execuções anteriores de cada step
+ * - Regressão quando a piora passa de batch.report.regression-threshold-percent E de um
+ *   mínimo absoluto (steps curtos oscilam muito em percentual: 4 ms -> 6 ms é +50%):
+ *   * itens/s menor (batch.report.min-delta-items-per-second)
+ *   * duração, p50/p99 de chunk, tempo de banco ou GC maiores (batch.report.min-delta-ms)
+ *   * pico de heap maior (batch.report.min-delta-heap-mb); valor aproximado, da JVM
+ *     inteira (ver JvmResourceSnapshot)
+ * 
+ * Pode ser combinado com spring.batch.job.name: o job roda primeiro (JobLauncherRunner,
+ * @Order(1)) e o relatório já inclui a execução recém-terminada.
+ */
+@Component
+@Order(2)
+public class PerformanceReportRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceReportRunner.class);
+
+    private final StepPerformanceRepository stepPerformanceRepository;
+
+    @Value("${batch.report.job:}")
+    private String reportJobName;
+
+    @Value("${batch.report.baseline-runs:5}")
+    private int baselineRuns;
+
+    @Value("${batch.report.regression-threshold-percent:20}")
+    private double thresholdPercent;
+
+    @Value("${batch.report.min-delta-ms:100}")
+    private double minDeltaMillis;
+
+    @Value("${batch.report.min-delta-items-per-second:100}")
+    private double minDeltaItemsPerSecond;
+
+    @Value("${batch.report.min-delta-heap-mb:64}")
+    private double minDeltaHeapMegabytes;
+
+    public PerformanceReportRunner(StepPerformanceRepository stepPerformanceRepository) {
+        this.stepPerformanceRepository = stepPerformanceRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (reportJobName == null || reportJobName.isEmpty()) {
+            return;
+        }
+        Long latest = stepPerformanceRepository.findLatestJobExecutionId(reportJobName);
+        if (latest == null) {
+            logger.info("Relatório de performance: nenhuma execução de '{}' registrada", reportJobName);
+            return;
+        }
+
+        logger.info("=========================================");
+        logger.info("Relatório de performance: {} (execução {}, baseline = média de até {} execuções anteriores)",
+                reportJobName, latest, baselineRuns);
+        List<String> regressions = new ArrayList<>();
+        for (StepPerformance current : stepPerformanceRepository.findByJobExecution(latest)) {
+            List<StepPerformance> baseline = stepPerformanceRepository.findBaseline(
+                    reportJobName, current.stepName(), latest, baselineRuns);
+            logger.info("--- {} ({} itens, {} ms) ---", current.stepName(), current.readCount(), current.durationMs());
+            if (baseline.isEmpty()) {
+                logger.info("  Sem execuções anteriores para comparar");
+                continue;
+            }
+            compare(current, baseline, "itens/s", StepPerformance::itemsPerSecond, false, minDeltaItemsPerSecond, regressions);
+            compare(current, baseline, "duração ms", p -> p.durationMs(), true, minDeltaMillis, regressions);
+            compare(current, baseline, "chunk p50 ms", p -> orNaN(p.chunkP50Ms()), true, minDeltaMillis, regressions);
+            compare(current, baseline, "chunk p99 ms", p -> orNaN(p.chunkP99Ms()), true, minDeltaMillis, regressions);
+            compare(current, baseline, "tempo de banco ms", p -> orNaN(p.dbTimeMs()), true, minDeltaMillis, regressions);
+            compare(current, baseline, "GC ms", p -> orNaN(p.gcTimeMs()), true, minDeltaMillis, regressions);
+            compare(current, baseline, "pico de heap MB ~", p -> orNaN(p.peakHeapBytes()) / (1024 * 1024), true,
+                    minDeltaHeapMegabytes, regressions);
+        }
+
+        if (regressions.isEmpty()) {
+            logger.info("Nenhuma regressão acima de {}% (e do mínimo absoluto de cada métrica)", thresholdPercent);
+        } else {
+            logger.warn("{} regressão(ões) acima de {}% (e do mínimo absoluto de cada métrica):",
+                    regressions.size(), thresholdPercent);
+            regressions.forEach(regression -> logger.warn("  {}", regression));
+        }
+        logger.info("=========================================");
+    }
+
+    /**
+     * @param higherIsWorse true para tempos/memória, false para throughput
+     * @param minDelta      piora absoluta mínima (na unidade da métrica) para contar como regressão
+     */
+    private void compare(StepPerformance current, List<StepPerformance> baseline, String metric,
+                         ToDoubleFunction<StepPerformance> extractor, boolean higherIsWorse, double minDelta,
+                         List<String> regressions) {
+        double value = extractor.applyAsDouble(current);
+        double base = baseline.stream().mapToDouble(extractor).filter(v -> !Double.isNaN(v)).average().orElse(Double.NaN);
+        if (Double.isNaN(value) || Double.isNaN(base)) {
+            return;
+        }
+        double changePercent = base != 0 ? (value - base) * 100.0 / base : 0.0;
+        double worsening = higherIsWorse ? value - base : base - value;
+        boolean regression = worsening > minDelta
+                && (higherIsWorse ? changePercent > thresholdPercent : -changePercent > thresholdPercent);
+        String line = String.format("%-18s atual=%.2f baseline=%.2f (%+.1f%%)", metric, value, base, changePercent);
+        if (regression) {
+            logger.warn("  {} <-- REGRESSÃO", line);
+            regressions.add(current.stepName() + ": " + line.trim());
+        } else {
+            logger.info("  {}", line);
+        }
+    }
+
+    private static double orNaN(Number value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+}
@@ -1,10 +1,21 @@
 package com.template.batch.config;
 
 import com.template.batch.domain.JoinedSourceRecord;
+import com.template.batch.domain.MergedRecord;
 import com.template.batch.domain.SourceRecord;
+import com.template.batch.listener.ReplicaLagListener;
+import com.template.batch.partition.IdRangePartitioner;
+import com.template.batch.repository.WatermarkRepository;
+import com.template.batch.util.IncrementalParameterUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.RowMapper;
@@ -13,14 +24,23 @@ import org.springframework.batch.core.configuration.annotation.StepScope;
 import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 
 @Configuration
 public class ReaderConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReaderConfig.class);
+
+    // Janela incremental da execução (persistida no ExecutionContext do step)
+    public static final String WATERMARK_HIGH_KEY = "watermark.high";
+    public static final String WATERMARK_LOW_KEY = "watermark.low";
+
     /**
      * RowMapper para converter ResultSet em SourceRecord
+     * (RowMappers com visibilidade de pacote: usados também pelos benchmarks JMH)
      */
-    private RowMapper<SourceRecord> sourceRecordRowMapper() {
+    RowMapper<SourceRecord> sourceRecordRowMapper() {
         return new RowMapper<SourceRecord>() {
             @Override
             public SourceRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -37,7 +57,7 @@ public class ReaderConfig {
      * RowMapper alternativo que já aplica transformações no SQL
      * Exemplo: se você fizer SELECT UPPER(nome) as nome_upper, pode mapear direto
      */
-    private RowMapper<SourceRecord> sourceRecordRowMapperWithTransformations() {
+    RowMapper<SourceRecord> sourceRecordRowMapperWithTransformations() {
         return new RowMapper<SourceRecord>() {
             @Override
             public SourceRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -102,7 +122,19 @@ public class ReaderConfig {
     @Bean
     @StepScope
     @Qualifier("sourceTableAReader")
-    public JdbcCursorItemReader<SourceRecord> sourceTableAReader(DataSource dataSource) {
+    public ItemStreamReader<SourceRecord> sourceTableAReader(
+            @Qualifier("readerDataSource") DataSource dataSource,
+            WatermarkRepository watermarkRepository,
+            ReplicaLagListener replicaLagListener,
+            @Value("${batch.incremental.enabled:false}") boolean incremental,
+            @Value("#{stepExecution}") StepExecution stepExecution) {
+        if (stepExecution.getExecutionContext().containsKey(IdRangePartitioner.MIN_ID_KEY)) {
+            return idRangeSourceReader("sourceTableAReader", "source_table_a", dataSource, stepExecution, incremental);
+        }
+        if (incremental) {
+            return incrementalSourceReader("sourceTableAReader", "source_table_a",
+                    dataSource, watermarkRepository, replicaLagListener, stepExecution);
+        }
         return new JdbcCursorItemReaderBuilder<SourceRecord>()
                 .name("sourceTableAReader")
                 .dataSource(dataSource)
@@ -128,7 +160,19 @@ public class ReaderConfig {
     @Bean
     @StepScope
     @Qualifier("sourceTableBReader")
-    public JdbcCursorItemReader<SourceRecord> sourceTableBReader(DataSource dataSource) {
+    public ItemStreamReader<SourceRecord> sourceTableBReader(
+            @Qualifier("readerDataSource") DataSource dataSource,
+            WatermarkRepository watermarkRepository,
+            ReplicaLagListener replicaLagListener,
+            @Value("${batch.incremental.enabled:false}") boolean incremental,
+            @Value("#{stepExecution}") StepExecution stepExecution) {
+        if (stepExecution.getExecutionContext().containsKey(IdRangePartitioner.MIN_ID_KEY)) {
+            return idRangeSourceReader("sourceTableBReader", "source_table_b", dataSource, stepExecution, incremental);
+        }
+        if (incremental) {
+            return incrementalSourceReader("sourceTableBReader", "source_table_b",
+                    dataSource, watermarkRepository, replicaLagListener, stepExecution);
+        }
         return new JdbcCursorItemReaderBuilder<SourceRecord>()
                 .name("sourceTableBReader")
                 .dataSource(dataSource)
@@ -137,11 +181,142 @@ public class ReaderConfig {
                 .build();
     }
 
+    /**
+     * Reader de uma partição por faixa de id (batch.partition.grid-size > 1)
+     * 
+     * - Faixa [minId, maxId] vem do ExecutionContext da partição (IdRangePartitioner)
+     * - ORDER BY id: cada chunk chega ao writer já em ordem de id
+     * - Faixas disjuntas: partições nunca escrevem os mesmos ids
+     * 
+     * LIMITAÇÃO: partições sempre leem a faixa completa (sem watermark).
+     * As faixas mudam conforme a tabela cresce, então um watermark por partição
+     * não cobriria as mesmas linhas entre execuções.
+     */
+    private ItemStreamReader<SourceRecord> idRangeSourceReader(
+            String readerName,
+            String tableName,
+            DataSource dataSource,
+            StepExecution stepExecution,
+            boolean incremental) {
+        long minId = stepExecution.getExecutionContext().getLong(IdRangePartitioner.MIN_ID_KEY);
+        long maxId = stepExecution.getExecutionContext().getLong(IdRangePartitioner.MAX_ID_KEY);
+        if (incremental) {
+            logger.warn("Modo incremental ignorado na partição {} de {}: faixa completa [{}, {}]",
+                    stepExecution.getStepName(), tableName, minId, maxId);
+        }
+
+        return new JdbcCursorItemReaderBuilder<SourceRecord>()
+                .name(readerName)
+                .dataSource(dataSource)
+                .sql("SELECT id, nome, valor FROM " + tableName + " WHERE id BETWEEN ? AND ? ORDER BY id")
+                .preparedStatementSetter(ps -> {
+                    ps.setLong(1, minId);
+                    ps.setLong(2, maxId);
+                })
+                .rowMapper(sourceRecordRowMapper())
+                .build();
+    }
+
+    /**
+     * Reader incremental baseado em watermark (batch.incremental.enabled=true)
+     * Usado por jobA/jobB (sourceTableAReader/BReader) e pelo carregamento de staging
+     * 
+     * COMO FUNCIONA:
+     * 
+     * 1. JANELA DA EXECUÇÃO
+     *    - low: watermark da última execução bem-sucedida (batch_job_watermark)
+     *    - high: LOCALTIMESTAMP do banco no início do step, recuado para antes da transação
+     *      aberta mais antiga e de batch.incremental.safety-lag-seconds (WatermarkRepository)
+     *    - Lê apenas: updated_at > low AND updated_at <= high
+     *    - Linhas alteradas durante a execução ficam para a próxima (updated_at > high)
+     *    - Transação que começou antes de high e commita depois não tem linha perdida:
+     *      high nunca passa do início dela
+     *    - high <= low (transação longa aberta desde a última execução): step sem leitura
+     *      e watermark inalterado
+     * 
+     * 2. AVANÇO ATÔMICO DO WATERMARK
+     *    - CompletionAwareItemReader grava high quando o cursor se esgota
+     *    - A gravação acontece dentro da transação do último chunk
+     *    - Se o job falhar antes do fim, o watermark não avança
+     * 
+     * 3. REPROCESSAMENTO COMPLETO
+     *    - Parâmetro fullReprocess=true ignora low (lê tudo até high)
+     *    - O watermark avança normalmente ao final
+     * 
+     * 4. RESTARTABILITY
+     *    - low/high ficam no ExecutionContext do step
+     *    - Restart do mesmo step relê exatamente a mesma janela e o cursor
+     *      reposiciona no registro correto (ORDER BY id)
+     * 
+     * 5. RÉPLICA DE LEITURA (batch.datasource.replica.url)
+     *    - high vem do primário; antes de abrir o cursor na réplica espera ela aplicar
+     *      um LSN capturado depois de high (ReplicaLagListener.awaitReplay)
+     *    - Restart reusa high antigo: basta a espera do beforeStep
+     * 
+     * UPDATED_AT NAS ORIGENS:
+     * - INSERT: DEFAULT CURRENT_TIMESTAMP
+     * - UPDATE: trigger BEFORE UPDATE (V2) renova updated_at quando a linha muda
+     */
+    private ItemStreamReader<SourceRecord> incrementalSourceReader(
+            String readerName,
+            String tableName,
+            DataSource dataSource,
+            WatermarkRepository watermarkRepository,
+            ReplicaLagListener replicaLagListener,
+            StepExecution stepExecution) {
+        String jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
+        String stepName = stepExecution.getStepName();
+        ExecutionContext context = stepExecution.getExecutionContext();
+
+        if (!context.containsKey(WATERMARK_HIGH_KEY)) {
+            context.putString(WATERMARK_HIGH_KEY, watermarkRepository.highWatermark().toString());
+            if (!IncrementalParameterUtil.isFullReprocess(stepExecution.getJobParameters())) {
+                watermarkRepository.findHighWatermark(jobName, stepName)
+                        .ifPresent(low -> context.putString(WATERMARK_LOW_KEY, low.toString()));
+            }
+            // Réplica precisa ter aplicado tudo até high (LSN capturado agora, depois de high)
+            replicaLagListener.awaitReplay(stepName);
+        }
+        LocalDateTime high = LocalDateTime.parse(context.getString(WATERMARK_HIGH_KEY));
+        LocalDateTime low = context.containsKey(WATERMARK_LOW_KEY)
+                ? LocalDateTime.parse(context.getString(WATERMARK_LOW_KEY))
+                : null;
+
+        // Transação longa segurou high abaixo do watermark anterior: nada novo commitado com
+        // segurança; não lê nem grava (o watermark continua em low)
+        if (low != null && !high.isAfter(low)) {
+            logger.info("Leitura incremental de {} ({}.{}) ignorada: high {} não passa do watermark {}",
+                    tableName, jobName, stepName, high, low);
+            return () -> null;
+        }
+
+        logger.info("Leitura incremental de {} ({}.{}): updated_at > {} AND updated_at <= {}",
+                tableName, jobName, stepName, low != null ? low : "-infinito", high);
+
+        JdbcCursorItemReader<SourceRecord> delegate = new JdbcCursorItemReaderBuilder<SourceRecord>()
+                .name(readerName)
+                .dataSource(dataSource)
+                .sql("SELECT id, nome, valor FROM " + tableName + " " +
+                     "WHERE updated_at <= ?" + (low != null ? " AND updated_at > ?" : "") + " " +
+                     "ORDER BY id")
+                .preparedStatementSetter(ps -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(high));
+                    if (low != null) {
+                        ps.setTimestamp(2, Timestamp.valueOf(low));
+                    }
+                })
+                .rowMapper(sourceRecordRowMapper())
+                .build();
+
+        return new CompletionAwareItemReader<>(delegate,
+                () -> watermarkRepository.saveHighWatermark(jobName, stepName, high));
+    }
+
     /**
      * RowMapper para converter ResultSet em JoinedSourceRecord
      * Mapeia os campos do JOIN SQL para o DTO
      */
-    private RowMapper<JoinedSourceRecord> joinedSourceRecordRowMapper() {
+    RowMapper<JoinedSourceRecord> joinedSourceRecordRowMapper() {
         return new RowMapper<JoinedSourceRecord>() {
             @Override
             public JoinedSourceRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -258,7 +433,7 @@ public class ReaderConfig {
     @Bean
     @StepScope
     @Qualifier("joinedReader")
-    public JdbcCursorItemReader<JoinedSourceRecord> joinedReader(DataSource dataSource) {
+    public JdbcCursorItemReader<JoinedSourceRecord> joinedReader(@Qualifier("readerDataSource") DataSource dataSource) {
         return new JdbcCursorItemReaderBuilder<JoinedSourceRecord>()
                 .name("joinedReader")
                 .dataSource(dataSource)
@@ -278,6 +453,58 @@ public class ReaderConfig {
                 .build();
     }
 
+    /**
+     * Reader do unionJob: source_table_a e source_table_b em UM fluxo ordenado por id
+     * 
+     * POR QUE FULL OUTER JOIN?
+     * - Cada id aparece UMA vez, com os dados de A e de B lado a lado
+     * - Ids só em A ou só em B também aparecem (lado ausente vem null)
+     * - O Processor decide qual origem vence, então cada id é escrito UMA vez
+     *   na target_table (jobA + jobB escreviam duas vezes os ids comuns)
+     * 
+     * REUSO DO MergedRecord:
+     * - Mesma estrutura (id, nameA, valueA, nameB, valueB) do merge via staging
+     * - ORDER BY id: restartability consistente e locks adquiridos em ordem crescente
+     */
+    @Bean
+    @StepScope
+    @Qualifier("unionSourceReader")
+    public JdbcCursorItemReader<MergedRecord> unionSourceReader(@Qualifier("readerDataSource") DataSource dataSource) {
+        return new JdbcCursorItemReaderBuilder<MergedRecord>()
+                .name("unionSourceReader")
+                .dataSource(dataSource)
+                .sql("SELECT " +
+                     "    COALESCE(a.id, b.id) as id, " +
+                     "    a.nome as name_a, " +
+                     "    a.valor as value_a, " +
+                     "    b.nome as name_b, " +
+                     "    b.valor as value_b " +
+                     "FROM source_table_a a " +
+                     "FULL OUTER JOIN source_table_b b ON a.id = b.id " +
+                     "ORDER BY 1")
+                .rowMapper(mergedRecordRowMapper())
+                .fetchSize(100)
+                .build();
+    }
+
+    /**
+     * RowMapper para converter ResultSet em MergedRecord (colunas name_a, value_a, name_b, value_b)
+     */
+    RowMapper<MergedRecord> mergedRecordRowMapper() {
+        return new RowMapper<MergedRecord>() {
+            @Override
+            public MergedRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+                MergedRecord record = new MergedRecord();
+                record.setId(rs.getLong("id"));
+                record.setNameA(rs.getString("name_a"));
+                record.setValueA(rs.getBigDecimal("value_a"));
+                record.setNameB(rs.getString("name_b"));
+                record.setValueB(rs.getBigDecimal("value_b"));
+                return record;
+            }
+        };
+    }
+
     /**
      * Reader para source_table_a (fluxo de staging)
      * 
@@ -330,7 +557,16 @@ public class ReaderConfig {
     @Bean
     @StepScope
     @Qualifier("readerSourceA")
-    public JdbcCursorItemReader<SourceRecord> readerSourceA(DataSource dataSource) {
+    public ItemStreamReader<SourceRecord> readerSourceA(
+            @Qualifier("readerDataSource") DataSource dataSource,
+            WatermarkRepository watermarkRepository,
+            ReplicaLagListener replicaLagListener,
+            @Value("${batch.incremental.enabled:false}") boolean incremental,
+            @Value("#{stepExecution}") StepExecution stepExecution) {
+        if (incremental) {
+            return incrementalSourceReader("readerSourceA", "source_table_a",
+                    dataSource, watermarkRepository, replicaLagListener, stepExecution);
+        }
         return new JdbcCursorItemReaderBuilder<SourceRecord>()
                 .name("readerSourceA")
                 .dataSource(dataSource)
@@ -372,11 +608,25 @@ public class ReaderConfig {
      *    - Gerenciado automaticamente pelo Spring Batch
      * 
      * NOTA: ORDER BY id garante ordem consistente para restartability
+     * 
+     * MODO INCREMENTAL (batch.incremental.enabled=true):
+     * - readerSourceA e readerSourceB também usam watermark (por job/step)
+     * - Staging recebe apenas o delta; mergeFinalStep pode re-fazer o merge
+     *   apenas dos ids alterados (batch.merge.incremental=true)
      */
     @Bean
     @StepScope
     @Qualifier("readerSourceB")
-    public JdbcCursorItemReader<SourceRecord> readerSourceB(DataSource dataSource) {
+    public ItemStreamReader<SourceRecord> readerSourceB(
+            @Qualifier("readerDataSource") DataSource dataSource,
+            WatermarkRepository watermarkRepository,
+            ReplicaLagListener replicaLagListener,
+            @Value("${batch.incremental.enabled:false}") boolean incremental,
+            @Value("#{stepExecution}") StepExecution stepExecution) {
+        if (incremental) {
+            return incrementalSourceReader("readerSourceB", "source_table_b",
+                    dataSource, watermarkRepository, replicaLagListener, stepExecution);
+        }
         return new JdbcCursorItemReaderBuilder<SourceRecord>()
                 .name("readerSourceB")
                 .dataSource(dataSource)
@@ -6,23 +6,59 @@ import com.template.batch.domain.MergedRecord;
 import com.template.batch.domain.SourceRecord;
 import com.template.batch.domain.TargetRecord;
 import com.template.batch.listener.BatchExecutionListener;
+import com.template.batch.listener.BatchMetricsListener;
+import com.template.batch.listener.ChunkTimingListener;
+import com.template.batch.listener.JfrEventListener;
+import com.template.batch.listener.ReplicaLagListener;
+import com.template.batch.listener.StepProgressListener;
+import com.template.batch.partition.IdRangePartitioner;
 import com.template.batch.processor.CommonItemProcessor;
 import com.template.batch.processor.JoinedSourceRecordProcessor;
 import com.template.batch.processor.MergedRecordProcessor;
 import com.template.batch.processor.PassThroughProcessor;
+import com.template.batch.processor.UnionSourceRecordProcessor;
+import com.template.batch.tasklet.MetadataPurgeTasklet;
+import com.template.batch.writer.TargetTableUpsertWriter;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.SkipListener;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+
 @Configuration
 public class StepConfig {
 
+    // Retry de chunk por contenção de lock (deadlock / lock_timeout) na target_table
+    @Value("${batch.writer.target.lock-retry-limit:3}")
+    private int lockRetryLimit;
+
+    @Value("${batch.writer.target.lock-retry-backoff-ms:100}")
+    private long lockRetryBackoffMillis;
+
+    @Value("${batch.partition.grid-size:1}")
+    private int partitionGridSize;
+
     /**
      * Step para processar source_table_a
      * Lê da tabela A, processa e escreve na tabela de destino
@@ -31,17 +67,27 @@ public class StepConfig {
     public Step stepJobA(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
-            @Qualifier("sourceTableAReader") JdbcCursorItemReader<SourceRecord> sourceTableAReader,
+            @Qualifier("sourceTableAReader") ItemStreamReader<SourceRecord> sourceTableAReader,
             CommonItemProcessor commonItemProcessor,
-            JdbcBatchItemWriter<TargetRecord> targetTableWriter,
-            BatchExecutionListener listener) {
+            TargetTableUpsertWriter targetTableWriter,
+            BatchExecutionListener listener,
+            BatchMetricsListener metricsListener,
+            ChunkTimingListener chunkTimingListener,
+            JfrEventListener jfrEventListener,
+            StepProgressListener progressListener,
+            ReplicaLagListener replicaLagListener) {
         
-        return new StepBuilder("stepJobA", jobRepository)
+        return withChunkListeners(new StepBuilder("stepJobA", jobRepository)
                 .<SourceRecord, TargetRecord>chunk(10, transactionManager)
                 .reader(sourceTableAReader)
                 .processor(commonItemProcessor)
                 .writer(targetTableWriter)
                 .listener(listener)
+                .faultTolerant()
+                .retry(PessimisticLockingFailureException.class)
+                .retryLimit(lockRetryLimit)
+                .backOffPolicy(lockRetryBackOffPolicy()), metricsListener, chunkTimingListener, jfrEventListener,
+                        progressListener, replicaLagListener)
                 .build();
     }
 
@@ -53,17 +99,73 @@ public class StepConfig {
     public Step stepJobB(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
-            @Qualifier("sourceTableBReader") JdbcCursorItemReader<SourceRecord> sourceTableBReader,
+            @Qualifier("sourceTableBReader") ItemStreamReader<SourceRecord> sourceTableBReader,
             CommonItemProcessor commonItemProcessor,
-            JdbcBatchItemWriter<TargetRecord> targetTableWriter,
-            BatchExecutionListener listener) {
+            TargetTableUpsertWriter targetTableWriter,
+            BatchExecutionListener listener,
+            BatchMetricsListener metricsListener,
+            ChunkTimingListener chunkTimingListener,
+            JfrEventListener jfrEventListener,
+            StepProgressListener progressListener,
+            ReplicaLagListener replicaLagListener) {
         
-        return new StepBuilder("stepJobB", jobRepository)
+        return withChunkListeners(new StepBuilder("stepJobB", jobRepository)
                 .<SourceRecord, TargetRecord>chunk(10, transactionManager)
                 .reader(sourceTableBReader)
                 .processor(commonItemProcessor)
                 .writer(targetTableWriter)
                 .listener(listener)
+                .faultTolerant()
+                .retry(PessimisticLockingFailureException.class)
+                .retryLimit(lockRetryLimit)
+                .backOffPolicy(lockRetryBackOffPolicy()), metricsListener, chunkTimingListener, jfrEventListener,
+                        progressListener, replicaLagListener)
+                .build();
+    }
+
+    /**
+     * Steps particionados de jobA/jobB (batch.partition.grid-size > 1)
+     * 
+     * POR QUE PARTICIONAR POR FAIXA DE ID?
+     * - Cada partição roda stepJobA/stepJobB em sua própria thread
+     * - IdRangePartitioner entrega faixas de id disjuntas para cada thread
+     * - Nenhuma thread escreve ids de outra: sem espera por row lock nem deadlock
+     *   entre partições na target_table
+     * 
+     * O step particionado (manager) apenas distribui as faixas; o trabalho é feito
+     * pelo step original (worker), com o mesmo reader/processor/writer e o mesmo retry.
+     */
+    @Bean
+    public Step stepJobAPartitioned(
+            JobRepository jobRepository,
+            Step stepJobA,
+            DataSource dataSource,
+            @Qualifier("partitionTaskExecutor") TaskExecutor partitionTaskExecutor,
+            BatchExecutionListener listener) {
+        
+        return new StepBuilder("stepJobAPartitioned", jobRepository)
+                .partitioner("stepJobA", new IdRangePartitioner(dataSource, "source_table_a"))
+                .step(stepJobA)
+                .gridSize(partitionGridSize)
+                .taskExecutor(partitionTaskExecutor)
+                .listener(listener)
+                .build();
+    }
+
+    @Bean
+    public Step stepJobBPartitioned(
+            JobRepository jobRepository,
+            Step stepJobB,
+            DataSource dataSource,
+            @Qualifier("partitionTaskExecutor") TaskExecutor partitionTaskExecutor,
+            BatchExecutionListener listener) {
+        
+        return new StepBuilder("stepJobBPartitioned", jobRepository)
+                .partitioner("stepJobB", new IdRangePartitioner(dataSource, "source_table_b"))
+                .step(stepJobB)
+                .gridSize(partitionGridSize)
+                .taskExecutor(partitionTaskExecutor)
+                .listener(listener)
                 .build();
     }
 
@@ -85,15 +187,65 @@ public class StepConfig {
             PlatformTransactionManager transactionManager,
             @Qualifier("joinedReader") JdbcCursorItemReader<JoinedSourceRecord> joinedReader,
             JoinedSourceRecordProcessor joinedSourceRecordProcessor,
-            JdbcBatchItemWriter<TargetRecord> targetTableWriter,
-            BatchExecutionListener listener) {
+            TargetTableUpsertWriter targetTableWriter,
+            BatchExecutionListener listener,
+            BatchMetricsListener metricsListener,
+            ChunkTimingListener chunkTimingListener,
+            JfrEventListener jfrEventListener,
+            StepProgressListener progressListener,
+            ReplicaLagListener replicaLagListener) {
         
-        return new StepBuilder("joinDirectStep", jobRepository)
+        return withChunkListeners(new StepBuilder("joinDirectStep", jobRepository)
                 .<JoinedSourceRecord, TargetRecord>chunk(10, transactionManager)
                 .reader(joinedReader)
                 .processor(joinedSourceRecordProcessor)
                 .writer(targetTableWriter)
                 .listener(listener)
+                .faultTolerant()
+                .retry(PessimisticLockingFailureException.class)
+                .retryLimit(lockRetryLimit)
+                .backOffPolicy(lockRetryBackOffPolicy()), metricsListener, chunkTimingListener, jfrEventListener,
+                        progressListener, replicaLagListener)
+                .build();
+    }
+
+    /**
+     * Step do unionJob: source_table_a + source_table_b → target_table em uma passada
+     * 
+     * CARACTERÍSTICAS:
+     * - Reader: FULL OUTER JOIN ordenado por id (unionSourceReader)
+     * - Processor: escolhe a origem vencedora por id (UnionSourceRecordProcessor)
+     * - Writer: mesmo targetTableWriter de jobA/jobB (UPSERT change-aware)
+     * 
+     * DIFERENÇA DE stepJobA + stepJobB:
+     * - Ids comuns são escritos uma vez (não duas)
+     * - Um único escritor na target_table: sem disputa de row locks entre jobA e jobB
+     */
+    @Bean
+    public Step unionStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("unionSourceReader") JdbcCursorItemReader<MergedRecord> unionSourceReader,
+            UnionSourceRecordProcessor unionSourceRecordProcessor,
+            TargetTableUpsertWriter targetTableWriter,
+            BatchExecutionListener listener,
+            BatchMetricsListener metricsListener,
+            ChunkTimingListener chunkTimingListener,
+            JfrEventListener jfrEventListener,
+            StepProgressListener progressListener,
+            ReplicaLagListener replicaLagListener) {
+        
+        return withChunkListeners(new StepBuilder("unionStep", jobRepository)
+                .<MergedRecord, TargetRecord>chunk(10, transactionManager)
+                .reader(unionSourceReader)
+                .processor(unionSourceRecordProcessor)
+                .writer(targetTableWriter)
+                .listener(listener)
+                .faultTolerant()
+                .retry(PessimisticLockingFailureException.class)
+                .retryLimit(lockRetryLimit)
+                .backOffPolicy(lockRetryBackOffPolicy()), metricsListener, chunkTimingListener, jfrEventListener,
+                        progressListener, replicaLagListener)
                 .build();
     }
 
@@ -160,17 +312,23 @@ public class StepConfig {
     public Step loadStagingAStep(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
-            @Qualifier("readerSourceA") JdbcCursorItemReader<SourceRecord> readerSourceA,
+            @Qualifier("readerSourceA") ItemStreamReader<SourceRecord> readerSourceA,
             PassThroughProcessor passThroughProcessor,
-            @Qualifier("writerStagingA") JdbcBatchItemWriter<SourceRecord> writerStagingA,
-            BatchExecutionListener listener) {
+            @Qualifier("writerStagingA") ItemWriter<SourceRecord> writerStagingA,
+            BatchExecutionListener listener,
+            BatchMetricsListener metricsListener,
+            ChunkTimingListener chunkTimingListener,
+            JfrEventListener jfrEventListener,
+            StepProgressListener progressListener,
+            ReplicaLagListener replicaLagListener) {
         
-        return new StepBuilder("loadStagingAStep", jobRepository)
+        return withChunkListeners(new StepBuilder("loadStagingAStep", jobRepository)
                 .<SourceRecord, SourceRecord>chunk(10, transactionManager)
                 .reader(readerSourceA)
                 .processor(passThroughProcessor)
                 .writer(writerStagingA)
-                .listener(listener)
+                .listener(listener), metricsListener, chunkTimingListener, jfrEventListener,
+                        progressListener, replicaLagListener)
                 .build();
     }
 
@@ -211,17 +369,23 @@ public class StepConfig {
     public Step loadStagingBStep(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
-            @Qualifier("readerSourceB") JdbcCursorItemReader<SourceRecord> readerSourceB,
+            @Qualifier("readerSourceB") ItemStreamReader<SourceRecord> readerSourceB,
             PassThroughProcessor passThroughProcessor,
-            @Qualifier("writerStagingB") JdbcBatchItemWriter<SourceRecord> writerStagingB,
-            BatchExecutionListener listener) {
+            @Qualifier("writerStagingB") ItemWriter<SourceRecord> writerStagingB,
+            BatchExecutionListener listener,
+            BatchMetricsListener metricsListener,
+            ChunkTimingListener chunkTimingListener,
+            JfrEventListener jfrEventListener,
+            StepProgressListener progressListener,
+            ReplicaLagListener replicaLagListener) {
         
-        return new StepBuilder("loadStagingBStep", jobRepository)
+        return withChunkListeners(new StepBuilder("loadStagingBStep", jobRepository)
                 .<SourceRecord, SourceRecord>chunk(10, transactionManager)
                 .reader(readerSourceB)
                 .processor(passThroughProcessor)
                 .writer(writerStagingB)
-                .listener(listener)
+                .listener(listener), metricsListener, chunkTimingListener, jfrEventListener,
+                        progressListener, replicaLagListener)
                 .build();
     }
 
@@ -248,6 +412,7 @@ public class StepConfig {
      * 3. WRITER (targetTableWriter):
      *    - Recebe TargetRecord
      *    - Persiste na target_table usando UPSERT (ON CONFLICT DO UPDATE)
+     *    - Linhas com (nome, valor) inalterados não são reescritas (change-aware)
      *    - Garante idempotência (pode executar múltiplas vezes)
      * 
      * FLUXO COMPLETO:
@@ -322,25 +487,119 @@ public class StepConfig {
      *   Reader → MergedRecord(id=2, nameA="Produto A2", valueA=250.75, nameB=null, valueB=null)
      *   Processor → TargetRecord(id=2, nome="Produto A2", valor=250.75, processedo_em=2026-01-19 10:30:01)
      *   Writer → INSERT/UPDATE na target_table
+     * 
+     * MODO INCREMENTAL (batch.merge.incremental=true):
+     * - Reader: changedMergedRecordReader (apenas ids em staging_change_log)
+     * - Inclui ids que existem apenas em staging_table_b
+     * - Tempo proporcional ao delta do dia, não ao tamanho de staging_table_a
      */
     @Bean
     public Step mergeFinalStep(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
             @Qualifier("mergedRecordReader") MergedRecordItemReader mergedRecordReader,
+            @Qualifier("changedMergedRecordReader") ItemStreamReader<MergedRecord> changedMergedRecordReader,
+            @Value("${batch.merge.incremental:false}") boolean incrementalMerge,
             MergedRecordProcessor mergedRecordProcessor,
-            JdbcBatchItemWriter<TargetRecord> targetTableWriter,
-            BatchExecutionListener listener) {
+            TargetTableUpsertWriter targetTableWriter,
+            BatchExecutionListener listener,
+            BatchMetricsListener metricsListener,
+            ChunkTimingListener chunkTimingListener,
+            JfrEventListener jfrEventListener,
+            StepProgressListener progressListener,
+            ReplicaLagListener replicaLagListener) {
         
         // IMPORTANTE: Usar MergedRecordItemReader diretamente (não ItemReader)
         // Isso garante que Spring Batch detecte que implementa ItemStream
         // Spring Batch detecta automaticamente ItemStream e chama open() antes de read()
-        return new StepBuilder("mergeFinalStep", jobRepository)
+        // MODO INCREMENTAL: re-faz o merge apenas dos ids em staging_change_log
+        ItemReader<MergedRecord> reader = incrementalMerge ? changedMergedRecordReader : mergedRecordReader;
+        return withChunkListeners(new StepBuilder("mergeFinalStep", jobRepository)
                 .<MergedRecord, TargetRecord>chunk(10, transactionManager)
-                .reader(mergedRecordReader)
+                .reader(reader)
                 .processor(mergedRecordProcessor)
                 .writer(targetTableWriter)
                 .listener(listener)
+                .faultTolerant()
+                .retry(PessimisticLockingFailureException.class)
+                .retryLimit(lockRetryLimit)
+                .backOffPolicy(lockRetryBackOffPolicy()), metricsListener, chunkTimingListener, jfrEventListener,
+                        progressListener, replicaLagListener)
+                .build();
+    }
+
+    /**
+     * Step de expurgo dos metadados do Spring Batch (metadataPurgeJob)
+     * Tasklet repetido: cada chamada remove um lote de instâncias na própria transação
+     */
+    @Bean
+    public Step metadataPurgeStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            MetadataPurgeTasklet metadataPurgeTasklet,
+            BatchExecutionListener listener) {
+        return new StepBuilder("metadataPurgeStep", jobRepository)
+                .tasklet(metadataPurgeTasklet, transactionManager)
+                .listener((StepExecutionListener) metadataPurgeTasklet)
+                .listener((StepExecutionListener) listener)
                 .build();
     }
+
+    /**
+     * Registra listeners de chunk/item (BatchMetricsListener, ChunkTimingListener,
+     * JfrEventListener, StepProgressListener) em todas as fases do step, além do
+     * ReplicaLagListener (step só começa com a réplica de leitura em dia)
+     * 
+     * POR QUE NÃO .listener(listener)?
+     * - Esses listeners implementam várias interfaces (step, chunk, read, process, write, skip)
+     * - A sobrecarga listener(Object) só considera anotações (@BeforeStep etc.)
+     * - Cada interface é registrada explicitamente pelo seu tipo
+     * - SkipListener só existe em steps faultTolerant()
+     */
+    @SuppressWarnings("unchecked")
+    private <B extends SimpleStepBuilder<?, ?>> B withChunkListeners(B builder, Object... listeners) {
+        SimpleStepBuilder<Object, Object> stepBuilder = (SimpleStepBuilder<Object, Object>) builder;
+        for (Object listener : listeners) {
+            if (listener instanceof StepExecutionListener stepListener) {
+                stepBuilder.listener(stepListener);
+            }
+            if (listener instanceof ChunkListener chunkListener) {
+                stepBuilder.listener(chunkListener);
+            }
+            if (listener instanceof ItemReadListener<?> readListener) {
+                stepBuilder.listener((ItemReadListener<Object>) readListener);
+            }
+            if (listener instanceof ItemProcessListener<?, ?> processListener) {
+                stepBuilder.listener((ItemProcessListener<Object, Object>) processListener);
+            }
+            if (listener instanceof ItemWriteListener<?> writeListener) {
+                stepBuilder.listener((ItemWriteListener<Object>) writeListener);
+            }
+            if (listener instanceof SkipListener<?, ?> skipListener
+                    && builder instanceof FaultTolerantStepBuilder<?, ?> faultTolerantBuilder) {
+                ((FaultTolerantStepBuilder<Object, Object>) faultTolerantBuilder)
+                        .listener((SkipListener<Object, Object>) skipListener);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Backoff exponencial entre tentativas de um chunk que falhou por lock
+     * 
+     * RETRY NO NÍVEL DO CHUNK:
+     * - Deadlock (40P01) e lock_timeout (55P03) chegam como PessimisticLockingFailureException
+     * - O chunk inteiro sofre rollback e é reprocessado (UPSERT é idempotente)
+     * - O backoff crescente (x2, até 10x o inicial) dá tempo para o outro escritor
+     *   liberar os locks antes da próxima tentativa
+     * - Tentativas que falharam aparecem em "Rollbacks" e no tempo perdido em tentativas
+     *   que falharam por lock do resumo do step
+     */
+    private BackOffPolicy lockRetryBackOffPolicy() {
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(lockRetryBackoffMillis);
+        backOffPolicy.setMultiplier(2.0);
+        backOffPolicy.setMaxInterval(lockRetryBackoffMillis * 10);
+        return backOffPolicy;
+    }
 }
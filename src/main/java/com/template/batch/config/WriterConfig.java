@@ -2,9 +2,17 @@ package com.template.batch.config;
 
 import com.template.batch.domain.SourceRecord;
 import com.template.batch.domain.TargetRecord;
+import com.template.batch.writer.TargetTableUpsertWriter;
+import com.template.batch.util.JobParametersUtil;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.database.ItemSqlParameterSourceProvider;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.item.support.CompositeItemWriter;
+import org.springframework.batch.item.support.builder.CompositeItemWriterBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -27,26 +35,34 @@ public class WriterConfig {
      * DESVANTAGENS:
      * - Sintaxe específica do PostgreSQL (não é padrão SQL)
      * - Limitado a conflitos em constraints (PK, UNIQUE)
+     * 
+     * MODO CHANGE-AWARE (batch.writer.target.skip-unchanged):
+     * - true (padrão): DO UPDATE apenas quando (nome, valor) mudou
+     *   Reexecuções de jobA/jobB não geram WAL nem dead tuples para linhas iguais
+     * - false: comportamento anterior (toda linha existente é reescrita)
+     * - Backfill (job parameter rewriteUnchanged=true) sempre reescreve: o objetivo é
+     *   gravar o processado_em de cada data, fora da comparação de (nome, valor)
+     * - Em ambos os modos o step reporta inseridos, atualizados e inalterados
+     * 
+     * CONTENÇÃO DE LOCKS:
+     * - Chunk ordenado por id antes do envio (locks sempre na mesma ordem)
+     * - batch.writer.target.lock-timeout-ms: espera máxima por row lock (0 = sem limite)
+     * - Deadlocks/lock timeouts são refeitos pelo step (retry com backoff)
+     * 
+     * @StepScope: o writer acumula contadores no ExecutionContext do step corrente
      */
     @Bean
-    public JdbcBatchItemWriter<TargetRecord> targetTableWriter(DataSource dataSource) {
-        return new JdbcBatchItemWriterBuilder<TargetRecord>()
-                .dataSource(dataSource)
-                .sql("INSERT INTO target_table (id, nome, valor, processedo_em) " +
-                     "VALUES (:id, :nome, :valor, :processadoEm) " +
-                     "ON CONFLICT (id) DO UPDATE SET " +
-                     "nome = EXCLUDED.nome, " +
-                     "valor = EXCLUDED.valor, " +
-                     "processedo_em = EXCLUDED.processedo_em")
-                .itemSqlParameterSourceProvider(item -> {
-                    MapSqlParameterSource params = new MapSqlParameterSource();
-                    params.addValue("id", item.getId());
-                    params.addValue("nome", item.getNome());
-                    params.addValue("valor", item.getValor());
-                    params.addValue("processadoEm", item.getProcessadoEm());
-                    return params;
-                })
-                .build();
+    @StepScope
+    public TargetTableUpsertWriter targetTableWriter(
+            DataSource dataSource,
+            @Value("${batch.writer.target.skip-unchanged:true}") boolean skipUnchanged,
+            @Value("${batch.writer.target.lock-timeout-ms:0}") long lockTimeoutMillis,
+            @Value("#{jobParameters['" + JobParametersUtil.REWRITE_UNCHANGED_PARAMETER_NAME + "']}") String rewriteUnchanged,
+            @Value("#{stepExecution}") StepExecution stepExecution) {
+        TargetTableUpsertWriter writer = new TargetTableUpsertWriter(dataSource,
+                skipUnchanged && !Boolean.parseBoolean(rewriteUnchanged), lockTimeoutMillis);
+        writer.setStepExecution(stepExecution);
+        return writer;
     }
 
     /**
@@ -160,25 +176,31 @@ public class WriterConfig {
      * - SourceRecord.nome → staging_table_a.name
      * - SourceRecord.valor → staging_table_a.value
      * - SourceRecord.id → staging_table_a.id
+     * 
+     * LOG DE ALTERAÇÕES (batch.merge.incremental=true):
+     * - Cada id escrito também é registrado em staging_change_log
+     * - Mesma transação do chunk (CompositeItemWriter no mesmo DataSource)
+     * - Permite ao mergeFinalStep re-fazer o merge apenas dos ids alterados
+     * - Merge completo (padrão): o log não é lido, então não é gravado
      */
     @Bean
     @Qualifier("writerStagingA")
-    public JdbcBatchItemWriter<SourceRecord> writerStagingA(DataSource dataSource) {
-        return new JdbcBatchItemWriterBuilder<SourceRecord>()
+    public CompositeItemWriter<SourceRecord> writerStagingA(
+            DataSource dataSource,
+            @Value("${batch.merge.incremental:false}") boolean incrementalMerge) throws Exception {
+        JdbcBatchItemWriter<SourceRecord> stagingWriter = new JdbcBatchItemWriterBuilder<SourceRecord>()
                 .dataSource(dataSource)
                 .sql("INSERT INTO staging_table_a (id, name, value) " +
                      "VALUES (:id, :nome, :valor) " +
                      "ON CONFLICT (id) DO UPDATE SET " +
                      "name = EXCLUDED.name, " +
                      "value = EXCLUDED.value")
-                .itemSqlParameterSourceProvider(item -> {
-                    MapSqlParameterSource params = new MapSqlParameterSource();
-                    params.addValue("id", item.getId());
-                    params.addValue("nome", item.getNome());
-                    params.addValue("valor", item.getValor());
-                    return params;
-                })
+                .itemSqlParameterSourceProvider(stagingParameterSourceProvider())
                 .build();
+        // Delegates não são beans: afterPropertiesSet detecta os parâmetros nomeados
+        stagingWriter.afterPropertiesSet();
+
+        return stagingWriterWithChangeLog(stagingWriter, dataSource, incrementalMerge);
     }
 
     /**
@@ -215,24 +237,90 @@ public class WriterConfig {
      * - SourceRecord.nome → staging_table_b.name
      * - SourceRecord.valor → staging_table_b.value
      * - SourceRecord.id → staging_table_b.id
+     * 
+     * LOG DE ALTERAÇÕES:
+     * - Mesmo comportamento do writerStagingA (ids registrados em staging_change_log
+     *   apenas com batch.merge.incremental=true)
      */
     @Bean
     @Qualifier("writerStagingB")
-    public JdbcBatchItemWriter<SourceRecord> writerStagingB(DataSource dataSource) {
-        return new JdbcBatchItemWriterBuilder<SourceRecord>()
+    public CompositeItemWriter<SourceRecord> writerStagingB(
+            DataSource dataSource,
+            @Value("${batch.merge.incremental:false}") boolean incrementalMerge) throws Exception {
+        JdbcBatchItemWriter<SourceRecord> stagingWriter = new JdbcBatchItemWriterBuilder<SourceRecord>()
                 .dataSource(dataSource)
                 .sql("INSERT INTO staging_table_b (id, name, value) " +
                      "VALUES (:id, :nome, :valor) " +
                      "ON CONFLICT (id) DO UPDATE SET " +
                      "name = EXCLUDED.name, " +
                      "value = EXCLUDED.value")
-                .itemSqlParameterSourceProvider(item -> {
-                    MapSqlParameterSource params = new MapSqlParameterSource();
-                    params.addValue("id", item.getId());
-                    params.addValue("nome", item.getNome());
-                    params.addValue("valor", item.getValor());
-                    return params;
-                })
+                .itemSqlParameterSourceProvider(stagingParameterSourceProvider())
+                .build();
+        // Delegates não são beans: afterPropertiesSet detecta os parâmetros nomeados
+        stagingWriter.afterPropertiesSet();
+
+        return stagingWriterWithChangeLog(stagingWriter, dataSource, incrementalMerge);
+    }
+
+    /**
+     * Composite do writer de staging com o do log de alterações (só no merge incremental)
+     */
+    private CompositeItemWriter<SourceRecord> stagingWriterWithChangeLog(
+            JdbcBatchItemWriter<SourceRecord> stagingWriter,
+            DataSource dataSource,
+            boolean incrementalMerge) throws Exception {
+        if (!incrementalMerge) {
+            return new CompositeItemWriterBuilder<SourceRecord>()
+                    .delegates(stagingWriter)
+                    .build();
+        }
+        return new CompositeItemWriterBuilder<SourceRecord>()
+                .delegates(stagingWriter, stagingChangeLogWriter(dataSource))
+                .build();
+    }
+
+    /**
+     * Writer do log de alterações de staging (staging_change_log)
+     * 
+     * POR QUE UM LOG DE IDS?
+     * - mergeFinalStep incremental lê apenas os ids tocados desde o último merge
+     * - PRIMARY KEY (id) deduplica: o mesmo id escrito por A e por B aparece uma vez
+     * - changed_at é renovado a cada escrita: um id alterado durante o merge
+     *   não é removido do log pelo merge em andamento
+     * 
+     * Usado como delegate de writerStagingA e writerStagingB
+     */
+    private JdbcBatchItemWriter<SourceRecord> stagingChangeLogWriter(DataSource dataSource) throws Exception {
+        JdbcBatchItemWriter<SourceRecord> writer = new JdbcBatchItemWriterBuilder<SourceRecord>()
+                .dataSource(dataSource)
+                .sql("INSERT INTO staging_change_log (id, changed_at) " +
+                     "VALUES (:id, LOCALTIMESTAMP) " +
+                     "ON CONFLICT (id) DO UPDATE SET " +
+                     "changed_at = EXCLUDED.changed_at")
+                .itemSqlParameterSourceProvider(changeLogParameterSourceProvider())
                 .build();
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    /**
+     * Parâmetros do UPSERT em staging_table_a/staging_table_b (:id, :nome, :valor)
+     * Visibilidade de pacote: usado também pelos benchmarks JMH
+     */
+    static ItemSqlParameterSourceProvider<SourceRecord> stagingParameterSourceProvider() {
+        return item -> {
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            params.addValue("id", item.getId());
+            params.addValue("nome", item.getNome());
+            params.addValue("valor", item.getValor());
+            return params;
+        };
+    }
+
+    /**
+     * Parâmetros do UPSERT em staging_change_log (:id)
+     */
+    static ItemSqlParameterSourceProvider<SourceRecord> changeLogParameterSourceProvider() {
+        return item -> new MapSqlParameterSource("id", item.getId());
     }
 }
@@ -0,0 +1,12 @@
+package com.template.batch.domain;
+
+/**
+ * Item identificado por id (chave comum entre origem, staging e destino)
+ *
+ * Permite que listeners genéricos (ex.: ChunkTimingListener) registrem
+ * o primeiro e o último id de um chunk sem conhecer o tipo concreto do item.
+ */
+public interface Identifiable {
+
+    Long getId();
+}
@@ -44,7 +44,7 @@ import java.math.BigDecimal;
  * - JOIN no SQL: banco otimiza, usa índices, processa em lote
  * - JOIN no Processor: lento, carrega dados desnecessários, não usa índices
  */
-public class JoinedSourceRecord {
+public class JoinedSourceRecord implements Identifiable {
     
     /**
      * ID comum (chave de junção entre as tabelas)
@@ -76,6 +76,7 @@ public class JoinedSourceRecord {
         this.valueB = valueB;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
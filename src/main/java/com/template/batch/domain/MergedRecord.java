@@ -12,7 +12,7 @@ import java.math.BigDecimal;
  * - nameB: Nome da staging_table_b (pode ser null se não houver correspondente)
  * - valueB: Valor da staging_table_b (pode ser null se não houver correspondente)
  */
-public class MergedRecord {
+public class MergedRecord implements Identifiable {
     
     private Long id;
     private String nameA;
@@ -31,6 +31,7 @@ public class MergedRecord {
         this.valueB = valueB;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -2,7 +2,7 @@ package com.template.batch.domain;
 
 import java.math.BigDecimal;
 
-public class SourceRecord {
+public class SourceRecord implements Identifiable {
     private Long id;
     private String nome;
     private BigDecimal valor;
@@ -16,6 +16,7 @@ public class SourceRecord {
         this.valor = valor;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -3,7 +3,7 @@ package com.template.batch.domain;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-public class TargetRecord {
+public class TargetRecord implements Identifiable {
     private Long id;
     private String nome;
     private BigDecimal valor;
@@ -19,6 +19,7 @@ public class TargetRecord {
         this.processadoEm = processadoEm;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -0,0 +1,204 @@
+package com.template.batch.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * DataSource que mede cada statement JDBC (substitui o log DEBUG de org.springframework.jdbc)
+ *
+ * COMO FUNCIONA:
+ * - Decora o pool original: Connection, Statement e ResultSet devolvidos são proxies
+ * - execute/executeQuery/executeUpdate/executeBatch: tempo de execução por SQL normalizado
+ * - addBatch/executeBatch: quantidade e tamanho dos batches (JdbcBatchItemWriter)
+ * - ResultSet.next(): linhas lidas e tempo de fetch (cursor dos readers)
+ * - getConnection: espera pela conexão do pool, por pool (writer/reader/lookup)
+ * - Estatísticas vão para o SqlStatementRecorder e saem no resumo de cada step
+ *
+ * TRANSAÇÕES:
+ * - Cada bean DataSource (um por pool, ver DataSourceConfig) é substituído por este
+ *   decorator (ver BatchConfig), então PlatformTransactionManager, JobRepository,
+ *   writers e JdbcTemplates enxergam o mesmo DataSource: a sincronização de transação
+ *   continua funcionando
+ * - unwrap/isWrapperFor são delegados (métricas do HikariCP continuam disponíveis)
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+    private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+    private static final Set<String> STATEMENT_FACTORY_METHODS = Set.of(
+            "prepareStatement", "prepareCall", "createStatement");
+
+    private final SqlStatementRecorder recorder;
+    private final String poolName;
+
+    public InstrumentedDataSource(DataSource targetDataSource, SqlStatementRecorder recorder, String poolName) {
+        super(targetDataSource);
+        this.recorder = recorder;
+        this.poolName = poolName;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        recorder.recordConnectionWait(poolName, System.nanoTime() - start);
+        return wrapConnection(connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        recorder.recordConnectionWait(poolName, System.nanoTime() - start);
+        return wrapConnection(connection);
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    // equals/hashCode por identidade do proxy (DataSourceUtils compara conexões)
+    private static boolean isIdentityMethod(Method method) {
+        String name = method.getName();
+        return ("equals".equals(name) && method.getParameterCount() == 1)
+                || ("hashCode".equals(name) && method.getParameterCount() == 0);
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return "equals".equals(method.getName()) ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement && STATEMENT_FACTORY_METHODS.contains(method.getName())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(
+                        InstrumentedDataSource.class.getClassLoader(),
+                        new Class<?>[]{type},
+                        new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private int pendingBatch;
+        private String lastBatchSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+
+            if ("addBatch".equals(name)) {
+                pendingBatch++;
+                if (args != null && args.length == 1 && args[0] instanceof String s) {
+                    lastBatchSql = s;
+                }
+                return InstrumentedDataSource.invoke(target, method, args);
+            }
+            if ("clearBatch".equals(name)) {
+                pendingBatch = 0;
+                return InstrumentedDataSource.invoke(target, method, args);
+            }
+
+            boolean batch = BATCH_METHODS.contains(name);
+            if (!batch && !EXECUTE_METHODS.contains(name)) {
+                Object result = InstrumentedDataSource.invoke(target, method, args);
+                // getResultSet/getGeneratedKeys também devolvem ResultSet com linhas a contar
+                if (result instanceof ResultSet resultSet) {
+                    return wrapResultSet(resultSet, recorder.statsFor(preparedSql));
+                }
+                return result;
+            }
+
+            String sql = preparedSql;
+            if (sql == null) {
+                sql = batch ? lastBatchSql : (args != null && args.length > 0 && args[0] instanceof String s ? s : null);
+            }
+            SqlStatementStats stats = recorder.statsFor(sql);
+            long start = System.nanoTime();
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (stats != null) {
+                long elapsed = System.nanoTime() - start;
+                if (batch) {
+                    stats.recordBatch(elapsed, pendingBatch);
+                } else {
+                    stats.recordExecution(elapsed);
+                }
+            }
+            if (batch) {
+                pendingBatch = 0;
+            }
+            if (result instanceof ResultSet resultSet) {
+                return wrapResultSet(resultSet, stats);
+            }
+            return result;
+        }
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet, SqlStatementStats stats) {
+        if (stats == null) {
+            return resultSet;
+        }
+        return (ResultSet) Proxy.newProxyInstance(
+                InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if (!"next".equals(method.getName())) {
+                        return invoke(resultSet, method, args);
+                    }
+                    long start = System.nanoTime();
+                    Object hasRow = invoke(resultSet, method, args);
+                    stats.recordFetch(System.nanoTime() - start, Boolean.TRUE.equals(hasRow));
+                    return hasRow;
+                });
+    }
+}
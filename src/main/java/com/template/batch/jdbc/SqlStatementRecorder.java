@@ -0,0 +1,125 @@
+package com.template.batch.jdbc;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Agrega estatísticas de SQL por step (alimentado por InstrumentedDataSource)
+ *
+ * ESCOPO POR STEP:
+ * - beginStep/endStep são chamados pelo BatchExecutionListener
+ * - Cada step (e cada partição) roda em uma thread: o step corrente fica em ThreadLocal
+ * - Statements executados fora de um step (ex.: JobRepository antes do primeiro step)
+ *   não são registrados
+ *
+ * ESPERA POR CONEXÃO:
+ * - getConnection de cada pool (writer/reader/lookup) no step corrente, em
+ *   SqlStatementStats por pool (execuções = conexões obtidas)
+ * - connectionWaits deve ser lido antes do endStep
+ *
+ * NORMALIZAÇÃO:
+ * - Espaços colapsados, literais numéricos e de texto viram "?"
+ * - "SET LOCAL lock_timeout = '500ms'" e "SET LOCAL lock_timeout = '800ms'"
+ *   são o mesmo statement
+ */
+@Component
+public class SqlStatementRecorder {
+
+    private static final int MAX_SQL_LENGTH = 160;
+    private static final int MAX_CACHED_SQL = 1000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    // SQL bruto → normalizado (a aplicação usa poucos SQLs distintos)
+    private final Map<String, String> normalizedCache = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<StepSqlStats> currentStep = new ThreadLocal<>();
+
+    /**
+     * Inicia a coleta do step na thread corrente
+     */
+    public void beginStep() {
+        currentStep.set(new StepSqlStats(currentStep.get()));
+    }
+
+    /**
+     * Encerra a coleta do step na thread corrente e devolve as estatísticas
+     * ordenadas por tempo total (execução + fetch) decrescente
+     */
+    public List<SqlStatementStats> endStep() {
+        StepSqlStats step = currentStep.get();
+        if (step == null) {
+            return List.of();
+        }
+        if (step.parent != null) {
+            currentStep.set(step.parent);
+        } else {
+            currentStep.remove();
+        }
+        List<SqlStatementStats> result = new ArrayList<>(step.statements.values());
+        result.sort(Comparator.comparingLong(
+                (SqlStatementStats stats) -> stats.getTotalNanos() + stats.getFetchNanos()).reversed());
+        return result;
+    }
+
+    /**
+     * Estatísticas do SQL no step corrente (null fora de um step)
+     */
+    SqlStatementStats statsFor(String sql) {
+        StepSqlStats step = currentStep.get();
+        if (step == null || sql == null) {
+            return null;
+        }
+        String normalized = normalizedCache.size() < MAX_CACHED_SQL
+                ? normalizedCache.computeIfAbsent(sql, SqlStatementRecorder::normalize)
+                : normalizedCache.getOrDefault(sql, normalize(sql));
+        return step.statements.computeIfAbsent(normalized, SqlStatementStats::new);
+    }
+
+    /**
+     * Espera por conexão do pool no step corrente (ignorada fora de um step)
+     */
+    void recordConnectionWait(String poolName, long nanos) {
+        StepSqlStats step = currentStep.get();
+        if (step != null) {
+            step.connectionWaits.computeIfAbsent(poolName, SqlStatementStats::new).recordExecution(nanos);
+        }
+    }
+
+    /**
+     * Espera por conexão do step corrente, por pool (vazio fora de um step)
+     */
+    public Map<String, SqlStatementStats> connectionWaits() {
+        StepSqlStats step = currentStep.get();
+        return step != null ? new TreeMap<>(step.connectionWaits) : Map.of();
+    }
+
+    static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        if (normalized.length() > MAX_SQL_LENGTH) {
+            normalized = normalized.substring(0, MAX_SQL_LENGTH) + "...";
+        }
+        return normalized;
+    }
+
+    private static class StepSqlStats {
+        private final StepSqlStats parent;
+        private final Map<String, SqlStatementStats> statements = new ConcurrentHashMap<>();
+        private final Map<String, SqlStatementStats> connectionWaits = new ConcurrentHashMap<>();
+
+        StepSqlStats(StepSqlStats parent) {
+            this.parent = parent;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.template.batch.jdbc;
+
+/**
+ * Estatísticas acumuladas de um SQL normalizado
+ *
+ * PERCENTIS SEM GUARDAR AMOSTRAS:
+ * - Cada execução cai em um bucket log2 do tempo em nanossegundos
+ *   (bucket b = tempos entre 2^b e 2^(b+1) ns)
+ * - O percentil é o limite superior do bucket que o contém: erro máximo de 2x,
+ *   suficiente para separar statements de 1 ms dos de 100 ms
+ * - Memória fixa (64 contadores) independente do número de execuções
+ */
+public class SqlStatementStats {
+
+    private static final int BUCKETS = 64;
+
+    private final String sql;
+    private final long[] histogram = new long[BUCKETS];
+
+    private long executions;
+    private long totalNanos;
+    private long maxNanos;
+    private long batches;
+    private long batchedRows;
+    private long maxBatchSize;
+    private long rowsFetched;
+    private long fetchNanos;
+
+    SqlStatementStats(String sql) {
+        this.sql = sql;
+    }
+
+    synchronized void recordExecution(long nanos) {
+        executions++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        histogram[bucket(nanos)]++;
+    }
+
+    synchronized void recordBatch(long nanos, int batchSize) {
+        recordExecution(nanos);
+        batches++;
+        batchedRows += batchSize;
+        maxBatchSize = Math.max(maxBatchSize, batchSize);
+    }
+
+    synchronized void recordFetch(long nanos, boolean hasRow) {
+        fetchNanos += nanos;
+        if (hasRow) {
+            rowsFetched++;
+        }
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public synchronized long getExecutions() {
+        return executions;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public synchronized long getBatches() {
+        return batches;
+    }
+
+    public synchronized long getBatchedRows() {
+        return batchedRows;
+    }
+
+    public synchronized long getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public synchronized long getRowsFetched() {
+        return rowsFetched;
+    }
+
+    public synchronized long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    /**
+     * Percentil aproximado (limite superior do bucket log2), em nanossegundos
+     */
+    public synchronized long percentileNanos(double percentile) {
+        if (executions == 0) {
+            return 0L;
+        }
+        long target = (long) Math.ceil(percentile / 100.0 * executions);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += histogram[b];
+            if (seen >= target) {
+                return Math.min(b >= 62 ? Long.MAX_VALUE : 1L << (b + 1), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    private static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+}
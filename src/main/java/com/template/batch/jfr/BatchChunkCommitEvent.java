@@ -0,0 +1,32 @@
+package com.template.batch.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: Commit do chunk (fim do write → fim do chunk)
+ */
+@Name("com.template.batch.ChunkCommit")
+@Label("Batch Chunk Commit")
+@Category({"Spring Batch", "Chunk"})
+@Description("Commit da transação do chunk e do ExecutionContext (afterWrite → afterChunk)")
+public class BatchChunkCommitEvent extends Event {
+
+    @Label("Job")
+    public String jobName;
+
+    @Label("Step")
+    public String stepName;
+
+    @Label("Step Execution Id")
+    public long stepExecutionId;
+
+    @Label("Chunk")
+    public long chunkNumber;
+
+    @Label("Itens no Chunk")
+    public int itemCount;
+}
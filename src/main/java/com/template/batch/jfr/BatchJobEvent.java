@@ -0,0 +1,32 @@
+package com.template.batch.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de uma execução de job (beforeJob → afterJob)
+ */
+@Name("com.template.batch.Job")
+@Label("Batch Job")
+@Category({"Spring Batch"})
+@Description("Execução de um job do Spring Batch")
+public class BatchJobEvent extends Event {
+
+    @Label("Job")
+    public String jobName;
+
+    @Label("Job Execution Id")
+    public long jobExecutionId;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Itens Lidos")
+    public long readCount;
+
+    @Label("Itens Escritos")
+    public long writeCount;
+}
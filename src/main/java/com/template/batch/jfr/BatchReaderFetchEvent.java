@@ -0,0 +1,32 @@
+package com.template.batch.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: Fase de leitura de um chunk (primeiro read → último read)
+ */
+@Name("com.template.batch.ReaderFetch")
+@Label("Batch Reader Fetch")
+@Category({"Spring Batch", "Chunk"})
+@Description("Leitura dos itens de um chunk (primeiro read → último read)")
+public class BatchReaderFetchEvent extends Event {
+
+    @Label("Job")
+    public String jobName;
+
+    @Label("Step")
+    public String stepName;
+
+    @Label("Step Execution Id")
+    public long stepExecutionId;
+
+    @Label("Chunk")
+    public long chunkNumber;
+
+    @Label("Itens Lidos")
+    public int itemCount;
+}
@@ -0,0 +1,47 @@
+package com.template.batch.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de uma execução de step (beforeStep → afterStep)
+ */
+@Name("com.template.batch.Step")
+@Label("Batch Step")
+@Category({"Spring Batch"})
+@Description("Execução de um step do Spring Batch")
+public class BatchStepEvent extends Event {
+
+    @Label("Job")
+    public String jobName;
+
+    @Label("Step")
+    public String stepName;
+
+    @Label("Job Execution Id")
+    public long jobExecutionId;
+
+    @Label("Step Execution Id")
+    public long stepExecutionId;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Itens Lidos")
+    public long readCount;
+
+    @Label("Itens Escritos")
+    public long writeCount;
+
+    @Label("Itens Ignorados")
+    public long skipCount;
+
+    @Label("Commits")
+    public long commitCount;
+
+    @Label("Rollbacks")
+    public long rollbackCount;
+}
@@ -0,0 +1,32 @@
+package com.template.batch.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: Fase de escrita de um chunk (beforeWrite → afterWrite)
+ */
+@Name("com.template.batch.WriterFlush")
+@Label("Batch Writer Flush")
+@Category({"Spring Batch", "Chunk"})
+@Description("Envio de um chunk pelo writer (beforeWrite → afterWrite)")
+public class BatchWriterFlushEvent extends Event {
+
+    @Label("Job")
+    public String jobName;
+
+    @Label("Step")
+    public String stepName;
+
+    @Label("Step Execution Id")
+    public long stepExecutionId;
+
+    @Label("Chunk")
+    public long chunkNumber;
+
+    @Label("Itens Escritos")
+    public int itemCount;
+}
@@ -0,0 +1,42 @@
+package com.template.batch.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR do lookup em staging_table_b feito por MergedRecordItemReader (um por item)
+ *
+ * Só é criado com o evento habilitado na gravação (MergedRecordItemReader consulta
+ * o EventType antes de instanciar)
+ */
+@Name("com.template.batch.MergeLookup")
+@Label("Batch Merge Lookup")
+@Category({"Spring Batch", "JDBC"})
+@Description("Lookup por id em staging_table_b durante o merge")
+public class MergeLookupEvent extends Event {
+
+    @Label("Job")
+    public String jobName;
+
+    @Label("Step")
+    public String stepName;
+
+    @Label("Job Execution Id")
+    public long jobExecutionId;
+
+    @Label("Step Execution Id")
+    public long stepExecutionId;
+
+    // Posição do item no cursor de staging_table_a (conta também os lidos antes de um restart)
+    @Label("Itens Lidos")
+    public int itemsRead;
+
+    @Label("Id")
+    public long id;
+
+    @Label("Encontrado em staging_table_b")
+    public boolean found;
+}
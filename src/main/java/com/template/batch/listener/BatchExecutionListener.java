@@ -1,5 +1,10 @@
 package com.template.batch.listener;
 
+import com.template.batch.jdbc.SqlStatementRecorder;
+import com.template.batch.jdbc.SqlStatementStats;
+import com.template.batch.repository.BatchedMetadataJobRepository;
+import com.template.batch.util.JvmResourceSnapshot;
+import com.template.batch.writer.TargetTableUpsertWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.ExitStatus;
@@ -7,10 +12,14 @@ import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 
 @Component
@@ -18,6 +27,44 @@ public class BatchExecutionListener implements JobExecutionListener, StepExecuti
 
     private static final Logger logger = LoggerFactory.getLogger(BatchExecutionListener.class);
 
+    // Perfil de recursos do step no ExecutionContext (lido por StepPerformanceListener)
+    public static final String DB_TIME_MS_KEY = "performance.dbTimeMs";
+    public static final String GC_TIME_MS_KEY = "performance.gcTimeMs";
+    public static final String PEAK_HEAP_BYTES_KEY = "performance.peakHeapBytes";
+    // Bytes alocados pela thread do step (ausente se a JVM não mede alocação por thread)
+    public static final String ALLOCATED_BYTES_KEY = "performance.allocatedBytes";
+    public static final String GC_COUNT_KEY = "performance.gcCount";
+    public static final String MAX_GC_PAUSE_MS_KEY = "performance.maxGcPauseMs";
+    public static final String HEAP_AFTER_GC_BYTES_KEY = "performance.heapAfterGcBytes";
+    // Statements enviados ao banco (um executeBatch conta como um)
+    public static final String SQL_STATEMENTS_KEY = "performance.sqlStatements";
+    // Parte dos statements que foi para as tabelas de metadados (JobRepository)
+    public static final String METADATA_STATEMENTS_KEY = "performance.metadataStatements";
+
+    private final SqlStatementRecorder sqlStatementRecorder;
+    private final boolean sqlInstrumentation;
+    private final int sqlSummaryTop;
+    private final long gcPauseWarnMillis;
+    private final String metadataTablePrefix;
+    private final String repositoryMode;
+
+    private final ThreadLocal<JvmResourceSnapshot> stepResources = new ThreadLocal<>();
+
+    public BatchExecutionListener(
+            SqlStatementRecorder sqlStatementRecorder,
+            @Value("${batch.jdbc.instrumentation.enabled:false}") boolean sqlInstrumentation,
+            @Value("${batch.jdbc.instrumentation.summary-top:10}") int sqlSummaryTop,
+            @Value("${batch.gc.pause-warn-ms:500}") long gcPauseWarnMillis,
+            @Value("${spring.batch.jdbc.table-prefix:BATCH_}") String metadataTablePrefix,
+            @Value("${batch.repository.mode:jdbc}") String repositoryMode) {
+        this.sqlStatementRecorder = sqlStatementRecorder;
+        this.sqlInstrumentation = sqlInstrumentation;
+        this.sqlSummaryTop = sqlSummaryTop;
+        this.gcPauseWarnMillis = gcPauseWarnMillis;
+        this.metadataTablePrefix = metadataTablePrefix;
+        this.repositoryMode = repositoryMode.trim().toLowerCase();
+    }
+
     // ========== JobExecutionListener ==========
 
     @Override
@@ -51,6 +98,9 @@ public class BatchExecutionListener implements JobExecutionListener, StepExecuti
     @Override
     public void beforeStep(StepExecution stepExecution) {
         logger.info("--- Step iniciado: {} ---", stepExecution.getStepName());
+        // Estatísticas de SQL (InstrumentedDataSource) passam a ser coletadas para este step
+        sqlStatementRecorder.beginStep();
+        stepResources.set(JvmResourceSnapshot.start());
     }
 
     @Override
@@ -62,8 +112,202 @@ public class BatchExecutionListener implements JobExecutionListener, StepExecuti
         logger.info("  Itens processados: {}", itensProcessados);
         logger.info("  Itens escritos: {}", stepExecution.getWriteCount());
         logger.info("  Itens ignorados (skip): {}", stepExecution.getSkipCount());
+
+        // Contadores do UPSERT change-aware (apenas steps que escrevem em target_table)
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (context.containsKey(TargetTableUpsertWriter.INSERTED_COUNT_KEY)) {
+            logger.info("  target_table inseridos: {}", context.getLong(TargetTableUpsertWriter.INSERTED_COUNT_KEY));
+            logger.info("  target_table atualizados: {}", context.getLong(TargetTableUpsertWriter.UPDATED_COUNT_KEY));
+            logger.info("  target_table inalterados: {}", context.getLong(TargetTableUpsertWriter.UNCHANGED_COUNT_KEY));
+        }
+        if (context.containsKey(TargetTableUpsertWriter.LOCK_FAILURE_COUNT_KEY)) {
+            logger.info("  Falhas por lock (deadlock/lock_timeout): {}", context.getLong(TargetTableUpsertWriter.LOCK_FAILURE_COUNT_KEY));
+            logger.info("  Tempo perdido em tentativas que falharam por lock: {} ms", context.getLong(TargetTableUpsertWriter.LOCK_FAILED_ATTEMPT_MILLIS_KEY));
+        }
+        logger.info("  Rollbacks: {}", stepExecution.getRollbackCount());
+        logMetadataWrites(stepExecution);
+        logConnectionWaits(sqlStatementRecorder.connectionWaits());
+        List<SqlStatementStats> statements = sqlStatementRecorder.endStep();
+        recordResources(stepExecution, statements);
+        logSqlSummary(statements);
+
         logger.info("  Status: {}", stepExecution.getStatus());
         
         return stepExecution.getExitStatus();
     }
+
+    /**
+     * Tempo de banco, statements, GC, alocação e heap do step no ExecutionContext
+     * (persistido pelo Spring Batch logo após o afterStep) + resumo no log
+     */
+    private void recordResources(StepExecution stepExecution, List<SqlStatementStats> statements) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (sqlInstrumentation) {
+            recordSqlTotals(stepExecution, statements);
+        }
+
+        JvmResourceSnapshot resources = stepResources.get();
+        stepResources.remove();
+        if (resources == null) {
+            return;
+        }
+        long gcTimeMillis = resources.gcTimeMillisSince();
+        long gcCount = resources.gcCountSince();
+        long maxGcPauseMillis = resources.maxGcPauseMillisSince();
+        long peakHeapBytes = JvmResourceSnapshot.peakHeapBytes();
+        long heapAfterGcBytes = JvmResourceSnapshot.heapAfterLastGcBytes();
+        resources.finish();
+        context.putLong(GC_TIME_MS_KEY, gcTimeMillis);
+        context.putLong(GC_COUNT_KEY, gcCount);
+        context.putLong(MAX_GC_PAUSE_MS_KEY, maxGcPauseMillis);
+        context.putLong(PEAK_HEAP_BYTES_KEY, peakHeapBytes);
+        context.putLong(HEAP_AFTER_GC_BYTES_KEY, heapAfterGcBytes);
+        long allocatedBytes = resources.allocatedBytesSince();
+        if (allocatedBytes >= 0) {
+            context.putLong(ALLOCATED_BYTES_KEY, allocatedBytes);
+            logAllocation(stepExecution, allocatedBytes);
+        }
+        logger.info("  GC: {} coletas, {} ms (maior pausa {} ms)", gcCount, gcTimeMillis, maxGcPauseMillis);
+        if (gcPauseWarnMillis > 0 && maxGcPauseMillis >= gcPauseWarnMillis) {
+            logger.warn("Pausa de GC de {} ms durante o step {} (limite batch.gc.pause-warn-ms={} ms)",
+                    maxGcPauseMillis, stepExecution.getStepName(), gcPauseWarnMillis);
+        }
+        logger.info("  Heap: pico ~{} (JVM inteira), após último GC {}", toMegabytes(peakHeapBytes), toMegabytes(heapAfterGcBytes));
+    }
+
+    /**
+     * Tempo de banco e statements do step (apenas com o DataSource instrumentado: sem ele
+     * as chaves ficam de fora em vez de zeradas, e o histórico de performance não compara
+     * 0 com execuções medidas)
+     */
+    private void recordSqlTotals(StepExecution stepExecution, List<SqlStatementStats> statements) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        long dbTimeNanos = 0L;
+        long executions = 0L;
+        long metadataNanos = 0L;
+        long metadataExecutions = 0L;
+        for (SqlStatementStats stats : statements) {
+            dbTimeNanos += stats.getTotalNanos() + stats.getFetchNanos();
+            executions += stats.getExecutions();
+            if (stats.getSql().contains(metadataTablePrefix)) {
+                metadataNanos += stats.getTotalNanos() + stats.getFetchNanos();
+                metadataExecutions += stats.getExecutions();
+            }
+        }
+        context.putLong(DB_TIME_MS_KEY, dbTimeNanos / 1_000_000);
+        context.putLong(SQL_STATEMENTS_KEY, executions);
+        context.putLong(METADATA_STATEMENTS_KEY, metadataExecutions);
+        logMetadataIo(stepExecution, metadataExecutions, metadataNanos);
+    }
+
+    /**
+     * I/O de metadados (JobRepository) durante o step: statements e tempo por chunk commitado
+     * Compara os modos batch.repository.mode (jdbc grava a cada chunk, batched a cada N)
+     */
+    private void logMetadataIo(StepExecution stepExecution, long metadataExecutions, long metadataNanos) {
+        if (metadataExecutions == 0) {
+            return;
+        }
+        long chunks = Math.max(stepExecution.getCommitCount(), 1);
+        logger.info("  Metadados ({}*): {} statements, {} ({} statements e {} por chunk)",
+                metadataTablePrefix, metadataExecutions, toMillis(metadataNanos),
+                String.format("%.1f", (double) metadataExecutions / chunks), toMillis(metadataNanos / chunks));
+    }
+
+    /**
+     * Gravações de metadados pedidas pelos chunks (contexto + step), sem o DataSource instrumentado
+     * - jdbc: duas por chunk commitado
+     * - batched: pedidas e enviadas nos flushes (contadores do BatchedMetadataJobRepository)
+     * Gerenciador de partições fica de fora: as partições gravam os próprios chunks
+     */
+    private void logMetadataWrites(StepExecution stepExecution) {
+        long chunks = stepExecution.getCommitCount();
+        if (chunks == 0 || isPartitionManager(stepExecution)) {
+            return;
+        }
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (context.containsKey(BatchedMetadataJobRepository.FLUSHED_WRITES_KEY)) {
+            long flushed = context.getLong(BatchedMetadataJobRepository.FLUSHED_WRITES_KEY);
+            long requested = context.getLong(BatchedMetadataJobRepository.REQUESTED_WRITES_KEY);
+            logger.info("  Metadados (batched): {} gravações em {} flushes, {} de {} pedidas pelos chunks evitadas ({} por chunk)",
+                    flushed, context.getLong(BatchedMetadataJobRepository.FLUSH_COUNT_KEY),
+                    requested - flushed, requested, String.format("%.1f", (double) flushed / chunks));
+        } else if (repositoryMode.equals("jdbc")) {
+            logger.info("  Metadados (jdbc): {} gravações (2.0 por chunk)", 2 * chunks);
+        }
+    }
+
+    private static boolean isPartitionManager(StepExecution stepExecution) {
+        String prefix = stepExecution.getStepName() + ":partition";
+        return stepExecution.getJobExecution().getStepExecutions().stream()
+                .anyMatch(other -> other.getStepName().startsWith(prefix));
+    }
+
+    /**
+     * Bytes alocados por item lido
+     * Step gerenciador de partições: soma a alocação das partições iniciadas depois
+     * dele (cada uma mede a própria thread e termina antes do gerenciador), pois o
+     * readCount do gerenciador é o agregado das partições
+     */
+    private void logAllocation(StepExecution stepExecution, long ownAllocatedBytes) {
+        long allocatedBytes = ownAllocatedBytes;
+        if (!stepExecution.getStepName().contains(":") && stepExecution.getStartTime() != null) {
+            for (StepExecution other : stepExecution.getJobExecution().getStepExecutions()) {
+                if (other.getStepName().contains(":partition") && other.getStartTime() != null
+                        && !other.getStartTime().isBefore(stepExecution.getStartTime())) {
+                    allocatedBytes += other.getExecutionContext().getLong(ALLOCATED_BYTES_KEY, 0L);
+                }
+            }
+        }
+        long items = stepExecution.getReadCount();
+        logger.info("  Alocação: {} ({} bytes/item)", toMegabytes(allocatedBytes),
+                items > 0 ? allocatedBytes / items : 0L);
+    }
+
+    /**
+     * Statements do step ordenados por tempo total (execução + fetch do cursor)
+     * Tempos em ms; p50/p99 aproximados (histograma log2)
+     */
+    private void logSqlSummary(List<SqlStatementStats> statements) {
+        if (statements.isEmpty()) {
+            return;
+        }
+        logger.info("  SQL (top {} por tempo total):", Math.min(sqlSummaryTop, statements.size()));
+        for (SqlStatementStats stats : statements.subList(0, Math.min(sqlSummaryTop, statements.size()))) {
+            StringBuilder line = new StringBuilder()
+                    .append("execuções=").append(stats.getExecutions())
+                    .append(", total=").append(toMillis(stats.getTotalNanos()))
+                    .append(", p50=").append(toMillis(stats.percentileNanos(50)))
+                    .append(", p99=").append(toMillis(stats.percentileNanos(99)))
+                    .append(", max=").append(toMillis(stats.getMaxNanos()));
+            if (stats.getBatches() > 0) {
+                line.append(", batches=").append(stats.getBatches())
+                        .append(" (média ").append(stats.getBatchedRows() / stats.getBatches())
+                        .append(", máx ").append(stats.getMaxBatchSize()).append(")");
+            }
+            if (stats.getRowsFetched() > 0) {
+                line.append(", linhas=").append(stats.getRowsFetched())
+                        .append(", fetch=").append(toMillis(stats.getFetchNanos()));
+            }
+            logger.info("    [{}] {}", line, stats.getSql());
+        }
+    }
+
+    /**
+     * Espera por conexão de cada pool (writer/reader/lookup) na thread do step
+     * Espera alta em um pool = pool pequeno para a concorrência (batch.datasource.*)
+     */
+    private void logConnectionWaits(Map<String, SqlStatementStats> waits) {
+        waits.forEach((pool, stats) -> logger.info("  Conexões {}: {} obtidas, espera {} (p99 {}, máx {})",
+                pool, stats.getExecutions(), toMillis(stats.getTotalNanos()),
+                toMillis(stats.percentileNanos(99)), toMillis(stats.getMaxNanos())));
+    }
+
+    private static String toMegabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
 }
@@ -0,0 +1,342 @@
+package com.template.batch.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener de métricas Micrometer para steps, chunks e itens
+ *
+ * MÉTRICAS (tags: job, step, partition):
+ * - batch.items (type=read|processed|written|skipped): contadores de itens
+ *   → itens por segundo via rate() no Prometheus
+ * - batch.step.items.per.second (type=read|processed|written): throughput médio do step,
+ *   publicado ao final do step (útil para análise offline do arquivo)
+ * - batch.phase (phase=read|process|write): tempo gasto em reader, processor e writer
+ * - batch.chunk.duration: duração total de cada chunk (histograma)
+ * - batch.chunk.commit: latência entre o fim do write e o fim do chunk (commit da
+ *   transação + persistência do ExecutionContext), com histograma
+ * - batch.chunk.rollbacks: chunks que falharam e sofreram rollback
+ *
+ * POOL JDBC:
+ * - O Actuator publica as métricas do HikariCP automaticamente
+ *   (hikaricp.connections.acquire = tempo de espera por conexão do pool)
+ *
+ * EXPORTAÇÃO:
+ * - Todas as métricas vão para o MeterRegistry da aplicação (Prometheus incluso)
+ * - batch.metrics.prometheus-file: ao fim de cada step o scrape em formato Prometheus
+ *   é gravado no arquivo (permite coletar execuções offline)
+ * - Métricas nativas do Spring Batch (spring.batch.*) também aparecem no arquivo
+ *
+ * CONCORRÊNCIA:
+ * - Cada step (e cada partição) roda em uma única thread
+ * - O estado do step corrente fica em ThreadLocal, sem sincronização no caminho por item
+ */
+@Component
+public class BatchMetricsListener implements StepExecutionListener, ChunkListener,
+        ItemReadListener<Object>, ItemProcessListener<Object, Object>, ItemWriteListener<Object>,
+        SkipListener<Object, Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchMetricsListener.class);
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<PrometheusMeterRegistry> prometheusRegistry;
+    private final String prometheusFile;
+
+    private final ThreadLocal<StepMeters> currentStep = new ThreadLocal<>();
+
+    // Gauges guardam referência fraca: os valores precisam de referência forte aqui
+    private final Map<String, ThroughputHolder> throughputHolders = new ConcurrentHashMap<>();
+
+    public BatchMetricsListener(
+            MeterRegistry meterRegistry,
+            ObjectProvider<PrometheusMeterRegistry> prometheusRegistry,
+            @Value("${batch.metrics.prometheus-file:}") String prometheusFile) {
+        this.meterRegistry = meterRegistry;
+        this.prometheusRegistry = prometheusRegistry;
+        this.prometheusFile = prometheusFile;
+    }
+
+    // ========== StepExecutionListener ==========
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        currentStep.set(new StepMeters(meterRegistry, stepTags(stepExecution)));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        StepMeters meters = currentStep.get();
+        currentStep.remove();
+        if (meters != null && stepExecution.getStartTime() != null) {
+            double seconds = Math.max(Duration.between(stepExecution.getStartTime(),
+                    LocalDateTime.now()).toMillis(), 1) / 1000.0;
+            publishThroughput(meters.tags, "read", stepExecution.getReadCount() / seconds);
+            publishThroughput(meters.tags, "processed", (stepExecution.getReadCount() - stepExecution.getFilterCount()) / seconds);
+            publishThroughput(meters.tags, "written", stepExecution.getWriteCount() / seconds);
+        }
+        writePrometheusFile();
+        return stepExecution.getExitStatus();
+    }
+
+    // ========== ChunkListener ==========
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.chunkStart = System.nanoTime();
+            meters.lastWriteEnd = 0L;
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            long now = System.nanoTime();
+            meters.chunkTimer.record(now - meters.chunkStart, TimeUnit.NANOSECONDS);
+            long commitStart = meters.lastWriteEnd > 0 ? meters.lastWriteEnd : meters.chunkStart;
+            meters.commitTimer.record(now - commitStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.rollbacks.increment();
+        }
+    }
+
+    // ========== ItemReadListener ==========
+
+    @Override
+    public void beforeRead() {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.readStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.readTimer.record(System.nanoTime() - meters.readStart, TimeUnit.NANOSECONDS);
+            meters.read.increment();
+        }
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.readTimer.record(System.nanoTime() - meters.readStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // ========== ItemProcessListener ==========
+
+    @Override
+    public void beforeProcess(Object item) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.processStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.processTimer.record(System.nanoTime() - meters.processStart, TimeUnit.NANOSECONDS);
+            meters.processed.increment();
+        }
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.processTimer.record(System.nanoTime() - meters.processStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // ========== ItemWriteListener ==========
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.writeStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.lastWriteEnd = System.nanoTime();
+            meters.writeTimer.record(meters.lastWriteEnd - meters.writeStart, TimeUnit.NANOSECONDS);
+            meters.written.increment(items.size());
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<?> items) {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.writeTimer.record(System.nanoTime() - meters.writeStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // ========== SkipListener ==========
+
+    @Override
+    public void onSkipInRead(Throwable t) {
+        incrementSkipped();
+    }
+
+    @Override
+    public void onSkipInProcess(Object item, Throwable t) {
+        incrementSkipped();
+    }
+
+    @Override
+    public void onSkipInWrite(Object item, Throwable t) {
+        incrementSkipped();
+    }
+
+    private void incrementSkipped() {
+        StepMeters meters = currentStep.get();
+        if (meters != null) {
+            meters.skipped.increment();
+        }
+    }
+
+    /**
+     * Tags do step. Partições têm nome "stepJobA:partition0":
+     * step=stepJobA, partition=partition0 (steps não particionados: partition=none)
+     */
+    private Tags stepTags(StepExecution stepExecution) {
+        String stepName = stepExecution.getStepName();
+        String partition = "none";
+        int separator = stepName.indexOf(':');
+        if (separator > 0) {
+            partition = stepName.substring(separator + 1);
+            stepName = stepName.substring(0, separator);
+        }
+        return Tags.of(
+                "job", stepExecution.getJobExecution().getJobInstance().getJobName(),
+                "step", stepName,
+                "partition", partition);
+    }
+
+    private void publishThroughput(Tags tags, String type, double value) {
+        Tags throughputTags = tags.and("type", type);
+        ThroughputHolder holder = throughputHolders.computeIfAbsent(throughputTags.toString(), key -> {
+            ThroughputHolder newHolder = new ThroughputHolder();
+            Gauge.builder("batch.step.items.per.second", newHolder, h -> h.value)
+                    .tags(throughputTags)
+                    .register(meterRegistry);
+            return newHolder;
+        });
+        holder.value = value;
+    }
+
+    /**
+     * Grava o scrape Prometheus no arquivo configurado (escrita atômica via arquivo temporário)
+     */
+    private synchronized void writePrometheusFile() {
+        if (prometheusFile == null || prometheusFile.isEmpty()) {
+            return;
+        }
+        PrometheusMeterRegistry registry = prometheusRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        try {
+            Path target = Paths.get(prometheusFile).toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "batch-metrics", ".tmp");
+            Files.writeString(temp, registry.scrape(), StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Não foi possível gravar métricas em '{}': {}", prometheusFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Medidores do step corrente (criados uma vez por step, não por item)
+     */
+    private static class StepMeters {
+        private final Tags tags;
+        private final Timer readTimer;
+        private final Timer processTimer;
+        private final Timer writeTimer;
+        private final Timer chunkTimer;
+        private final Timer commitTimer;
+        private final Counter read;
+        private final Counter processed;
+        private final Counter written;
+        private final Counter skipped;
+        private final Counter rollbacks;
+
+        private long readStart;
+        private long processStart;
+        private long writeStart;
+        private long chunkStart;
+        private long lastWriteEnd;
+
+        StepMeters(MeterRegistry registry, Tags tags) {
+            this.tags = tags;
+            this.readTimer = Timer.builder("batch.phase").tags(tags).tag("phase", "read").register(registry);
+            this.processTimer = Timer.builder("batch.phase").tags(tags).tag("phase", "process").register(registry);
+            this.writeTimer = Timer.builder("batch.phase").tags(tags).tag("phase", "write").register(registry);
+            this.chunkTimer = Timer.builder("batch.chunk.duration").tags(tags)
+                    .publishPercentileHistogram().register(registry);
+            this.commitTimer = Timer.builder("batch.chunk.commit").tags(tags)
+                    .publishPercentileHistogram().register(registry);
+            this.read = Counter.builder("batch.items").tags(tags).tag("type", "read").register(registry);
+            this.processed = Counter.builder("batch.items").tags(tags).tag("type", "processed").register(registry);
+            this.written = Counter.builder("batch.items").tags(tags).tag("type", "written").register(registry);
+            this.skipped = Counter.builder("batch.items").tags(tags).tag("type", "skipped").register(registry);
+            this.rollbacks = Counter.builder("batch.chunk.rollbacks").tags(tags).register(registry);
+        }
+    }
+
+    private static class ThroughputHolder {
+        private volatile double value;
+    }
+}
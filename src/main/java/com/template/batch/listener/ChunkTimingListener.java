@@ -0,0 +1,345 @@
+package com.template.batch.listener;
+
+import com.template.batch.domain.Identifiable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener de tempo por chunk com detecção de chunks lentos
+ *
+ * OBJETIVO:
+ * - Quando uma execução fica lenta, saber se o tempo está no reader, no processor,
+ *   no writer ou no commit
+ *
+ * COMO FUNCIONA:
+ * - Mede em nanossegundos cada fase de cada chunk: read, process, write e
+ *   commit (fim do write → fim do chunk)
+ * - Mantém uma janela móvel com a duração dos últimos chunks do step
+ *   (batch.chunk-timing.window) e calcula p50/p99 sobre ela (p99 recalculado
+ *   periodicamente, não a cada chunk)
+ * - Só gera log quando um chunk passa do limite:
+ *   * batch.chunk-timing.slow-threshold-ms > 0: limite fixo
+ *   * batch.chunk-timing.slow-threshold-ms = 0: limite adaptativo = p99 da janela
+ *     × batch.chunk-timing.p99-multiplier (ativo após batch.chunk-timing.min-samples chunks)
+ * - O multiplicador evita ruído: só com o p99 como limite, ~1% dos chunks de uma
+ *   execução normal passaria dele por definição
+ * - O log do chunk lento traz o detalhamento por fase e o primeiro/último id do chunk
+ *   (itens que implementam Identifiable)
+ *
+ * SEM RUÍDO:
+ * - Execuções normais não geram log por chunk
+ * - O resumo de percentis do step sai apenas em DEBUG
+ * - p50/p99 finais vão para o ExecutionContext (histórico de performance)
+ *
+ * CONCORRÊNCIA:
+ * - Cada step (e cada partição) roda em uma única thread
+ * - Todo o estado fica em ThreadLocal, sem sincronização
+ */
+@Component
+public class ChunkTimingListener implements StepExecutionListener, ChunkListener,
+        ItemReadListener<Object>, ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkTimingListener.class);
+
+    // Percentis da janela no fim do step (lidos por StepPerformanceListener)
+    public static final String CHUNK_P50_MS_KEY = "performance.chunkP50Ms";
+    public static final String CHUNK_P99_MS_KEY = "performance.chunkP99Ms";
+
+    private final long slowThresholdNanos;
+    private final double p99Multiplier;
+    private final int windowSize;
+    private final int minSamples;
+
+    private final ThreadLocal<StepTiming> currentStep = new ThreadLocal<>();
+
+    public ChunkTimingListener(
+            @Value("${batch.chunk-timing.slow-threshold-ms:0}") long slowThresholdMillis,
+            @Value("${batch.chunk-timing.p99-multiplier:3}") double p99Multiplier,
+            @Value("${batch.chunk-timing.window:1000}") int windowSize,
+            @Value("${batch.chunk-timing.min-samples:100}") int minSamples) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.p99Multiplier = Math.max(p99Multiplier, 1.0);
+        this.windowSize = Math.max(windowSize, 1);
+        this.minSamples = Math.max(minSamples, 1);
+    }
+
+    // ========== StepExecutionListener ==========
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        currentStep.set(new StepTiming(stepExecution.getStepName(), windowSize));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        StepTiming timing = currentStep.get();
+        currentStep.remove();
+        if (timing != null && timing.window.size() > 0) {
+            stepExecution.getExecutionContext().putDouble(CHUNK_P50_MS_KEY, toMillis(timing.window.percentile(50)));
+            stepExecution.getExecutionContext().putDouble(CHUNK_P99_MS_KEY, toMillis(timing.window.percentile(99)));
+        }
+        if (timing != null && timing.window.size() > 0 && logger.isDebugEnabled()) {
+            logger.debug("Tempo por chunk [{}]: chunks={}, p50={} ms, p99={} ms, max={} ms, lentos={}",
+                    timing.stepName, timing.chunkCount,
+                    toMillis(timing.window.percentile(50)), toMillis(timing.window.percentile(99)),
+                    toMillis(timing.window.max()), timing.slowChunks);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    // ========== ChunkListener ==========
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepTiming timing = currentStep.get();
+        if (timing != null) {
+            timing.startChunk();
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepTiming timing = currentStep.get();
+        if (timing == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long total = now - timing.chunkStart;
+        long commit = timing.lastWriteEnd > 0 ? now - timing.lastWriteEnd : 0L;
+        timing.chunkCount++;
+
+        long threshold = currentThreshold(timing);
+        if (threshold > 0 && total > threshold) {
+            timing.slowChunks++;
+            logger.warn("Chunk lento [{}] #{}: total={} ms (limite={} ms, p50={} ms) | read={} ms, process={} ms, "
+                            + "write={} ms, commit={} ms | itens={}, ids {}..{}",
+                    timing.stepName, timing.chunkCount, toMillis(total), toMillis(threshold),
+                    toMillis(timing.window.percentile(50)),
+                    toMillis(timing.readNanos), toMillis(timing.processNanos),
+                    toMillis(timing.writeNanos), toMillis(commit),
+                    timing.itemCount, timing.firstId, timing.lastId);
+        }
+        // O chunk entra na janela depois da comparação: não influencia o próprio limite
+        timing.window.add(total);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        // Chunk com rollback: a próxima tentativa começa em beforeChunk
+    }
+
+    // ========== ItemReadListener ==========
+
+    @Override
+    public void beforeRead() {
+        StepTiming timing = currentStep.get();
+        if (timing != null) {
+            timing.phaseStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        StepTiming timing = currentStep.get();
+        if (timing != null) {
+            timing.readNanos += System.nanoTime() - timing.phaseStart;
+            timing.itemCount++;
+            if (item instanceof Identifiable identifiable) {
+                if (timing.firstId == null) {
+                    timing.firstId = identifiable.getId();
+                }
+                timing.lastId = identifiable.getId();
+            }
+        }
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        StepTiming timing = currentStep.get();
+        if (timing != null) {
+            timing.readNanos += System.nanoTime() - timing.phaseStart;
+        }
+    }
+
+    // ========== ItemProcessListener ==========
+
+    @Override
+    public void beforeProcess(Object item) {
+        StepTiming timing = currentStep.get();
+        if (timing != null) {
+            timing.phaseStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+        StepTiming timing = currentStep.get();
+        if (timing != null) {
+            timing.processNanos += System.nanoTime() - timing.phaseStart;
+        }
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+        afterProcess(item, null);
+    }
+
+    // ========== ItemWriteListener ==========
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        StepTiming timing = currentStep.get();
+        if (timing != null) {
+            timing.phaseStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        StepTiming timing = currentStep.get();
+        if (timing != null) {
+            timing.lastWriteEnd = System.nanoTime();
+            timing.writeNanos += timing.lastWriteEnd - timing.phaseStart;
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<?> items) {
+        StepTiming timing = currentStep.get();
+        if (timing != null) {
+            timing.writeNanos += System.nanoTime() - timing.phaseStart;
+        }
+    }
+
+    /**
+     * Limite fixo (se configurado) ou p99 da janela × multiplicador; 0 enquanto não há
+     * amostras suficientes
+     */
+    private long currentThreshold(StepTiming timing) {
+        if (slowThresholdNanos > 0) {
+            return slowThresholdNanos;
+        }
+        if (timing.window.size() < minSamples) {
+            return 0L;
+        }
+        // p99 recalculado a cada ~10% da janela (evita ordenar a janela a cada chunk)
+        if (timing.chunksSinceThreshold == 0 || timing.chunksSinceThreshold >= Math.max(windowSize / 10, 1)) {
+            timing.cachedThreshold = (long) (timing.window.percentile(99) * p99Multiplier);
+            timing.chunksSinceThreshold = 0;
+        }
+        timing.chunksSinceThreshold++;
+        return timing.cachedThreshold;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    /**
+     * Estado do step corrente: tempos do chunk em andamento + janela de durações
+     */
+    private static class StepTiming {
+        private final String stepName;
+        private final RollingWindow window;
+
+        private long chunkCount;
+        private long slowChunks;
+        private long cachedThreshold;
+        private int chunksSinceThreshold;
+
+        private long chunkStart;
+        private long phaseStart;
+        private long lastWriteEnd;
+        private long readNanos;
+        private long processNanos;
+        private long writeNanos;
+        private int itemCount;
+        private Long firstId;
+        private Long lastId;
+
+        StepTiming(String stepName, int windowSize) {
+            this.stepName = stepName;
+            this.window = new RollingWindow(windowSize);
+        }
+
+        void startChunk() {
+            chunkStart = System.nanoTime();
+            lastWriteEnd = 0L;
+            readNanos = 0L;
+            processNanos = 0L;
+            writeNanos = 0L;
+            itemCount = 0;
+            firstId = null;
+            lastId = null;
+        }
+    }
+
+    /**
+     * Janela circular com as últimas N durações de chunk
+     *
+     * PERCENTIS:
+     * - Calculados sob demanda ordenando uma cópia da janela
+     * - A ordenação é refeita apenas quando a janela muda desde o último cálculo
+     */
+    private static class RollingWindow {
+        private final long[] values;
+        private int next;
+        private int size;
+
+        private long[] sorted;
+        private boolean dirty = true;
+
+        RollingWindow(int capacity) {
+            this.values = new long[capacity];
+        }
+
+        void add(long value) {
+            values[next] = value;
+            next = (next + 1) % values.length;
+            if (size < values.length) {
+                size++;
+            }
+            dirty = true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long percentile(int percentile) {
+            if (size == 0) {
+                return 0L;
+            }
+            long[] ordered = sorted();
+            int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            return ordered[Math.max(0, Math.min(index, size - 1))];
+        }
+
+        long max() {
+            return size == 0 ? 0L : sorted()[size - 1];
+        }
+
+        private long[] sorted() {
+            if (dirty) {
+                sorted = Arrays.copyOf(values, size);
+                Arrays.sort(sorted);
+                dirty = false;
+            }
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.template.batch.listener;
+
+import com.template.batch.jfr.BatchChunkCommitEvent;
+import com.template.batch.jfr.BatchJobEvent;
+import com.template.batch.jfr.BatchReaderFetchEvent;
+import com.template.batch.jfr.BatchStepEvent;
+import com.template.batch.jfr.BatchWriterFlushEvent;
+import jdk.jfr.EventType;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emite eventos JFR (Java Flight Recorder) com o contexto do batch
+ *
+ * EVENTOS (categoria "Spring Batch", ver pacote jfr):
+ * - com.template.batch.Job: beforeJob → afterJob
+ * - com.template.batch.Step: beforeStep → afterStep (contadores do step)
+ * - com.template.batch.ReaderFetch: leitura dos itens de cada chunk
+ * - com.template.batch.WriterFlush: envio do chunk pelo writer
+ * - com.template.batch.ChunkCommit: commit do chunk (fim do write → fim do chunk)
+ * - com.template.batch.MergeLookup: emitido por MergedRecordItemReader
+ *
+ * Todos trazem job, step e ids de execução: uma gravação JFR pode ser cruzada
+ * diretamente com BATCH_JOB_EXECUTION / BATCH_STEP_EXECUTION.
+ *
+ * OVERHEAD COM JFR DESLIGADO:
+ * - Eventos de chunk só são criados quando o tipo está habilitado (EventType.isEnabled()
+ *   consultado antes do new, como o MergeLookup)
+ * - Caminho por item (afterRead) não cria objetos
+ * - Sem gravação ativa o JIT elimina begin()/commit()
+ *
+ * COMO GRAVAR:
+ *   java -XX:StartFlightRecording=filename=batch.jfr,settings=profile -jar ...
+ *   jfr print --categories "Spring Batch" batch.jfr
+ */
+@Component
+public class JfrEventListener implements JobExecutionListener, StepExecutionListener, ChunkListener,
+        ItemReadListener<Object>, ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+    // Consultados a cada chunk: sem gravação JFR com o evento habilitado, nada é alocado
+    private static final EventType READER_FETCH_EVENT_TYPE = EventType.getEventType(BatchReaderFetchEvent.class);
+    private static final EventType WRITER_FLUSH_EVENT_TYPE = EventType.getEventType(BatchWriterFlushEvent.class);
+    private static final EventType CHUNK_COMMIT_EVENT_TYPE = EventType.getEventType(BatchChunkCommitEvent.class);
+
+    private final Map<Long, BatchJobEvent> jobEvents = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<StepEvents> currentStep = new ThreadLocal<>();
+
+    // ========== JobExecutionListener ==========
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        BatchJobEvent event = new BatchJobEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            jobEvents.put(jobExecution.getId(), event);
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        BatchJobEvent event = jobEvents.remove(jobExecution.getId());
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.jobName = jobExecution.getJobInstance().getJobName();
+            event.jobExecutionId = jobExecution.getId();
+            event.status = jobExecution.getStatus().name();
+            for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+                event.readCount += stepExecution.getReadCount();
+                event.writeCount += stepExecution.getWriteCount();
+            }
+            event.commit();
+        }
+    }
+
+    // ========== StepExecutionListener ==========
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        StepEvents events = new StepEvents(stepExecution);
+        events.stepEvent.begin();
+        currentStep.set(events);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        StepEvents events = currentStep.get();
+        currentStep.remove();
+        if (events != null) {
+            BatchStepEvent event = events.stepEvent;
+            event.end();
+            if (event.shouldCommit()) {
+                event.jobName = events.jobName;
+                event.stepName = events.stepName;
+                event.jobExecutionId = stepExecution.getJobExecutionId();
+                event.stepExecutionId = events.stepExecutionId;
+                event.status = stepExecution.getStatus().name();
+                event.readCount = stepExecution.getReadCount();
+                event.writeCount = stepExecution.getWriteCount();
+                event.skipCount = stepExecution.getSkipCount();
+                event.commitCount = stepExecution.getCommitCount();
+                event.rollbackCount = stepExecution.getRollbackCount();
+                event.commit();
+            }
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    // ========== ChunkListener ==========
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepEvents events = currentStep.get();
+        if (events != null) {
+            events.chunkNumber++;
+            events.readItems = 0;
+            events.readEvent = READER_FETCH_EVENT_TYPE.isEnabled() ? new BatchReaderFetchEvent() : null;
+            events.writeEvent = null;
+            events.commitEvent = null;
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepEvents events = currentStep.get();
+        if (events == null) {
+            return;
+        }
+        finishRead(events);
+        BatchChunkCommitEvent event = events.commitEvent;
+        if (event != null) {
+            events.commitEvent = null;
+            event.end();
+            if (event.shouldCommit()) {
+                events.fill(event);
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        StepEvents events = currentStep.get();
+        if (events != null) {
+            // Chunk com rollback: eventos em andamento são descartados
+            events.readEvent = null;
+            events.writeEvent = null;
+            events.commitEvent = null;
+        }
+    }
+
+    // ========== ItemReadListener ==========
+
+    @Override
+    public void beforeRead() {
+        StepEvents events = currentStep.get();
+        if (events != null && events.readEvent != null && events.readItems == 0) {
+            events.readEvent.begin();
+        }
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        StepEvents events = currentStep.get();
+        if (events != null) {
+            events.readItems++;
+        }
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+    }
+
+    // ========== ItemProcessListener ==========
+
+    @Override
+    public void beforeProcess(Object item) {
+        // Leitura do chunk termina antes do primeiro item processado
+        StepEvents events = currentStep.get();
+        if (events != null) {
+            finishRead(events);
+        }
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+    }
+
+    // ========== ItemWriteListener ==========
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        StepEvents events = currentStep.get();
+        if (events == null) {
+            return;
+        }
+        finishRead(events);
+        if (WRITER_FLUSH_EVENT_TYPE.isEnabled()) {
+            BatchWriterFlushEvent event = new BatchWriterFlushEvent();
+            event.begin();
+            events.writeEvent = event;
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        StepEvents events = currentStep.get();
+        if (events == null) {
+            return;
+        }
+        BatchWriterFlushEvent event = events.writeEvent;
+        if (event != null) {
+            events.writeEvent = null;
+            event.end();
+            if (event.shouldCommit()) {
+                events.fill(event);
+                event.itemCount = items.size();
+                event.commit();
+            }
+        }
+        if (CHUNK_COMMIT_EVENT_TYPE.isEnabled()) {
+            BatchChunkCommitEvent commitEvent = new BatchChunkCommitEvent();
+            commitEvent.itemCount = items.size();
+            commitEvent.begin();
+            events.commitEvent = commitEvent;
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<?> items) {
+    }
+
+    private void finishRead(StepEvents events) {
+        BatchReaderFetchEvent event = events.readEvent;
+        if (event == null) {
+            return;
+        }
+        events.readEvent = null;
+        if (events.readItems == 0) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            events.fill(event);
+            event.itemCount = events.readItems;
+            event.commit();
+        }
+    }
+
+    /**
+     * Eventos em andamento do step corrente (um step / partição por thread)
+     */
+    private static class StepEvents {
+        private final String jobName;
+        private final String stepName;
+        private final long stepExecutionId;
+        private final BatchStepEvent stepEvent = new BatchStepEvent();
+
+        private long chunkNumber;
+        private int readItems;
+        private BatchReaderFetchEvent readEvent;
+        private BatchWriterFlushEvent writeEvent;
+        private BatchChunkCommitEvent commitEvent;
+
+        StepEvents(StepExecution stepExecution) {
+            this.jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
+            this.stepName = stepExecution.getStepName();
+            this.stepExecutionId = stepExecution.getId();
+        }
+
+        void fill(BatchReaderFetchEvent event) {
+            event.jobName = jobName;
+            event.stepName = stepName;
+            event.stepExecutionId = stepExecutionId;
+            event.chunkNumber = chunkNumber;
+        }
+
+        void fill(BatchWriterFlushEvent event) {
+            event.jobName = jobName;
+            event.stepName = stepName;
+            event.stepExecutionId = stepExecutionId;
+            event.chunkNumber = chunkNumber;
+        }
+
+        void fill(BatchChunkCommitEvent event) {
+            event.jobName = jobName;
+            event.stepName = stepName;
+            event.stepExecutionId = stepExecutionId;
+            event.chunkNumber = chunkNumber;
+        }
+    }
+}
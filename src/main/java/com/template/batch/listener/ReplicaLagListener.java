@@ -0,0 +1,127 @@
+package com.template.batch.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Atraso da réplica de leitura antes de cada step ler dela (batch.datasource.replica.url)
+ *
+ * POR QUE?
+ * - Readers e lookups leem da réplica, mas steps anteriores do mesmo job escrevem no
+ *   primário (staging_table_a/b, staging_change_log): o merge precisa enxergar essas linhas
+ *
+ * QUANDO:
+ * - beforeStep: roda antes do open dos readers, o cursor só abre com a réplica em dia
+ * - awaitReplay nos readers com janela (high do incremental, cutoff do staging_change_log):
+ *   o limite é calculado no primário DEPOIS do beforeStep; uma linha commitada entre o LSN
+ *   do beforeStep e o limite ficaria dentro da janela sem ter chegado à réplica. Por isso o
+ *   reader calcula o limite primeiro e espera de novo por um LSN capturado depois dele
+ *
+ * VERIFICAÇÃO:
+ * - LSN corrente do primário (pg_current_wal_lsn) no momento da chamada
+ * - Espera a réplica aplicar até esse LSN (pg_last_wal_replay_lsn), consultando a cada 200 ms
+ * - Passou de batch.datasource.replica.max-lag-seconds: o step falha sem ler nada
+ *   (restart do job tenta de novo)
+ *
+ * RÉPLICA QUE NÃO É STANDBY (pg_is_in_recovery = false):
+ * - Não há LSN para comparar e as escritas do primário nunca chegam a ela: o step falha
+ * - batch.datasource.replica.allow-non-standby=true aceita (substituto local em testes,
+ *   segundo banco no mesmo servidor) com um aviso; jobs que leem staging não funcionam
+ */
+@Component
+public class ReplicaLagListener implements StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagListener.class);
+
+    private static final long POLL_INTERVAL_MILLIS = 200;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final boolean enabled;
+    private final long maxLagSeconds;
+    private final boolean allowNonStandby;
+
+    private final AtomicBoolean standInWarned = new AtomicBoolean();
+
+    public ReplicaLagListener(
+            DataSource dataSource,
+            @Qualifier("lookupDataSource") DataSource replicaDataSource,
+            @Value("${batch.datasource.replica.url:}") String replicaUrl,
+            @Value("${batch.datasource.replica.max-lag-seconds:30}") long maxLagSeconds,
+            @Value("${batch.datasource.replica.allow-non-standby:false}") boolean allowNonStandby) {
+        this.primary = new JdbcTemplate(dataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.enabled = replicaUrl != null && !replicaUrl.isBlank();
+        this.maxLagSeconds = maxLagSeconds;
+        this.allowNonStandby = allowNonStandby;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        awaitReplay(stepExecution.getStepName());
+    }
+
+    /**
+     * Espera a réplica aplicar o WAL do primário até o LSN corrente (sem réplica configurada: nada)
+     *
+     * @throws IllegalStateException réplica não é standby, atraso acima de max-lag-seconds ou interrupção
+     */
+    public void awaitReplay(String stepName) {
+        if (!enabled) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(replica.queryForObject("SELECT pg_is_in_recovery()", Boolean.class))) {
+            if (!allowNonStandby) {
+                throw new IllegalStateException("Réplica de leitura não é standby (pg_is_in_recovery = false): step "
+                        + stepName + " não iniciado, linhas escritas no primário não chegariam a ela "
+                        + "(batch.datasource.replica.allow-non-standby=true aceita um substituto local)");
+            }
+            if (standInWarned.compareAndSet(false, true)) {
+                logger.warn("Réplica de leitura não é standby (pg_is_in_recovery = false), aceita por "
+                        + "batch.datasource.replica.allow-non-standby: atraso não verificado e linhas escritas "
+                        + "pelos jobs no primário (staging) não chegam a ela");
+            }
+            return;
+        }
+
+        String primaryLsn = primary.queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+        long start = System.nanoTime();
+        long bytesBehind;
+        while ((bytesBehind = bytesBehind(primaryLsn)) > 0) {
+            long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (waitedMillis >= maxLagSeconds * 1000) {
+                throw new IllegalStateException(String.format(
+                        "Réplica de leitura %d bytes atrás do primário (LSN %s) após %d ms: step %s não iniciado "
+                                + "(batch.datasource.replica.max-lag-seconds=%d)",
+                        bytesBehind, primaryLsn, waitedMillis, stepName, maxLagSeconds));
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido aguardando a réplica de leitura", e);
+            }
+        }
+        logger.info("Réplica de leitura em dia para o step {} (LSN {}, espera {} ms)",
+                stepName, primaryLsn, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Bytes de WAL do primário ainda não aplicados na réplica (replay ainda não iniciado = atrasada)
+     */
+    private long bytesBehind(String primaryLsn) {
+        Long bytes = replica.queryForObject(
+                "SELECT COALESCE(pg_wal_lsn_diff(?::pg_lsn, pg_last_wal_replay_lsn()), 1)::bigint",
+                Long.class, primaryLsn);
+        return bytes != null ? bytes : 1L;
+    }
+}
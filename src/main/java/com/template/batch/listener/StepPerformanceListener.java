@@ -0,0 +1,96 @@
+package com.template.batch.listener;
+
+import com.template.batch.repository.StepPerformanceRepository;
+import com.template.batch.repository.StepPerformanceRepository.StepPerformance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Grava o perfil de performance de cada step em batch_step_performance ao fim do job
+ * 
+ * ORIGEM DOS DADOS (ExecutionContext de cada step, preenchido nos afterStep):
+ * - Throughput: itens lidos / duração do step
+ * - p50/p99 de chunk: ChunkTimingListener
+ * - Tempo de banco, GC e pico de heap: BatchExecutionListener
+ * 
+ * POR QUE NO afterJob?
+ * - Todos os afterStep já rodaram e os steps têm endTime definido
+ * - Inclui os steps das partições (workers), que pertencem ao mesmo JobExecution
+ * 
+ * MODO memory (batch.repository.mode=memory):
+ * - Nada é gravado: os ids de step/job vêm do H2 da JVM e recomeçam em 1 a cada subida;
+ *   no PostgreSQL colidiriam com execuções anteriores (ON CONFLICT DO NOTHING descartaria
+ *   a linha nova) ou entrariam no baseline com ids que não identificam a execução
+ *
+ * Falha ao gravar o histórico é apenas logada: não altera o status do job.
+ */
+@Component
+public class StepPerformanceListener implements JobExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepPerformanceListener.class);
+
+    private final StepPerformanceRepository stepPerformanceRepository;
+    private final boolean enabled;
+
+    public StepPerformanceListener(
+            StepPerformanceRepository stepPerformanceRepository,
+            @Value("${batch.repository.mode:jdbc}") String repositoryMode) {
+        this.stepPerformanceRepository = stepPerformanceRepository;
+        this.enabled = !"memory".equals(repositoryMode.trim().toLowerCase());
+        if (!enabled) {
+            logger.info("Histórico de performance desligado (batch.repository.mode=memory: ids de execução do H2 não são únicos entre JVMs)");
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (!enabled) {
+            return;
+        }
+        String jobName = jobExecution.getJobInstance().getJobName();
+        try {
+            for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+                if (stepExecution.getStartTime() != null) {
+                    stepPerformanceRepository.save(toPerformance(jobName, stepExecution));
+                }
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Histórico de performance de {} não gravado: {}", jobName, e.getMessage());
+        }
+    }
+
+    private StepPerformance toPerformance(String jobName, StepExecution stepExecution) {
+        LocalDateTime start = stepExecution.getStartTime();
+        LocalDateTime end = stepExecution.getEndTime() != null ? stepExecution.getEndTime() : LocalDateTime.now();
+        long durationMs = Duration.between(start, end).toMillis();
+        double itemsPerSecond = durationMs > 0 ? stepExecution.getReadCount() * 1000.0 / durationMs : 0.0;
+        ExecutionContext context = stepExecution.getExecutionContext();
+
+        return new StepPerformance(
+                stepExecution.getId(),
+                stepExecution.getJobExecutionId(),
+                jobName,
+                stepExecution.getStepName(),
+                stepExecution.getStatus().name(),
+                start,
+                durationMs,
+                stepExecution.getReadCount(),
+                stepExecution.getWriteCount(),
+                itemsPerSecond,
+                context.containsKey(ChunkTimingListener.CHUNK_P50_MS_KEY) ? context.getDouble(ChunkTimingListener.CHUNK_P50_MS_KEY) : null,
+                context.containsKey(ChunkTimingListener.CHUNK_P99_MS_KEY) ? context.getDouble(ChunkTimingListener.CHUNK_P99_MS_KEY) : null,
+                context.containsKey(BatchExecutionListener.DB_TIME_MS_KEY) ? context.getLong(BatchExecutionListener.DB_TIME_MS_KEY) : null,
+                context.containsKey(BatchExecutionListener.GC_TIME_MS_KEY) ? context.getLong(BatchExecutionListener.GC_TIME_MS_KEY) : null,
+                context.containsKey(BatchExecutionListener.PEAK_HEAP_BYTES_KEY) ? context.getLong(BatchExecutionListener.PEAK_HEAP_BYTES_KEY) : null);
+    }
+}
@@ -0,0 +1,197 @@
+package com.template.batch.listener;
+
+import com.template.batch.config.MergedRecordReaderConfig;
+import com.template.batch.config.ReaderConfig;
+import com.template.batch.partition.IdRangePartitioner;
+import com.template.batch.progress.BatchProgressRegistry;
+import com.template.batch.progress.StepProgress;
+import com.template.batch.repository.RowCountEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progresso e ETA de steps longos
+ *
+ * ESTIMATIVA DO TOTAL (uma vez, no primeiro chunk, com os readers já abertos):
+ * - Partição (minId/maxId no contexto): count(*) da faixa de id
+ * - Leitura incremental (watermark no contexto): count(*) da janela de updated_at
+ *   (primeira execução, sem low: reltuples)
+ * - Merge incremental (corte do staging_change_log): count(*) do log até o corte
+ * - Demais casos: pg_class.reltuples da tabela que dirige o step
+ *   (joinDirectStep/unionStep: maior das duas origens, um limite aproximado)
+ * - Tabela nunca analisada (reltuples = -1): total desconhecido, sem count(*) da tabela
+ *
+ * DURANTE A EXECUÇÃO:
+ * - A cada chunk: itens processados = readCount do step (sem consultas ao banco)
+ * - A cada batch.progress.log-interval-seconds: linha de log com %, itens/s e ETA
+ * - Gauges Micrometer e MBean JMX (BatchProgressRegistry) leem o progresso ao vivo
+ *
+ * Estado por step em ThreadLocal (um step / partição por thread).
+ */
+@Component
+public class StepProgressListener implements StepExecutionListener, ChunkListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepProgressListener.class);
+
+    // Tabela(s) que dirigem cada step (nome base, sem o sufixo ":partitionN")
+    private static final Map<String, List<String>> STEP_SOURCE_TABLES = Map.of(
+            "stepJobA", List.of("source_table_a"),
+            "stepJobB", List.of("source_table_b"),
+            "loadStagingAStep", List.of("source_table_a"),
+            "loadStagingBStep", List.of("source_table_b"),
+            "joinDirectStep", List.of("source_table_a", "source_table_b"),
+            "unionStep", List.of("source_table_a", "source_table_b"),
+            "mergeFinalStep", List.of("staging_table_a"));
+
+    private final RowCountEstimator rowCountEstimator;
+    private final BatchProgressRegistry progressRegistry;
+    private final long logIntervalNanos;
+
+    private final ThreadLocal<TrackedStep> currentStep = new ThreadLocal<>();
+
+    public StepProgressListener(
+            RowCountEstimator rowCountEstimator,
+            BatchProgressRegistry progressRegistry,
+            @Value("${batch.progress.log-interval-seconds:30}") long logIntervalSeconds) {
+        this.rowCountEstimator = rowCountEstimator;
+        this.progressRegistry = progressRegistry;
+        this.logIntervalNanos = TimeUnit.SECONDS.toNanos(logIntervalSeconds);
+    }
+
+    // ========== StepExecutionListener ==========
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        StepProgress progress = new StepProgress(
+                stepExecution.getJobExecution().getJobInstance().getJobName(),
+                stepExecution.getStepName(),
+                stepExecution.getId());
+        progressRegistry.register(progress);
+        currentStep.set(new TrackedStep(progress));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        TrackedStep tracked = currentStep.get();
+        currentStep.remove();
+        if (tracked != null) {
+            progressRegistry.unregister(tracked.progress);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    // ========== ChunkListener ==========
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        TrackedStep tracked = currentStep.get();
+        if (tracked != null && !tracked.estimated) {
+            tracked.estimated = true;
+            StepExecution stepExecution = context.getStepContext().getStepExecution();
+            try {
+                // RowCountEstimator usa o lookupDataSource: fora da transação do chunk
+                tracked.progress.setEstimatedTotal(estimateTotal(stepExecution));
+            } catch (DataAccessException e) {
+                // Progresso é informativo: falha na estimativa não pode derrubar o step
+                logger.warn("Não foi possível estimar o total de {}: {}", stepExecution.getStepName(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        TrackedStep tracked = currentStep.get();
+        if (tracked == null) {
+            return;
+        }
+        StepProgress progress = tracked.progress;
+        progress.setProcessed(context.getStepContext().getStepExecution().getReadCount());
+
+        long now = System.nanoTime();
+        if (logIntervalNanos > 0 && now - tracked.lastLogNanos >= logIntervalNanos) {
+            tracked.lastLogNanos = now;
+            progress.sample();
+            logProgress(progress);
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+    }
+
+    private void logProgress(StepProgress progress) {
+        double eta = progress.getEtaSeconds();
+        if (progress.getEstimatedTotal() > 0) {
+            logger.info("Progresso [{}]: {}/~{} ({}%), {} itens/s, ETA {}",
+                    progress.getStepName(), progress.getProcessed(), progress.getEstimatedTotal(),
+                    String.format("%.1f", progress.getPercentComplete()),
+                    Math.round(progress.getThroughput()),
+                    eta < 0 ? "?" : formatDuration(Math.round(eta)));
+        } else {
+            logger.info("Progresso [{}]: {} itens, {} itens/s (total desconhecido)",
+                    progress.getStepName(), progress.getProcessed(), Math.round(progress.getThroughput()));
+        }
+    }
+
+    /**
+     * @return total estimado de itens do step ou -1 se não há como estimar
+     */
+    private long estimateTotal(StepExecution stepExecution) {
+        String stepName = stepExecution.getStepName();
+        int separator = stepName.indexOf(':');
+        List<String> tables = STEP_SOURCE_TABLES.get(separator > 0 ? stepName.substring(0, separator) : stepName);
+        if (tables == null) {
+            return -1L;
+        }
+        ExecutionContext context = stepExecution.getExecutionContext();
+        String table = tables.get(0);
+        if (context.containsKey(IdRangePartitioner.MIN_ID_KEY)) {
+            return rowCountEstimator.countIdRange(table,
+                    context.getLong(IdRangePartitioner.MIN_ID_KEY), context.getLong(IdRangePartitioner.MAX_ID_KEY));
+        }
+        if (context.containsKey(ReaderConfig.WATERMARK_HIGH_KEY)) {
+            LocalDateTime low = context.containsKey(ReaderConfig.WATERMARK_LOW_KEY)
+                    ? LocalDateTime.parse(context.getString(ReaderConfig.WATERMARK_LOW_KEY))
+                    : null;
+            return rowCountEstimator.countUpdatedBetween(table, low,
+                    LocalDateTime.parse(context.getString(ReaderConfig.WATERMARK_HIGH_KEY)));
+        }
+        if (context.containsKey(MergedRecordReaderConfig.CHANGE_LOG_CUTOFF_KEY)) {
+            return rowCountEstimator.countChangeLog(
+                    LocalDateTime.parse(context.getString(MergedRecordReaderConfig.CHANGE_LOG_CUTOFF_KEY)));
+        }
+        long total = -1L;
+        for (String sourceTable : tables) {
+            total = Math.max(total, rowCountEstimator.estimateTableRows(sourceTable));
+        }
+        return total;
+    }
+
+    private static String formatDuration(long seconds) {
+        return String.format("%02d:%02d:%02d", seconds / 3600, (seconds % 3600) / 60, seconds % 60);
+    }
+
+    private static class TrackedStep {
+        private final StepProgress progress;
+        private boolean estimated;
+        private long lastLogNanos = System.nanoTime();
+
+        TrackedStep(StepProgress progress) {
+            this.progress = progress;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.template.batch.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Partitioner que divide uma tabela em faixas contíguas de id
+ * 
+ * POR QUE FAIXAS DE ID?
+ * 
+ * 1. SEM SOBREPOSIÇÃO ENTRE THREADS
+ *    - Cada partição (thread) lê e escreve apenas ids da sua faixa
+ *    - Duas threads nunca disputam o mesmo row lock na target_table
+ *    - Elimina deadlocks entre partições do mesmo job
+ * 
+ * 2. LOCALIDADE
+ *    - Faixas contíguas mantêm cada thread em uma região do índice da PK
+ *    - Hash de id também separaria as threads, mas espalharia cada chunk pelo índice
+ * 
+ * 3. CUSTO DE PLANEJAMENTO
+ *    - Apenas um SELECT MIN(id), MAX(id) (resolvido pelo índice da PK)
+ * 
+ * CONTEXTO DE CADA PARTIÇÃO:
+ * - minId / maxId: limites inclusivos lidos pelo reader (#{stepExecutionContext})
+ * 
+ * NOTA: ids com lacunas geram partições de tamanhos diferentes; o objetivo aqui
+ * é isolar os locks, não balancear perfeitamente a carga.
+ */
+public class IdRangePartitioner implements Partitioner {
+
+    public static final String MIN_ID_KEY = "minId";
+    public static final String MAX_ID_KEY = "maxId";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String tableName;
+
+    public IdRangePartitioner(DataSource dataSource, String tableName) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.tableName = tableName;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, Long> bounds = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM " + tableName,
+                (rs, rowNum) -> {
+                    Map<String, Long> result = new HashMap<>();
+                    result.put(MIN_ID_KEY, rs.getObject("min_id") != null ? rs.getLong("min_id") : null);
+                    result.put(MAX_ID_KEY, rs.getObject("max_id") != null ? rs.getLong("max_id") : null);
+                    return result;
+                });
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        Long min = bounds.get(MIN_ID_KEY);
+        Long max = bounds.get(MAX_ID_KEY);
+        if (min == null || max == null) {
+            // Tabela vazia: uma partição com faixa vazia
+            partitions.put("partition0", rangeContext(1L, 0L));
+            return partitions;
+        }
+
+        long targetSize = (max - min) / gridSize + 1;
+        long start = min;
+        int number = 0;
+        while (start <= max) {
+            long end = Math.min(start + targetSize - 1, max);
+            partitions.put("partition" + number, rangeContext(start, end));
+            start = end + 1;
+            number++;
+        }
+        return partitions;
+    }
+
+    private ExecutionContext rangeContext(long minId, long maxId) {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(MIN_ID_KEY, minId);
+        context.putLong(MAX_ID_KEY, maxId);
+        return context;
+    }
+}
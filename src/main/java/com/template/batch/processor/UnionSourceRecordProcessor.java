@@ -0,0 +1,76 @@
+package com.template.batch.processor;
+
+import com.template.batch.domain.MergedRecord;
+import com.template.batch.domain.TargetRecord;
+import com.template.batch.util.DateParameterUtil;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Processor do unionJob: decide, em memória, qual origem vence para cada id
+ * 
+ * POR QUE RESOLVER AQUI E NÃO NO BANCO?
+ * 
+ * 1. EQUIVALÊNCIA COM jobA + jobB
+ *    - Executar jobA e depois jobB faz a origem B sobrescrever A nos ids comuns
+ *    - Este processor reproduz esse resultado com UMA escrita por id
+ *    - Origem preferida configurável (batch.union.preferred-source, padrão B)
+ * 
+ * 2. REGRA DE NEGÓCIO ISOLADA
+ *    - Reader apenas une as origens (FULL OUTER JOIN ordenado por id)
+ *    - A escolha da origem é regra de negócio, e regra de negócio fica no Processor
+ * 
+ * DIFERENÇA DO MergedRecordProcessor:
+ * - MergedRecordProcessor: SOMA valueA + valueB (merge via staging)
+ * - UnionSourceRecordProcessor: escolhe UMA origem (mesmo resultado de jobA + jobB)
+ * 
+ * REGRAS:
+ * - Id só em A: usa nome/valor de A
+ * - Id só em B: usa nome/valor de B
+ * - Id em ambas: usa a origem preferida
+ */
+@Component
+@StepScope
+public class UnionSourceRecordProcessor implements ItemProcessor<MergedRecord, TargetRecord> {
+
+    private JobParameters jobParameters;
+
+    @Value("${batch.union.preferred-source:B}")
+    private String preferredSource;
+
+    /**
+     * Injeção via setter para evitar problemas de conversão do Spring
+     * StepExecution é automaticamente disponibilizado no contexto do step
+     */
+    @Value("#{stepExecution}")
+    public void setStepExecution(StepExecution stepExecution) {
+        if (stepExecution != null) {
+            this.jobParameters = stepExecution.getJobParameters();
+        }
+    }
+
+    @Override
+    public TargetRecord process(MergedRecord merged) throws Exception {
+        // Colunas nome são NOT NULL nas origens: nome null = id ausente naquela origem
+        boolean presentInA = merged.getNameA() != null;
+        boolean presentInB = merged.getNameB() != null;
+        boolean useB = presentInB && (!presentInA || "B".equalsIgnoreCase(preferredSource));
+
+        TargetRecord target = new TargetRecord();
+        target.setId(merged.getId());
+        target.setNome(useB ? merged.getNameB() : merged.getNameA());
+        target.setValor(useB ? merged.getValueB() : merged.getValueA());
+
+        // Mesmo critério de data dos demais processors (processDate ou LocalDateTime.now())
+        LocalDateTime processDate = DateParameterUtil.getProcessDateOrDefault(jobParameters);
+        target.setProcessadoEm(processDate);
+
+        return target;
+    }
+}
@@ -0,0 +1,22 @@
+package com.template.batch.progress;
+
+import java.util.List;
+
+/**
+ * Progresso dos steps em execução, consultável fora da JVM
+ *
+ * ObjectName: com.template.batch:type=BatchProgress
+ * (jconsole / VisualVM ou jmxterm em um jcmd ManagementAgent.start local)
+ */
+public interface BatchProgressMXBean {
+
+    /**
+     * Steps em execução com processados, total estimado, percentual, itens/s e ETA
+     */
+    List<StepProgressSnapshot> getRunningSteps();
+
+    /**
+     * Uma linha por step em execução (mesmo formato do log periódico)
+     */
+    List<String> getSummary();
+}
@@ -0,0 +1,111 @@
+package com.template.batch.progress;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro dos steps em execução e seus canais de publicação de progresso
+ *
+ * PUBLICAÇÃO:
+ * - Gauges Micrometer (tags job, step): batch.step.progress.percent,
+ *   batch.step.progress.items.per.second, batch.step.progress.eta.seconds
+ * - MBean JMX com.template.batch:type=BatchProgress (BatchProgressMXBean)
+ *
+ * Os gauges leem o StepProgress ao vivo e são removidos quando o step termina.
+ */
+@Component
+public class BatchProgressRegistry implements BatchProgressMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchProgressRegistry.class);
+
+    static final String OBJECT_NAME = "com.template.batch:type=BatchProgress";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Registration> running = new ConcurrentHashMap<>();
+
+    private ObjectName objectName;
+
+    public BatchProgressRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (JMException e) {
+            logger.warn("MBean de progresso não registrado: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            logger.debug("MBean de progresso já removido: {}", e.getMessage());
+        }
+    }
+
+    public void register(StepProgress progress) {
+        Tags tags = Tags.of("job", progress.getJobName(), "step", progress.getStepName());
+        List<Meter> meters = List.of(
+                Gauge.builder("batch.step.progress.percent", progress, StepProgress::getPercentComplete)
+                        .tags(tags).register(meterRegistry),
+                Gauge.builder("batch.step.progress.items.per.second", progress, StepProgress::getThroughput)
+                        .tags(tags).register(meterRegistry),
+                Gauge.builder("batch.step.progress.eta.seconds", progress, StepProgress::getEtaSeconds)
+                        .tags(tags).register(meterRegistry));
+        running.put(progress.getStepExecutionId(), new Registration(progress, meters));
+    }
+
+    public void unregister(StepProgress progress) {
+        Registration registration = running.remove(progress.getStepExecutionId());
+        if (registration != null) {
+            registration.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    @Override
+    public List<StepProgressSnapshot> getRunningSteps() {
+        List<StepProgressSnapshot> snapshots = new ArrayList<>();
+        for (Registration registration : running.values()) {
+            snapshots.add(StepProgressSnapshot.of(registration.progress));
+        }
+        snapshots.sort(Comparator.comparingLong(StepProgressSnapshot::getStepExecutionId));
+        return snapshots;
+    }
+
+    @Override
+    public List<String> getSummary() {
+        return getRunningSteps().stream().map(StepProgressSnapshot::toString).toList();
+    }
+
+    private record Registration(StepProgress progress, List<Meter> meters) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.template.batch.progress;
+
+/**
+ * Progresso de um step em execução
+ *
+ * - Atualizado pela thread do step a cada chunk (campos volatile)
+ * - Lido por outras threads: gauges Micrometer, MBean JMX e log periódico
+ * - throughput corrente = itens/s desde a amostra anterior (janela do log periódico)
+ */
+public class StepProgress {
+
+    private final String jobName;
+    private final String stepName;
+    private final long stepExecutionId;
+    private final long startNanos = System.nanoTime();
+
+    private volatile long estimatedTotal = -1L;
+    private volatile long processed;
+    private volatile double currentThroughput;
+
+    private long sampleNanos = startNanos;
+    private long sampleProcessed;
+
+    public StepProgress(String jobName, String stepName, long stepExecutionId) {
+        this.jobName = jobName;
+        this.stepName = stepName;
+        this.stepExecutionId = stepExecutionId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getStepName() {
+        return stepName;
+    }
+
+    public long getStepExecutionId() {
+        return stepExecutionId;
+    }
+
+    public long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    public void setEstimatedTotal(long estimatedTotal) {
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    /**
+     * Fecha a janela de throughput corrente (chamado pela thread do step)
+     */
+    public void sample() {
+        long now = System.nanoTime();
+        long elapsed = now - sampleNanos;
+        if (elapsed > 0) {
+            currentThroughput = (processed - sampleProcessed) * 1_000_000_000.0 / elapsed;
+        }
+        sampleNanos = now;
+        sampleProcessed = processed;
+    }
+
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1_000_000_000.0;
+    }
+
+    /**
+     * Itens/s: janela corrente quando disponível, senão média desde o início do step
+     */
+    public double getThroughput() {
+        double current = currentThroughput;
+        if (current > 0) {
+            return current;
+        }
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? processed / elapsed : 0.0;
+    }
+
+    /**
+     * Percentual concluído (0-100); limitado a 99.9 enquanto o step não termina,
+     * pois a estimativa inicial pode ser menor que o total real
+     */
+    public double getPercentComplete() {
+        long total = estimatedTotal;
+        if (total <= 0) {
+            return total == 0 ? 100.0 : -1.0;
+        }
+        return Math.min(99.9, processed * 100.0 / total);
+    }
+
+    /**
+     * Segundos restantes estimados (-1 se ainda não há estimativa ou throughput)
+     */
+    public double getEtaSeconds() {
+        long total = estimatedTotal;
+        double throughput = getThroughput();
+        if (total < 0 || throughput <= 0) {
+            return -1.0;
+        }
+        return Math.max(0L, total - processed) / throughput;
+    }
+}
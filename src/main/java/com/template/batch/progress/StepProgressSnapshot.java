@@ -0,0 +1,78 @@
+package com.template.batch.progress;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Visão imutável do progresso de um step (exposta via JMX como CompositeData)
+ */
+public class StepProgressSnapshot {
+
+    private final String jobName;
+    private final String stepName;
+    private final long stepExecutionId;
+    private final long processed;
+    private final long estimatedTotal;
+    private final double percentComplete;
+    private final double itemsPerSecond;
+    private final double etaSeconds;
+
+    @ConstructorProperties({"jobName", "stepName", "stepExecutionId", "processed", "estimatedTotal",
+            "percentComplete", "itemsPerSecond", "etaSeconds"})
+    public StepProgressSnapshot(String jobName, String stepName, long stepExecutionId, long processed,
+                                long estimatedTotal, double percentComplete, double itemsPerSecond,
+                                double etaSeconds) {
+        this.jobName = jobName;
+        this.stepName = stepName;
+        this.stepExecutionId = stepExecutionId;
+        this.processed = processed;
+        this.estimatedTotal = estimatedTotal;
+        this.percentComplete = percentComplete;
+        this.itemsPerSecond = itemsPerSecond;
+        this.etaSeconds = etaSeconds;
+    }
+
+    static StepProgressSnapshot of(StepProgress progress) {
+        return new StepProgressSnapshot(progress.getJobName(), progress.getStepName(),
+                progress.getStepExecutionId(), progress.getProcessed(), progress.getEstimatedTotal(),
+                progress.getPercentComplete(), progress.getThroughput(), progress.getEtaSeconds());
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getStepName() {
+        return stepName;
+    }
+
+    public long getStepExecutionId() {
+        return stepExecutionId;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    public double getPercentComplete() {
+        return percentComplete;
+    }
+
+    public double getItemsPerSecond() {
+        return itemsPerSecond;
+    }
+
+    public double getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s/%s: %d/%d (%.1f%%), %.0f itens/s, ETA %s",
+                jobName, stepName, processed, estimatedTotal, percentComplete, itemsPerSecond,
+                etaSeconds < 0 ? "?" : Math.round(etaSeconds) + "s");
+    }
+}
@@ -0,0 +1,121 @@
+package com.template.batch.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expurgo dos metadados do Spring Batch (tabelas BATCH_*) por JobInstance
+ *
+ * ELEGÍVEL:
+ * - Todas as execuções da instância criadas antes do corte (retenção)
+ * - Execução sem END_TIME só depois de um corte próprio, mais antigo: em andamento não é
+ *   removida; interrompida (JVM derrubada, nunca reiniciada nem abandonada) ficaria para
+ *   sempre nas tabelas
+ * - Opcional: preserva a última instância de cada job (RunIdIncrementer e detecção de
+ *   disparo perdido do agendador leem a última execução)
+ *
+ * CONCORRÊNCIA:
+ * - Instâncias selecionadas com FOR UPDATE SKIP LOCKED: a instância que outra transação
+ *   estiver usando (ex.: restart criando execução) fica para o próximo expurgo
+ * - Só remove linhas de execuções encerradas: jobs ativos não são afetados
+ *
+ * ORDEM (chaves estrangeiras): contextos dos steps, steps, contexto do job, parâmetros,
+ * execuções, instâncias
+ *
+ * Índices das FKs e tabelas _ARCHIVE: migração V3 (SchemaVersionManager), sem DDL aqui
+ */
+@Component
+public class BatchMetadataPurgeRepository {
+
+    // Tabelas na ordem de remoção (sem o prefixo)
+    public static final List<String> TABLES = List.of(
+            "STEP_EXECUTION_CONTEXT", "STEP_EXECUTION", "JOB_EXECUTION_CONTEXT",
+            "JOB_EXECUTION_PARAMS", "JOB_EXECUTION", "JOB_INSTANCE");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String prefix;
+
+    public BatchMetadataPurgeRepository(
+            DataSource dataSource,
+            @Value("${spring.batch.jdbc.table-prefix:BATCH_}") String prefix) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.prefix = prefix;
+    }
+
+    /**
+     * Corte da retenção calculado no relógio do banco (mesmo relógio de CREATE_TIME)
+     * (também usado para o corte das execuções sem END_TIME)
+     */
+    public LocalDateTime retentionCutoff(int retentionDays) {
+        return jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP - make_interval(days => ?)",
+                Timestamp.class, retentionDays).toLocalDateTime();
+    }
+
+    /**
+     * Próximo lote de instâncias elegíveis, travadas até o fim da transação corrente
+     *
+     * @param cutoff execuções criadas a partir deste instante mantêm a instância
+     * @param unfinishedCutoff execuções sem END_TIME criadas a partir deste instante mantêm a instância
+     */
+    public List<Long> lockPurgeableInstances(LocalDateTime cutoff, LocalDateTime unfinishedCutoff,
+                                             boolean keepLatestPerJob, int limit) {
+        String sql = "SELECT i.JOB_INSTANCE_ID FROM " + prefix + "JOB_INSTANCE i " +
+                "WHERE NOT EXISTS (SELECT 1 FROM " + prefix + "JOB_EXECUTION e " +
+                "WHERE e.JOB_INSTANCE_ID = i.JOB_INSTANCE_ID " +
+                "AND (e.CREATE_TIME >= ? OR (e.END_TIME IS NULL AND e.CREATE_TIME >= ?))) " +
+                (keepLatestPerJob
+                        ? "AND i.JOB_INSTANCE_ID < (SELECT MAX(l.JOB_INSTANCE_ID) FROM " + prefix + "JOB_INSTANCE l " +
+                          "WHERE l.JOB_NAME = i.JOB_NAME) "
+                        : "") +
+                "ORDER BY i.JOB_INSTANCE_ID LIMIT ? FOR UPDATE OF i SKIP LOCKED";
+        return jdbcTemplate.queryForList(sql, Long.class, Timestamp.valueOf(cutoff), Timestamp.valueOf(unfinishedCutoff), limit);
+    }
+
+    /**
+     * Remove (ou move para as tabelas _ARCHIVE) as instâncias e tudo que depende delas
+     *
+     * @return linhas por tabela, na ordem de TABLES
+     */
+    public Map<String, Integer> purge(List<Long> instanceIds, boolean archive) {
+        Long[] ids = instanceIds.toArray(new Long[0]);
+        String jobExecutions = "SELECT JOB_EXECUTION_ID FROM " + prefix + "JOB_EXECUTION WHERE JOB_INSTANCE_ID = ANY(?)";
+        Map<String, String> conditions = new LinkedHashMap<>();
+        conditions.put("STEP_EXECUTION_CONTEXT", "STEP_EXECUTION_ID IN (SELECT STEP_EXECUTION_ID FROM "
+                + prefix + "STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (" + jobExecutions + "))");
+        conditions.put("STEP_EXECUTION", "JOB_EXECUTION_ID IN (" + jobExecutions + ")");
+        conditions.put("JOB_EXECUTION_CONTEXT", "JOB_EXECUTION_ID IN (" + jobExecutions + ")");
+        conditions.put("JOB_EXECUTION_PARAMS", "JOB_EXECUTION_ID IN (" + jobExecutions + ")");
+        conditions.put("JOB_EXECUTION", "JOB_INSTANCE_ID = ANY(?)");
+        conditions.put("JOB_INSTANCE", "JOB_INSTANCE_ID = ANY(?)");
+
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Array array = connection.createArrayOf("bigint", ids);
+            for (Map.Entry<String, String> table : conditions.entrySet()) {
+                String delete = "DELETE FROM " + prefix + table.getKey() + " WHERE " + table.getValue();
+                String sql = archive
+                        ? "WITH moved AS (" + delete + " RETURNING *) INSERT INTO " + prefix + table.getKey()
+                          + "_ARCHIVE SELECT * FROM moved"
+                        : delete;
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setArray(1, array);
+                    rows.put(table.getKey(), statement.executeUpdate());
+                }
+            }
+            array.free();
+            return null;
+        });
+        return rows;
+    }
+}
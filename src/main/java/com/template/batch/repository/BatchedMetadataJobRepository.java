@@ -0,0 +1,236 @@
+package com.template.batch.repository;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JobRepository que grava os metadados do step a cada N chunks ou T segundos (batch.repository.mode=batched)
+ *
+ * POR QUE?
+ * - A cada chunk o TaskletStep faz, dentro da transação do chunk, um UPDATE em
+ *   BATCH_STEP_EXECUTION_CONTEXT (posição do reader) e outro em BATCH_STEP_EXECUTION
+ *   (contadores + versão), e relê o status do job para detectar stop
+ * - Com chunks pequenos esses statements são boa parte do trabalho de cada commit
+ *
+ * COMO FUNCIONA:
+ * - Chamadas feitas dentro da transação do chunk (step STARTED) são adiadas; a cada
+ *   flush-interval-chunks chunks ou flush-interval-seconds segundos o estado corrente
+ *   (contexto + contadores) é gravado de uma vez, na transação do chunk que fechou o intervalo
+ * - Início e fim do step (fora da transação do chunk) e as demais operações vão direto
+ *   ao repositório: o estado final de cada step é sempre gravado
+ *
+ * TRADE-OFF (granularidade do restart):
+ * - Queda da JVM (kill -9, OOM) perde até N-1 chunks de progresso registrado: o restart
+ *   retoma do último flush e reprocessa esses chunks (writers são UPSERT, então o
+ *   resultado é o mesmo); contadores de BATCH_STEP_EXECUTION da execução que caiu ficam defasados
+ * - Falha comum do step (exceção) não perde nada: o fim do step grava o último estado commitado
+ * - Stop (JobOperator.stop, modo servidor) é percebido no próximo flush, não no próximo chunk
+ *
+ * CONTADORES (ExecutionContext do step, resumo do BatchExecutionListener):
+ * - Gravações pedidas pelo TaskletStep nos chunks (contexto + step) e as efetivamente
+ *   enviadas nos flushes; não dependem do DataSource instrumentado
+ */
+public class BatchedMetadataJobRepository implements JobRepository {
+
+    // Gravações de metadados dos chunks (updateExecutionContext + update) pedidas e enviadas
+    public static final String REQUESTED_WRITES_KEY = "performance.metadataRequestedWrites";
+    public static final String FLUSHED_WRITES_KEY = "performance.metadataFlushedWrites";
+    public static final String FLUSH_COUNT_KEY = "performance.metadataFlushes";
+
+    private final JobRepository delegate;
+    private final int flushIntervalChunks;
+    private final long flushIntervalNanos;
+
+    // Steps em execução com gravações adiadas (id da StepExecution → estado)
+    private final Map<Long, PendingStep> pendingSteps = new ConcurrentHashMap<>();
+
+    public BatchedMetadataJobRepository(JobRepository delegate, int flushIntervalChunks, long flushIntervalSeconds) {
+        this.delegate = delegate;
+        this.flushIntervalChunks = Math.max(flushIntervalChunks, 1);
+        this.flushIntervalNanos = flushIntervalSeconds > 0 ? flushIntervalSeconds * 1_000_000_000L : Long.MAX_VALUE;
+    }
+
+    // ========== Gravações do step (adiáveis) ==========
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        if (isChunkUpdate(stepExecution)) {
+            // Gravado junto com o próximo flush (o contexto em memória é o do último chunk)
+            PendingStep pending = pendingStep(stepExecution);
+            pending.contextPending = true;
+            pending.requestedWrites++;
+            return;
+        }
+        PendingStep pending = pendingSteps.get(stepExecution.getId());
+        if (pending != null) {
+            pending.contextPending = false;
+        }
+        delegate.updateExecutionContext(stepExecution);
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        if (isChunkUpdate(stepExecution)) {
+            PendingStep pending = pendingStep(stepExecution);
+            pending.requestedWrites++;
+            long now = System.nanoTime();
+            if (++pending.chunks < flushIntervalChunks && now - pending.lastFlushNanos < flushIntervalNanos) {
+                pending.record(stepExecution);
+                return;
+            }
+            // Contadores entram no contexto antes de gravá-lo (o flush os persiste)
+            pending.flushedWrites += pending.contextPending ? 2 : 1;
+            pending.flushes++;
+            pending.record(stepExecution);
+            if (pending.contextPending) {
+                delegate.updateExecutionContext(stepExecution);
+            }
+            delegate.update(stepExecution);
+            pending.chunks = 0;
+            pending.contextPending = false;
+            pending.lastFlushNanos = now;
+            return;
+        }
+        // Fora do chunk (início/fim do step): grava o estado completo e encerra o adiamento
+        PendingStep pending = pendingSteps.remove(stepExecution.getId());
+        if (pending != null && pending.contextPending) {
+            delegate.updateExecutionContext(stepExecution);
+        }
+        delegate.update(stepExecution);
+    }
+
+    /**
+     * Chamada do TaskletStep após um chunk: step em execução e transação do chunk ativa
+     */
+    private boolean isChunkUpdate(StepExecution stepExecution) {
+        return stepExecution.getId() != null
+                && stepExecution.getStatus() == BatchStatus.STARTED
+                && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private PendingStep pendingStep(StepExecution stepExecution) {
+        return pendingSteps.computeIfAbsent(stepExecution.getId(), id -> new PendingStep(System.nanoTime()));
+    }
+
+    private static class PendingStep {
+        private int chunks;
+        private boolean contextPending;
+        private long lastFlushNanos;
+        private long requestedWrites;
+        private long flushedWrites;
+        private long flushes;
+
+        PendingStep(long lastFlushNanos) {
+            this.lastFlushNanos = lastFlushNanos;
+        }
+
+        void record(StepExecution stepExecution) {
+            ExecutionContext context = stepExecution.getExecutionContext();
+            context.putLong(REQUESTED_WRITES_KEY, requestedWrites);
+            context.putLong(FLUSHED_WRITES_KEY, flushedWrites);
+            context.putLong(FLUSH_COUNT_KEY, flushes);
+        }
+    }
+
+    // ========== Demais operações: direto ao repositório ==========
+
+    @Override
+    public List<String> getJobNames() {
+        return delegate.getJobNames();
+    }
+
+    @Override
+    public List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+        return delegate.findJobInstancesByName(jobName, start, count);
+    }
+
+    @Override
+    public List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+        return delegate.findJobExecutions(jobInstance);
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return delegate.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        return delegate.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        delegate.update(jobExecution);
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        delegate.add(stepExecution);
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        delegate.addAll(stepExecutions);
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        delegate.updateExecutionContext(jobExecution);
+    }
+
+    @Override
+    public JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.getJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return delegate.getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return delegate.getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return delegate.getLastJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void deleteStepExecution(StepExecution stepExecution) {
+        delegate.deleteStepExecution(stepExecution);
+    }
+
+    @Override
+    public void deleteJobExecution(JobExecution jobExecution) {
+        delegate.deleteJobExecution(jobExecution);
+    }
+
+    @Override
+    public void deleteJobInstance(JobInstance jobInstance) {
+        delegate.deleteJobInstance(jobInstance);
+    }
+}
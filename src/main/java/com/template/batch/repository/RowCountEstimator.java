@@ -0,0 +1,79 @@
+package com.template.batch.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Estimativas baratas de quantidade de linhas (usadas no progresso/ETA dos steps)
+ * 
+ * CUSTO:
+ * - Tabela inteira: pg_class.reltuples (estatística do ANALYZE, sem varrer a tabela)
+ * - Faixa de id (partições): count(*) resolvido pelo índice da PK
+ * - Janela incremental com low: count(*) pelo índice de updated_at
+ * - Janela sem low (primeira execução incremental) cobre a tabela inteira: reltuples
+ * - Nunca faz count(*) da tabela inteira: tabela nunca analisada (reltuples = -1) fica sem
+ *   estimativa (-1, progresso com "total desconhecido")
+ *
+ * CONEXÃO:
+ * - lookupDataSource (autocommit, statement_timeout curto): a estimativa roda no beforeChunk,
+ *   dentro da transação do chunk, mas nunca participa dela nem ocupa uma segunda conexão do
+ *   pool de writers; erro ou timeout aqui não invalida o chunk
+ */
+@Component
+public class RowCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RowCountEstimator(@Qualifier("lookupDataSource") DataSource lookupDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(lookupDataSource);
+    }
+
+    /**
+     * Linhas estimadas da tabela (reltuples); -1 se a tabela nunca foi analisada
+     */
+    public long estimateTableRows(String tableName) {
+        Long reltuples = jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)), -1)",
+                Long.class, tableName);
+        return reltuples != null && reltuples >= 0 ? reltuples : -1L;
+    }
+
+    /**
+     * Linhas com id entre minId e maxId (inclusivos)
+     */
+    public long countIdRange(String tableName, long minId, long maxId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + tableName + " WHERE id BETWEEN ? AND ?",
+                Long.class, minId, maxId);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Linhas da janela incremental: updated_at > low AND updated_at <= high
+     * (sem low, a janela é a tabela inteira: estimateTableRows)
+     */
+    public long countUpdatedBetween(String tableName, LocalDateTime low, LocalDateTime high) {
+        if (low == null) {
+            return estimateTableRows(tableName);
+        }
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + tableName + " WHERE updated_at <= ? AND updated_at > ?",
+                Long.class, Timestamp.valueOf(high), Timestamp.valueOf(low));
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Ids pendentes em staging_change_log até o corte do merge incremental
+     */
+    public long countChangeLog(LocalDateTime cutoff) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM staging_change_log WHERE changed_at <= ?",
+                Long.class, Timestamp.valueOf(cutoff));
+        return count != null ? count : 0L;
+    }
+}
@@ -0,0 +1,268 @@
+package com.template.batch.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Versionamento do schema da aplicação (tabela schema_version + scripts db/migration/V{n}__{descricao}.sql)
+ *
+ * POR QUE?
+ * - spring.sql.init executava schema.sql e data.sql inteiros a cada subida: vários
+ *   CREATE/ALTER IF NOT EXISTS (round trips + locks de catálogo) e os INSERTs de exemplo
+ * - Aqui cada script roda uma única vez; com o schema em dia a subida faz só uma consulta
+ *   (versões e checksums aplicados)
+ *
+ * MODOS (batch.schema.mode):
+ * - migrate: aplica os scripts com versão maior que a registrada, em ordem, cada um na
+ *   própria transação (DDL transacional do PostgreSQL) e registrado em schema_version
+ * - validate: apenas confere a versão; schema desatualizado impede a subida (sem DDL)
+ * - none: não acessa o banco
+ *
+ * CHECKSUMS (migrate e validate):
+ * - Cada versão aplicada guarda o CRC32 do script; na subida o CRC dos scripts atuais é
+ *   comparado com o registrado e qualquer diferença impede a subida
+ * - Script já aplicado nunca tem o SQL editado: a mudança vai em um novo V{n+1} (editar V1
+ *   não chegaria aos bancos já migrados e deixaria ambientes com schemas diferentes)
+ * - Versão registrada sem script correspondente (abaixo da maior conhecida) também falha
+ * - Linhas em branco e de comentário (--) ficam fora do checksum: corrigir um comentário
+ *   não exige nova versão; CRLF conta como LF (checkout no Windows não muda o checksum)
+ *
+ * CONCORRÊNCIA:
+ * - Várias JVMs subindo juntas (cron, backfill): pg_advisory_lock serializa a migração e a
+ *   versão é relida depois do lock, então cada script roda uma vez só
+ *
+ * DADOS DE EXEMPLO:
+ * - batch.schema.seed-locations (perfil dev) roda a cada subida, após as migrações
+ */
+@Component
+public class SchemaVersionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaVersionManager.class);
+
+    private static final String MIGRATION_LOCATION = "classpath*:db/migration/V*__*.sql";
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    // Chave do advisory lock da migração (qualquer bigint fixo)
+    private static final long MIGRATION_LOCK_KEY = 7_421_905_001L;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String mode;
+    private final String seedLocations;
+
+    public SchemaVersionManager(
+            DataSource dataSource,
+            @Value("${batch.schema.mode:migrate}") String mode,
+            @Value("${batch.schema.seed-locations:}") String seedLocations) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.mode = mode.trim().toLowerCase();
+        this.seedLocations = seedLocations;
+    }
+
+    @PostConstruct
+    public void initialize() throws IOException, SQLException {
+        switch (mode) {
+            case "none" -> logger.debug("Versionamento de schema desligado (batch.schema.mode=none)");
+            case "validate" -> validate();
+            case "migrate" -> migrate();
+            default -> throw new IllegalArgumentException("batch.schema.mode inválido: " + mode + " (migrate, validate ou none)");
+        }
+        if (!"none".equals(mode) && !seedLocations.isBlank()) {
+            seed();
+        }
+    }
+
+    private void validate() throws IOException {
+        List<Migration> migrations = migrations();
+        int latest = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+        int current = verifyChecksums(migrations, appliedChecksums());
+        if (current < latest) {
+            throw new IllegalStateException("Schema na versão " + current + ", aplicação espera " + latest
+                    + ": execute com batch.schema.mode=migrate antes de subir em produção");
+        }
+        logger.info("Schema na versão {} (validado, sem DDL)", current);
+    }
+
+    private void migrate() throws IOException, SQLException {
+        List<Migration> migrations = migrations();
+        int latest = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+        // Caminho comum: schema em dia, uma consulta e nenhum lock
+        if (verifyChecksums(migrations, appliedChecksums()) >= latest) {
+            logger.info("Schema na versão {} (em dia)", latest);
+            return;
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        boolean autoCommit = connection.getAutoCommit();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(" + MIGRATION_LOCK_KEY + ")");
+            try {
+                statement.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                        + "version INTEGER PRIMARY KEY, description VARCHAR(200) NOT NULL, "
+                        + "script VARCHAR(200) NOT NULL, checksum BIGINT NOT NULL, "
+                        + "installed_at TIMESTAMP NOT NULL, execution_ms BIGINT NOT NULL)");
+                // Outra JVM pode ter migrado enquanto este processo esperava o lock
+                int current = verifyChecksums(migrations, appliedChecksums());
+                connection.setAutoCommit(false);
+                for (Migration migration : migrations) {
+                    if (migration.version() > current) {
+                        apply(connection, migration);
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+                statement.execute("SELECT pg_advisory_unlock(" + MIGRATION_LOCK_KEY + ")");
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            ScriptUtils.executeSqlScript(connection, migration.resource());
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, script, checksum, installed_at, execution_ms) "
+                    + "VALUES (?, ?, ?, ?, LOCALTIMESTAMP, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setString(3, migration.resource().getFilename());
+                insert.setLong(4, migration.checksum());
+                insert.setLong(5, (System.nanoTime() - start) / 1_000_000);
+                insert.executeUpdate();
+            }
+            connection.commit();
+        } catch (RuntimeException | SQLException e) {
+            connection.rollback();
+            throw new IllegalStateException("Falha ao aplicar " + migration.resource().getFilename() + " (revertido)", e);
+        }
+        logger.info("Schema migrado para a versão {} ({}) em {} ms",
+                migration.version(), migration.description(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void seed() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (String location : seedLocations.split(",")) {
+            for (Resource resource : resolver.getResources(location.trim())) {
+                Connection connection = DataSourceUtils.getConnection(dataSource);
+                try {
+                    ScriptUtils.executeSqlScript(connection, resource);
+                } finally {
+                    DataSourceUtils.releaseConnection(connection, dataSource);
+                }
+                logger.info("Dados de exemplo carregados: {}", resource.getFilename());
+            }
+        }
+    }
+
+    /**
+     * @return checksum registrado por versão aplicada (vazio se schema_version ainda não existe)
+     */
+    private NavigableMap<Integer, Long> appliedChecksums() {
+        NavigableMap<Integer, Long> applied = new TreeMap<>();
+        try {
+            jdbcTemplate.query("SELECT version, checksum FROM schema_version",
+                    rs -> { applied.put(rs.getInt("version"), rs.getLong("checksum")); });
+        } catch (BadSqlGrammarException e) {
+            // schema_version criada na primeira migração
+        }
+        return applied;
+    }
+
+    /**
+     * Confere os scripts atuais contra as versões aplicadas
+     *
+     * @return maior versão aplicada (0 se nenhuma)
+     * @throws IllegalStateException script aplicado alterado ou removido
+     */
+    private static int verifyChecksums(List<Migration> migrations, NavigableMap<Integer, Long> applied) {
+        int latest = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+        List<String> mismatches = new ArrayList<>();
+        for (Map.Entry<Integer, Long> version : applied.entrySet()) {
+            Migration migration = migrations.stream()
+                    .filter(candidate -> candidate.version() == version.getKey())
+                    .findFirst()
+                    .orElse(null);
+            if (migration == null) {
+                if (version.getKey() < latest) {
+                    mismatches.add("V" + version.getKey() + " aplicada no banco, mas sem script em db/migration");
+                }
+            } else if (migration.checksum() != version.getValue()) {
+                mismatches.add(String.format("%s alterado depois de aplicado (checksum %d no banco, %d no script)",
+                        migration.resource().getFilename(), version.getValue(), migration.checksum()));
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Scripts de schema divergem do que foi aplicado: " + String.join("; ", mismatches)
+                    + ". Restaure o script original e leve a mudança para uma nova versão V{n+1}");
+        }
+        return applied.isEmpty() ? 0 : applied.lastKey();
+    }
+
+    private static List<Migration> migrations() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(MIGRATION_LOCATION)) {
+            Matcher matcher = MIGRATION_NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                continue;
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(checksumContent(StreamUtils.copyToByteArray(resource.getInputStream())));
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    resource, checksum.getValue()));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new IllegalStateException("Versão de schema duplicada: V" + migrations.get(i).version());
+            }
+        }
+        return migrations;
+    }
+
+    /**
+     * Conteúdo que entra no checksum: sem linhas em branco, sem linhas só de comentário (--) e sem CR
+     */
+    private static byte[] checksumContent(byte[] content) {
+        StringBuilder normalized = new StringBuilder(content.length);
+        for (String line : new String(content, StandardCharsets.UTF_8).split("\n")) {
+            String withoutCarriageReturn = line.replace("\r", "");
+            String trimmed = withoutCarriageReturn.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("--")) {
+                normalized.append(withoutCarriageReturn).append('\n');
+            }
+        }
+        return normalized.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Migration(int version, String description, Resource resource, long checksum) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.template.batch.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acesso à tabela batch_step_performance (histórico de performance por step)
+ */
+@Component
+public class StepPerformanceRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StepPerformanceRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Perfil de performance de um step executado
+     * Campos Double/Long nulos quando a métrica não se aplica ao step (ex.: step particionado manager)
+     */
+    public record StepPerformance(
+            long stepExecutionId,
+            long jobExecutionId,
+            String jobName,
+            String stepName,
+            String status,
+            LocalDateTime startedAt,
+            long durationMs,
+            long readCount,
+            long writeCount,
+            double itemsPerSecond,
+            Double chunkP50Ms,
+            Double chunkP99Ms,
+            Long dbTimeMs,
+            Long gcTimeMs,
+            Long peakHeapBytes) {
+    }
+
+    public void save(StepPerformance performance) {
+        jdbcTemplate.update(
+                "INSERT INTO batch_step_performance (step_execution_id, job_execution_id, job_name, step_name, " +
+                "status, started_at, duration_ms, read_count, write_count, items_per_second, chunk_p50_ms, " +
+                "chunk_p99_ms, db_time_ms, gc_time_ms, peak_heap_bytes) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (step_execution_id) DO NOTHING",
+                performance.stepExecutionId(), performance.jobExecutionId(), performance.jobName(),
+                performance.stepName(), performance.status(), Timestamp.valueOf(performance.startedAt()),
+                performance.durationMs(), performance.readCount(), performance.writeCount(),
+                performance.itemsPerSecond(), performance.chunkP50Ms(), performance.chunkP99Ms(),
+                performance.dbTimeMs(), performance.gcTimeMs(), performance.peakHeapBytes());
+    }
+
+    /**
+     * Execução mais recente do job com status COMPLETED (null se nunca executou)
+     */
+    public Long findLatestJobExecutionId(String jobName) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT MAX(job_execution_id) FROM batch_step_performance WHERE job_name = ? AND status = 'COMPLETED'",
+                Long.class, jobName);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    public List<StepPerformance> findByJobExecution(long jobExecutionId) {
+        return jdbcTemplate.query(
+                "SELECT * FROM batch_step_performance WHERE job_execution_id = ? ORDER BY started_at, step_name",
+                rowMapper(), jobExecutionId);
+    }
+
+    /**
+     * Últimas execuções COMPLETED do step anteriores a jobExecutionId (baseline móvel)
+     */
+    public List<StepPerformance> findBaseline(String jobName, String stepName, long beforeJobExecutionId, int runs) {
+        return jdbcTemplate.query(
+                "SELECT * FROM batch_step_performance " +
+                "WHERE job_name = ? AND step_name = ? AND job_execution_id < ? AND status = 'COMPLETED' " +
+                "ORDER BY job_execution_id DESC LIMIT ?",
+                rowMapper(), jobName, stepName, beforeJobExecutionId, runs);
+    }
+
+    private RowMapper<StepPerformance> rowMapper() {
+        return (rs, rowNum) -> new StepPerformance(
+                rs.getLong("step_execution_id"),
+                rs.getLong("job_execution_id"),
+                rs.getString("job_name"),
+                rs.getString("step_name"),
+                rs.getString("status"),
+                rs.getTimestamp("started_at").toLocalDateTime(),
+                rs.getLong("duration_ms"),
+                rs.getLong("read_count"),
+                rs.getLong("write_count"),
+                rs.getDouble("items_per_second"),
+                rs.getObject("chunk_p50_ms", Double.class),
+                rs.getObject("chunk_p99_ms", Double.class),
+                rs.getObject("db_time_ms", Long.class),
+                rs.getObject("gc_time_ms", Long.class),
+                rs.getObject("peak_heap_bytes", Long.class));
+    }
+}
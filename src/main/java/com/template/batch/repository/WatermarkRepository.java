@@ -0,0 +1,113 @@
+package com.template.batch.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acesso à tabela de controle batch_job_watermark
+ * 
+ * PAPEL DO WATERMARK:
+ * - Guarda, por job e step, o maior updated_at já processado com sucesso
+ * - A próxima execução lê apenas linhas com updated_at > watermark
+ * 
+ * RELÓGIO DO BANCO:
+ * - O limite superior de cada execução vem do banco (LOCALTIMESTAMP),
+ *   o mesmo relógio que preenche updated_at (DEFAULT CURRENT_TIMESTAMP)
+ * - Evita perder linhas por diferença de relógio entre JVM e PostgreSQL
+ *
+ * TRANSAÇÕES EM ANDAMENTO:
+ * - CURRENT_TIMESTAMP é o INÍCIO da transação que grava a linha, não o commit
+ * - Uma transação aberta antes do limite e commitada depois grava updated_at <= high,
+ *   invisível para esta execução e abaixo do watermark da próxima: linha perdida
+ * - O limite fica antes da transação aberta mais antiga (pg_stat_activity.xact_start)
+ *   e ainda recua batch.incremental.safety-lag-seconds (gravações com relógio próprio,
+ *   usuário sem pg_read_all_stats, que não enxerga xact_start de outros usuários)
+ * - Só conta transações do banco atual (datname) e fora dos pools reader/lookup desta
+ *   aplicação (application_name <nome>-reader/-lookup): cursores ficam com a transação
+ *   aberta o step inteiro, mas não gravam; contá-los seguraria o limite no início do
+ *   step mais antigo em execução
+ *
+ * AVANÇO MONOTÔNICO:
+ * - O limite pode ficar abaixo do watermark anterior (transação longa aberta depois da
+ *   última execução); o reader não lê nada nesse caso e o UPSERT nunca recua o watermark
+ */
+@Component
+public class WatermarkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long safetyLagSeconds;
+    private final String readerApplicationName;
+    private final String lookupApplicationName;
+
+    public WatermarkRepository(
+            DataSource dataSource,
+            @Value("${batch.incremental.safety-lag-seconds:60}") long safetyLagSeconds,
+            @Value("${spring.application.name:template-spring-batch}") String applicationName) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.safetyLagSeconds = safetyLagSeconds;
+        // Mesmos nomes de DataSourceConfig (ApplicationName de cada pool)
+        this.readerApplicationName = applicationName + "-reader";
+        this.lookupApplicationName = applicationName + "-lookup";
+    }
+
+    /**
+     * @return watermark da última execução bem-sucedida ou vazio se nunca executou
+     */
+    public Optional<LocalDateTime> findHighWatermark(String jobName, String stepName) {
+        List<Timestamp> result = jdbcTemplate.queryForList(
+                "SELECT high_watermark FROM batch_job_watermark WHERE job_name = ? AND step_name = ?",
+                Timestamp.class, jobName, stepName);
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.get(0).toLocalDateTime());
+    }
+
+    /**
+     * @return limite superior da execução: LOCALTIMESTAMP ou, se anterior, o instante logo
+     *         antes do início da transação aberta mais antiga, menos a margem de segurança
+     */
+    public LocalDateTime highWatermark() {
+        return committedBoundary(safetyLagSeconds);
+    }
+
+    /**
+     * @return LOCALTIMESTAMP ou, se anterior, o instante logo antes do início da transação
+     *         aberta mais antiga (sem margem): toda linha gravada com CURRENT_TIMESTAMP até
+     *         ele já está commitada. Usado para tabelas escritas pelos próprios jobs
+     *         (staging_change_log), onde não há relógio externo
+     */
+    public LocalDateTime committedBoundary() {
+        return committedBoundary(0);
+    }
+
+    private LocalDateTime committedBoundary(long lagSeconds) {
+        return jdbcTemplate.queryForObject(
+                "SELECT LEAST(LOCALTIMESTAMP, (" +
+                "  SELECT MIN(xact_start)::timestamp - INTERVAL '1 microsecond' FROM pg_stat_activity " +
+                "  WHERE backend_type = 'client backend' AND xact_start IS NOT NULL AND pid <> pg_backend_pid()" +
+                "  AND datname = current_database() AND application_name NOT IN (?, ?)" +
+                ")) - make_interval(secs => ?)",
+                Timestamp.class, readerApplicationName, lookupApplicationName, lagSeconds).toLocalDateTime();
+    }
+
+    /**
+     * Avança o watermark. Deve ser chamado dentro da transação do último chunk
+     * para que o avanço seja atômico com o commit dos dados.
+     * Valor menor ou igual ao registrado não altera a linha (o watermark nunca recua).
+     */
+    public void saveHighWatermark(String jobName, String stepName, LocalDateTime highWatermark) {
+        jdbcTemplate.update(
+                "INSERT INTO batch_job_watermark (job_name, step_name, high_watermark, updated_at) " +
+                "VALUES (?, ?, ?, LOCALTIMESTAMP) " +
+                "ON CONFLICT (job_name, step_name) DO UPDATE SET " +
+                "high_watermark = EXCLUDED.high_watermark, " +
+                "updated_at = EXCLUDED.updated_at " +
+                "WHERE batch_job_watermark.high_watermark < EXCLUDED.high_watermark",
+                jobName, stepName, Timestamp.valueOf(highWatermark));
+    }
+}
@@ -0,0 +1,259 @@
+package com.template.batch.server;
+
+import com.template.batch.util.JobParametersUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.converter.DefaultJobParametersConverter;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobExecutionNotRunningException;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.launch.NoSuchJobException;
+import org.springframework.batch.core.launch.NoSuchJobExecutionException;
+import org.springframework.batch.core.launch.support.SimpleJobOperator;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Disparo assíncrono de jobs com limite de concorrência e fila (JobServer, agendador)
+ *
+ * COMO FUNCIONA:
+ * - JobOperator próprio sobre um TaskExecutorJobLauncher assíncrono: start() devolve o id
+ *   da execução na hora, o job roda em uma thread do pool "job-"
+ * - batch.server.max-concurrent-jobs threads executam jobs; até batch.server.queue-capacity
+ *   pedidos aguardam na fila (execução em STARTING no JobRepository)
+ * - Fila cheia: TaskRejectedException antes de criar a execução (o TaskExecutorJobLauncher
+ *   apenas marcaria a execução como FAILED, sem avisar quem pediu)
+ * - Um mesmo job não é enfileirado duas vezes: writers e watermark assumem uma
+ *   execução por job
+ * - Grupos exclusivos (batch.server.exclusive-groups): um job não é enfileirado enquanto
+ *   outro do mesmo grupo está na fila ou em execução (ex.: jobs que escrevem na
+ *   target_table). Vale para todo disparo (API, agendador), não só para o cron
+ *
+ * PARADA:
+ * - stop(id) usa JobOperator.stop: o job para no fim do chunk corrente (STOPPED,
+ *   reiniciável); um pedido ainda na fila termina STOPPED sem executar nenhum step
+ * - No desligamento da aplicação as execuções ativas recebem stop e o pool aguarda
+ *   batch.server.shutdown-timeout-seconds
+ *
+ * O JobOperator padrão do Spring Boot (síncrono) continua sendo o usado pelo JobLauncherRunner.
+ */
+@Component
+public class JobLaunchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLaunchService.class);
+
+    private final JobRegistry jobRegistry;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final int maxConcurrentJobs;
+    private final int queueCapacity;
+    private final int shutdownTimeoutSeconds;
+    private final List<Set<String>> exclusiveGroups;
+
+    private final DefaultJobParametersConverter parametersConverter = new DefaultJobParametersConverter();
+    // Execuções disparadas por este serviço ainda não finalizadas
+    private final Set<Long> activeExecutionIds = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolTaskExecutor jobExecutor;
+    private JobOperator jobOperator;
+
+    public JobLaunchService(
+            JobRegistry jobRegistry,
+            JobExplorer jobExplorer,
+            JobRepository jobRepository,
+            @Value("${batch.server.max-concurrent-jobs:2}") int maxConcurrentJobs,
+            @Value("${batch.server.queue-capacity:20}") int queueCapacity,
+            @Value("${batch.server.shutdown-timeout-seconds:60}") int shutdownTimeoutSeconds,
+            @Value("${batch.server.exclusive-groups:}") String exclusiveGroups) {
+        this.jobRegistry = jobRegistry;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.maxConcurrentJobs = Math.max(maxConcurrentJobs, 1);
+        this.queueCapacity = Math.max(queueCapacity, 0);
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        this.exclusiveGroups = parseGroups(exclusiveGroups);
+    }
+
+    @PostConstruct
+    public void initialize() throws Exception {
+        // Threads criadas sob demanda: sem custo quando nenhum job é disparado por aqui
+        jobExecutor = new ThreadPoolTaskExecutor();
+        jobExecutor.setCorePoolSize(maxConcurrentJobs);
+        jobExecutor.setMaxPoolSize(maxConcurrentJobs);
+        jobExecutor.setQueueCapacity(queueCapacity);
+        jobExecutor.setThreadNamePrefix("job-");
+        jobExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        jobExecutor.setAwaitTerminationSeconds(shutdownTimeoutSeconds);
+        jobExecutor.initialize();
+
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.setTaskExecutor(jobExecutor);
+        jobLauncher.afterPropertiesSet();
+
+        SimpleJobOperator operator = new SimpleJobOperator();
+        operator.setJobRegistry(jobRegistry);
+        operator.setJobExplorer(jobExplorer);
+        operator.setJobRepository(jobRepository);
+        operator.setJobLauncher(jobLauncher);
+        operator.afterPropertiesSet();
+        jobOperator = operator;
+    }
+
+    /**
+     * Enfileira uma execução do job
+     *
+     * @return id da JobExecution (STARTING até uma thread do pool assumir o job)
+     * @throws NoSuchJobException job inexistente
+     * @throws JobExecutionAlreadyRunningException o job (ou outro do mesmo grupo exclusivo)
+     *         já está na fila ou em execução
+     * @throws TaskRejectedException fila cheia
+     */
+    public synchronized long launch(String jobName, String processDate, String fullReprocess) throws Exception {
+        if (!jobRegistry.getJobNames().contains(jobName)) {
+            throw new NoSuchJobException("Job inexistente: " + jobName);
+        }
+        JobExecution blocking = blockingExecution(jobName, activeExecutions());
+        if (blocking != null) {
+            String blockingJob = blocking.getJobInstance().getJobName();
+            throw new JobExecutionAlreadyRunningException(blockingJob.equals(jobName)
+                    ? "Job " + jobName + " já está na fila ou em execução (execução " + blocking.getId() + ")"
+                    : "Job " + jobName + " não pode rodar junto com " + blockingJob + " (grupo exclusivo, execução "
+                            + blocking.getId() + ")");
+        }
+        // launch() é o único ponto que enfileira no pool: a verificação não tem corrida
+        if (getRunningCount() >= maxConcurrentJobs && getQueuedCount() >= queueCapacity) {
+            throw new TaskRejectedException("Fila de jobs cheia (" + queueCapacity + " pedidos aguardando)");
+        }
+        Long executionId = jobOperator.start(jobName,
+                parametersConverter.getProperties(JobParametersUtil.build(processDate, fullReprocess)));
+        activeExecutionIds.add(executionId);
+        logger.info("Job {} enfileirado: execução {} (em execução: {}, na fila: {})",
+                jobName, executionId, getRunningCount(), getQueuedCount());
+        return executionId;
+    }
+
+    /**
+     * Execução que impede o job de começar agora: do próprio job ou de outro do mesmo grupo exclusivo
+     *
+     * @param active execuções ativas (activeExecutions)
+     * @return a execução que bloqueia ou null se o job está livre
+     */
+    public JobExecution blockingExecution(String jobName, List<JobExecution> active) {
+        for (JobExecution execution : active) {
+            String activeJob = execution.getJobInstance().getJobName();
+            if (activeJob.equals(jobName)) {
+                return execution;
+            }
+            for (Set<String> group : exclusiveGroups) {
+                if (group.contains(jobName) && group.contains(activeJob)) {
+                    return execution;
+                }
+            }
+        }
+        return null;
+    }
+
+    public List<Set<String>> getExclusiveGroups() {
+        return exclusiveGroups;
+    }
+
+    /**
+     * @return execução com contagens dos steps ou null se o id não existe
+     */
+    public JobExecution getExecution(long executionId) {
+        return jobExplorer.getJobExecution(executionId);
+    }
+
+    /**
+     * Pede a parada da execução (efetiva no fim do chunk corrente)
+     */
+    public void stop(long executionId) throws NoSuchJobExecutionException, JobExecutionNotRunningException {
+        jobOperator.stop(executionId);
+        logger.info("Parada solicitada para a execução {}", executionId);
+    }
+
+    /**
+     * Execuções disparadas por este serviço que ainda não terminaram, mais antigas primeiro
+     */
+    public List<JobExecution> activeExecutions() {
+        List<JobExecution> executions = new ArrayList<>();
+        for (Long executionId : activeExecutionIds) {
+            JobExecution execution = jobExplorer.getJobExecution(executionId);
+            if (execution == null || !isActive(execution.getStatus())) {
+                activeExecutionIds.remove(executionId);
+            } else {
+                executions.add(execution);
+            }
+        }
+        executions.sort(Comparator.comparing(JobExecution::getId));
+        return executions;
+    }
+
+    public int getRunningCount() {
+        return jobExecutor.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return jobExecutor.getThreadPoolExecutor().getQueue().size();
+    }
+
+    public int getMaxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (JobExecution execution : activeExecutions()) {
+            try {
+                jobOperator.stop(execution.getId());
+                logger.info("Desligamento: parada solicitada para {} (execução {})",
+                        execution.getJobInstance().getJobName(), execution.getId());
+            } catch (NoSuchJobExecutionException | JobExecutionNotRunningException e) {
+                logger.debug("Execução {} já finalizada: {}", execution.getId(), e.getMessage());
+            }
+        }
+        jobExecutor.shutdown();
+    }
+
+    private static boolean isActive(BatchStatus status) {
+        return status == BatchStatus.STARTING || status == BatchStatus.STARTED || status == BatchStatus.STOPPING;
+    }
+
+    private static List<Set<String>> parseGroups(String value) {
+        List<Set<String>> groups = new ArrayList<>();
+        for (String group : value.split(";")) {
+            Set<String> jobs = Arrays.stream(group.split(","))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            if (jobs.size() > 1) {
+                groups.add(jobs);
+            }
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,244 @@
+package com.template.batch.server;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agendador interno: dispara jobs por expressão cron na própria JVM (modo servidor)
+ *
+ * POR QUE?
+ * - Com cron externo cada disparo sobe uma JVM nova; agendas curtas multiplicam o custo
+ *   de subida e de aquecimento do JIT
+ * - Aqui os disparos reaproveitam o contexto aquecido e passam pelo JobLaunchService
+ *
+ * CONFIGURAÇÃO (batch.scheduler.*):
+ * - schedules: "job=cron" separados por ';' (cron do Spring: seg min hora dia mês dia-da-semana)
+ *   Ex.: "jobA=0 0/5 * * * *; jobB=0 0/5 * * * *"
+ * - queue-capacity: disparos aguardando vaga; fila cheia descarta o disparo (WARN)
+ *
+ * LIMITES DE CONCORRÊNCIA:
+ * - Por job: uma execução por vez (o mesmo job nunca roda em paralelo)
+ * - Por grupo: no máximo um job de cada batch.server.exclusive-groups ativo (imposto pelo
+ *   JobLaunchService; aqui só evita tentar um disparo que ele recusaria)
+ * - Global: batch.server.max-concurrent-jobs; o agendador só entrega ao JobLaunchService
+ *   quando há thread livre, então a espera acontece (e é medida) aqui
+ *
+ * POLÍTICAS:
+ * - overlap-policy (disparo enquanto o mesmo job ainda executa ou aguarda):
+ *   SKIP descarta o disparo; QUEUE mantém um único disparo pendente por job
+ * - misfire-policy (disparo perdido): FIRE_ONCE executa uma vez, SKIP descarta
+ *   Perdido = aguardou vaga além de misfire-threshold-seconds, ou a aplicação estava
+ *   fora do ar no horário (próximo horário após a última execução já passou)
+ *
+ * Sobe como CommandLineRunner: depois do job de --spring.batch.job.name (JobLauncherRunner)
+ * e com todos os jobs já registrados no JobRegistry.
+ */
+@Component
+@Order(3)
+public class JobScheduler implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+
+    enum OverlapPolicy { SKIP, QUEUE }
+
+    enum MisfirePolicy { FIRE_ONCE, SKIP }
+
+    private final JobLaunchService jobLaunchService;
+    private final JobExplorer jobExplorer;
+    private final boolean enabled;
+    private final Map<String, CronExpression> schedules;
+    private final int queueCapacity;
+    private final OverlapPolicy overlapPolicy;
+    private final MisfirePolicy misfirePolicy;
+    private final Duration misfireThreshold;
+
+    // Disparos aguardando vaga, na ordem de chegada (no máximo um por job)
+    private final Map<String, LocalDateTime> pending = new LinkedHashMap<>();
+
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    public JobScheduler(
+            JobLaunchService jobLaunchService,
+            JobExplorer jobExplorer,
+            @Value("${batch.scheduler.enabled:false}") boolean enabled,
+            @Value("${batch.scheduler.schedules:}") String schedules,
+            @Value("${batch.scheduler.queue-capacity:10}") int queueCapacity,
+            @Value("${batch.scheduler.overlap-policy:SKIP}") String overlapPolicy,
+            @Value("${batch.scheduler.misfire-policy:FIRE_ONCE}") String misfirePolicy,
+            @Value("${batch.scheduler.misfire-threshold-seconds:300}") long misfireThresholdSeconds) {
+        this.jobLaunchService = jobLaunchService;
+        this.jobExplorer = jobExplorer;
+        this.enabled = enabled;
+        this.schedules = parseSchedules(schedules);
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.overlapPolicy = OverlapPolicy.valueOf(overlapPolicy.trim().toUpperCase());
+        this.misfirePolicy = MisfirePolicy.valueOf(misfirePolicy.trim().toUpperCase());
+        this.misfireThreshold = Duration.ofSeconds(Math.max(misfireThresholdSeconds, 0L));
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled || schedules.isEmpty()) {
+            return;
+        }
+        // Thread não daemon: mantém a JVM no ar mesmo sem o JobServer
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(1);
+        taskScheduler.setThreadNamePrefix("scheduler-");
+        taskScheduler.initialize();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, CronExpression> schedule : schedules.entrySet()) {
+            String jobName = schedule.getKey();
+            checkMissedWhileDown(jobName, schedule.getValue(), now);
+            taskScheduler.schedule(() -> fire(jobName, LocalDateTime.now()),
+                    new CronTrigger(schedule.getValue().toString()));
+            logger.info("Agendado {}: '{}' (próximo: {})", jobName, schedule.getValue(), schedule.getValue().next(now));
+        }
+        // Vagas liberadas ao fim de cada job são ocupadas pela próxima verificação
+        taskScheduler.scheduleWithFixedDelay(this::dispatch, Duration.ofSeconds(1));
+        logger.info("Agendador ativo: {} job(s), grupos exclusivos {}, overlap={}, misfire={}",
+                schedules.size(), jobLaunchService.getExclusiveGroups(), overlapPolicy, misfirePolicy);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+            synchronized (this) {
+                if (!pending.isEmpty()) {
+                    logger.info("Agendador encerrado com disparos pendentes descartados: {}", pending.keySet());
+                    pending.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Disparo do cron: entra na fila e é entregue assim que os limites permitirem
+     */
+    synchronized void fire(String jobName, LocalDateTime scheduledTime) {
+        // Um único disparo pendente por job, em qualquer política
+        if (pending.containsKey(jobName)) {
+            logger.info("Disparo de {} ({}) descartado: disparo anterior ainda aguardando vaga", jobName, scheduledTime);
+            return;
+        }
+        if (overlapPolicy == OverlapPolicy.SKIP && isActive(jobName, jobLaunchService.activeExecutions())) {
+            logger.info("Disparo de {} ({}) descartado: execução anterior em andamento", jobName, scheduledTime);
+            return;
+        }
+        if (pending.size() >= queueCapacity) {
+            logger.warn("Disparo de {} ({}) descartado: fila do agendador cheia ({})",
+                    jobName, scheduledTime, queueCapacity);
+            return;
+        }
+        pending.put(jobName, scheduledTime);
+        dispatch();
+    }
+
+    /**
+     * Entrega os disparos pendentes cujos limites (job, grupo e global) estão livres
+     */
+    synchronized void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<JobExecution> active = new ArrayList<>(jobLaunchService.activeExecutions());
+        LocalDateTime now = LocalDateTime.now();
+        Iterator<Map.Entry<String, LocalDateTime>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext() && active.size() < jobLaunchService.getMaxConcurrentJobs()) {
+            Map.Entry<String, LocalDateTime> run = iterator.next();
+            String jobName = run.getKey();
+            if (jobLaunchService.blockingExecution(jobName, active) != null) {
+                continue;
+            }
+            Duration waited = Duration.between(run.getValue(), now);
+            if (misfirePolicy == MisfirePolicy.SKIP && waited.compareTo(misfireThreshold) > 0) {
+                iterator.remove();
+                logger.warn("Disparo de {} ({}) descartado: aguardou {} s, acima do limite de misfire",
+                        jobName, run.getValue(), waited.toSeconds());
+                continue;
+            }
+            try {
+                long executionId = jobLaunchService.launch(jobName, null, null);
+                iterator.remove();
+                active.add(jobLaunchService.getExecution(executionId));
+                logger.info("Disparo agendado de {} ({}) iniciado: execução {}, espera {} ms",
+                        jobName, run.getValue(), executionId, waited.toMillis());
+            } catch (JobExecutionAlreadyRunningException | TaskRejectedException e) {
+                // Job disparado por fora do agendador (API) ou pool ocupado: tenta na próxima verificação
+                return;
+            } catch (Exception e) {
+                iterator.remove();
+                logger.error("Falha ao disparar {} pelo agendador", jobName, e);
+            }
+        }
+    }
+
+    /**
+     * Aplicação fora do ar no horário agendado: o próximo horário após a última execução já passou
+     */
+    private void checkMissedWhileDown(String jobName, CronExpression cron, LocalDateTime now) {
+        JobInstance lastInstance = jobExplorer.getLastJobInstance(jobName);
+        JobExecution lastExecution = lastInstance != null ? jobExplorer.getLastJobExecution(lastInstance) : null;
+        if (lastExecution == null || lastExecution.getCreateTime() == null) {
+            return;
+        }
+        LocalDateTime missed = cron.next(lastExecution.getCreateTime());
+        if (missed == null || !missed.isBefore(now)) {
+            return;
+        }
+        if (misfirePolicy == MisfirePolicy.FIRE_ONCE) {
+            logger.info("Misfire de {}: horário {} perdido com a aplicação fora do ar, executando uma vez", jobName, missed);
+            // Agendado agora: o misfire já foi tratado, não conta como espera
+            fire(jobName, now);
+        } else {
+            logger.info("Misfire de {}: horário {} perdido com a aplicação fora do ar, descartado", jobName, missed);
+        }
+    }
+
+    private static boolean isActive(String jobName, List<JobExecution> active) {
+        for (JobExecution execution : active) {
+            if (execution.getJobInstance().getJobName().equals(jobName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, CronExpression> parseSchedules(String value) {
+        Map<String, CronExpression> parsed = new LinkedHashMap<>();
+        for (String entry : value.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("batch.scheduler.schedules: esperado job=cron, recebido '" + entry.trim() + "'");
+            }
+            parsed.put(entry.substring(0, separator).trim(), CronExpression.parse(entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,240 @@
+package com.template.batch.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobExecutionNotRunningException;
+import org.springframework.batch.core.launch.NoSuchJobException;
+import org.springframework.batch.core.launch.NoSuchJobExecutionException;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modo servidor: mantém o contexto Spring e o JIT aquecidos e recebe pedidos de execução via HTTP
+ *
+ * POR QUE?
+ * - No modo padrão cada job paga a subida da JVM + Spring + aquecimento do JIT;
+ *   em jobs curtos isso é mais que o próprio processamento
+ * - Com batch.server.enabled=true a aplicação não encerra: os jobs são disparados
+ *   pela API abaixo e executados pelo JobLaunchService (limite de concorrência + fila)
+ *
+ * API (JSON, sem autenticação: escuta apenas em batch.server.bind-address, padrão 127.0.0.1):
+ * - POST /jobs/{jobName}?processDate=yyyyMMdd&fullReprocess=true → 202 + execução enfileirada
+ *   (404 job inexistente, 409 job já na fila/em execução, 429 fila cheia)
+ * - GET  /jobs → em execução, na fila e capacidade
+ * - GET  /jobs/executions/{id} → status e contagens da execução
+ * - POST /jobs/executions/{id}/stop → 202 (409 se a execução não está ativa)
+ *
+ * Servidor HTTP do próprio JDK (com.sun.net.httpserver): sem dependência de container web.
+ */
+@Component
+public class JobServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobServer.class);
+
+    private final JobLaunchService jobLaunchService;
+    private final boolean enabled;
+    private final String bindAddress;
+    private final int port;
+
+    private HttpServer httpServer;
+    private ExecutorService requestExecutor;
+
+    public JobServer(
+            JobLaunchService jobLaunchService,
+            @Value("${batch.server.enabled:false}") boolean enabled,
+            @Value("${batch.server.bind-address:127.0.0.1}") String bindAddress,
+            @Value("${batch.server.port:8085}") int port) {
+        this.jobLaunchService = jobLaunchService;
+        this.enabled = enabled;
+        this.bindAddress = bindAddress;
+        this.port = port;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        httpServer = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        requestExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "job-server-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(requestExecutor);
+        httpServer.createContext("/jobs", this::handle);
+        // A thread de dispatch do HttpServer não é daemon: mantém a JVM ativa após o JobLauncherRunner
+        httpServer.start();
+        logger.info("Servidor de jobs ativo em http://{}:{}/jobs (até {} jobs simultâneos, fila de {})",
+                bindAddress, port, jobLaunchService.getMaxConcurrentJobs(), jobLaunchService.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (httpServer == null) {
+            return;
+        }
+        httpServer.stop(0);
+        requestExecutor.shutdownNow();
+        logger.info("Servidor de jobs encerrado");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (NoSuchJobException | NoSuchJobExecutionException e) {
+            respond(exchange, 404, error(e.getMessage()));
+        } catch (JobExecutionAlreadyRunningException | JobExecutionNotRunningException e) {
+            respond(exchange, 409, error(e.getMessage()));
+        } catch (TaskRejectedException e) {
+            respond(exchange, 429, error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Erro na requisição {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            respond(exchange, 500, error(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws Exception {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+        // path[0] = "jobs"
+        if (path.length == 1 && "GET".equals(method)) {
+            respond(exchange, 200, status());
+        } else if (path.length == 2 && !"executions".equals(path[1]) && "POST".equals(method)) {
+            Map<String, String> query = query(exchange.getRequestURI());
+            long executionId = jobLaunchService.launch(path[1], query.get("processDate"), query.get("fullReprocess"));
+            respond(exchange, 202, execution(jobLaunchService.getExecution(executionId)));
+        } else if (path.length == 3 && "executions".equals(path[1]) && "GET".equals(method)) {
+            JobExecution execution = jobLaunchService.getExecution(executionId(path[2]));
+            if (execution == null) {
+                throw new NoSuchJobExecutionException("Execução inexistente: " + path[2]);
+            }
+            respond(exchange, 200, execution(execution));
+        } else if (path.length == 4 && "executions".equals(path[1]) && "stop".equals(path[3]) && "POST".equals(method)) {
+            long executionId = executionId(path[2]);
+            jobLaunchService.stop(executionId);
+            respond(exchange, 202, execution(jobLaunchService.getExecution(executionId)));
+        } else {
+            respond(exchange, 404, error("Rota inexistente: " + method + " " + exchange.getRequestURI().getPath()));
+        }
+    }
+
+    private String status() {
+        List<JobExecution> active = jobLaunchService.activeExecutions();
+        StringBuilder json = new StringBuilder()
+                .append("{\"running\":").append(jobLaunchService.getRunningCount())
+                .append(",\"queued\":").append(jobLaunchService.getQueuedCount())
+                .append(",\"maxConcurrentJobs\":").append(jobLaunchService.getMaxConcurrentJobs())
+                .append(",\"queueCapacity\":").append(jobLaunchService.getQueueCapacity())
+                .append(",\"executions\":[");
+        for (int i = 0; i < active.size(); i++) {
+            json.append(i > 0 ? "," : "").append(execution(active.get(i)));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String execution(JobExecution execution) {
+        long readCount = 0L;
+        long writeCount = 0L;
+        for (StepExecution step : execution.getStepExecutions()) {
+            // Partições (step:partitionN) já estão agregadas no step gerenciador
+            if (!step.getStepName().contains(":")) {
+                readCount += step.getReadCount();
+                writeCount += step.getWriteCount();
+            }
+        }
+        return "{\"executionId\":" + execution.getId()
+                + ",\"jobName\":" + quote(execution.getJobInstance().getJobName())
+                + ",\"status\":" + quote(execution.getStatus().name())
+                + ",\"exitCode\":" + quote(execution.getExitStatus().getExitCode())
+                + ",\"startTime\":" + quote(execution.getStartTime() != null ? execution.getStartTime().toString() : null)
+                + ",\"endTime\":" + quote(execution.getEndTime() != null ? execution.getEndTime().toString() : null)
+                + ",\"readCount\":" + readCount
+                + ",\"writeCount\":" + writeCount + "}";
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static long executionId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Id de execução inválido: " + value);
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String rawQuery = uri.getRawQuery();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.template.batch.tasklet;
+
+import com.template.batch.repository.BatchMetadataPurgeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expurgo dos metadados do Spring Batch (metadataPurgeJob)
+ *
+ * POR QUE?
+ * - Cada execução com RunIdIncrementer cria uma JobInstance nova: as tabelas BATCH_*
+ *   crescem sem limite e as consultas do JobRepository/JobExplorer ficam mais lentas
+ *
+ * EXECUÇÃO:
+ * - beforeStep: cortes da retenção e das execuções sem END_TIME (guardados no
+ *   ExecutionContext, o restart usa os mesmos); índices das FKs e tabelas _ARCHIVE vêm da
+ *   migração V3, o job não executa DDL
+ * - Cada chamada do tasklet é uma transação: trava até batch.purge.batch-size instâncias
+ *   elegíveis e remove (ou arquiva) tudo que depende delas; transações curtas não
+ *   seguram locks enquanto outros jobs rodam
+ * - Termina quando não há mais instâncias elegíveis; instâncias removidas = itens escritos
+ *
+ * RESUMO: linhas por tabela, instâncias, lotes e tempo total (afterStep)
+ */
+@Component
+public class MetadataPurgeTasklet implements Tasklet, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataPurgeTasklet.class);
+
+    public static final String CUTOFF_KEY = "purge.cutoff";
+    public static final String UNFINISHED_CUTOFF_KEY = "purge.unfinishedCutoff";
+    // Linhas removidas por tabela: purge.rows.<TABELA>
+    public static final String ROWS_KEY_PREFIX = "purge.rows.";
+    public static final String BATCHES_KEY = "purge.batches";
+
+    private final BatchMetadataPurgeRepository purgeRepository;
+    private final int retentionDays;
+    private final int unfinishedRetentionDays;
+    private final int batchSize;
+    private final boolean keepLatestPerJob;
+    private final boolean archive;
+
+    public MetadataPurgeTasklet(
+            BatchMetadataPurgeRepository purgeRepository,
+            @Value("${batch.purge.retention-days:30}") int retentionDays,
+            @Value("${batch.purge.unfinished-retention-days:90}") int unfinishedRetentionDays,
+            @Value("${batch.purge.batch-size:500}") int batchSize,
+            @Value("${batch.purge.keep-latest-per-job:true}") boolean keepLatestPerJob,
+            @Value("${batch.purge.archive:false}") boolean archive) {
+        this.purgeRepository = purgeRepository;
+        this.retentionDays = retentionDays;
+        this.unfinishedRetentionDays = unfinishedRetentionDays;
+        this.batchSize = Math.max(batchSize, 1);
+        this.keepLatestPerJob = keepLatestPerJob;
+        this.archive = archive;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (!context.containsKey(CUTOFF_KEY)) {
+            context.putString(CUTOFF_KEY, purgeRepository.retentionCutoff(retentionDays).toString());
+        }
+        if (!context.containsKey(UNFINISHED_CUTOFF_KEY)) {
+            context.putString(UNFINISHED_CUTOFF_KEY, purgeRepository.retentionCutoff(unfinishedRetentionDays).toString());
+        }
+        logger.info("Expurgo de metadados: instâncias com execuções anteriores a {} ({} dias; sem END_TIME: "
+                        + "anteriores a {}, {} dias), lotes de {}{}{}",
+                context.getString(CUTOFF_KEY), retentionDays,
+                context.getString(UNFINISHED_CUTOFF_KEY), unfinishedRetentionDays, batchSize,
+                keepLatestPerJob ? ", preservando a última instância de cada job" : "",
+                archive ? ", arquivando em *_ARCHIVE" : "");
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        ExecutionContext context = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        LocalDateTime cutoff = LocalDateTime.parse(context.getString(CUTOFF_KEY));
+        LocalDateTime unfinishedCutoff = LocalDateTime.parse(context.getString(UNFINISHED_CUTOFF_KEY));
+
+        List<Long> instanceIds = purgeRepository.lockPurgeableInstances(cutoff, unfinishedCutoff, keepLatestPerJob, batchSize);
+        if (instanceIds.isEmpty()) {
+            return RepeatStatus.FINISHED;
+        }
+        Map<String, Integer> rows = purgeRepository.purge(instanceIds, archive);
+        rows.forEach((table, count) -> context.putLong(ROWS_KEY_PREFIX + table,
+                context.getLong(ROWS_KEY_PREFIX + table, 0L) + count));
+        context.putLong(BATCHES_KEY, context.getLong(BATCHES_KEY, 0L) + 1);
+        contribution.incrementWriteCount(instanceIds.size());
+        logger.debug("Expurgo: lote de {} instâncias ({} a {}) {}",
+                instanceIds.size(), instanceIds.get(0), instanceIds.get(instanceIds.size() - 1), rows);
+        return RepeatStatus.CONTINUABLE;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        long totalRows = 0L;
+        logger.info("=========================================");
+        logger.info("Expurgo de metadados ({})", archive ? "arquivados em *_ARCHIVE" : "removidos");
+        for (String table : BatchMetadataPurgeRepository.TABLES) {
+            long count = context.getLong(ROWS_KEY_PREFIX + table, 0L);
+            totalRows += count;
+            logger.info(String.format("  %-24s %10d linhas", table, count));
+        }
+        long millis = stepExecution.getStartTime() != null
+                ? Duration.between(stepExecution.getStartTime(), LocalDateTime.now()).toMillis()
+                : 0L;
+        logger.info("  Instâncias: {} em {} lotes | Linhas: {} | Tempo: {} ms",
+                stepExecution.getWriteCount(), context.getLong(BATCHES_KEY, 0L), totalRows, millis);
+        logger.info("=========================================");
+        return stepExecution.getExitStatus();
+    }
+}
@@ -2,6 +2,7 @@ package com.template.batch.util;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobParameter;
 import org.springframework.batch.core.JobParameters;
 
 import java.time.LocalDate;
@@ -36,7 +37,9 @@ public class DateParameterUtil {
         }
 
         // Tenta obter como Long primeiro (JobLauncherRunner adiciona como Long quando é número)
-        Long dateLong = jobParameters.getLong(DATE_PARAMETER_NAME);
+        // getLong() lança IllegalArgumentException se o parâmetro for String: verifica o tipo antes
+        JobParameter<?> parameter = jobParameters.getParameter(DATE_PARAMETER_NAME);
+        Long dateLong = parameter != null && parameter.getValue() instanceof Long value ? value : null;
         if (dateLong != null) {
             try {
                 String dateStringFromLong = String.valueOf(dateLong);
@@ -95,4 +98,26 @@ public class DateParameterUtil {
         }
         return LocalDateTime.now();
     }
+
+    /**
+     * Converte uma data yyyyMMdd informada na linha de comando (ex.: faixa de backfill)
+     *
+     * @param value Data no formato yyyyMMdd
+     * @return LocalDate correspondente
+     * @throws IllegalArgumentException se a data for vazia ou inválida
+     */
+    public static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value != null ? value.trim() : "", DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida '" + value + "' (formato esperado: yyyyMMdd)", e);
+        }
+    }
+
+    /**
+     * @return data no formato yyyyMMdd (valor de processDate)
+     */
+    public static String formatDate(LocalDate date) {
+        return date.format(DATE_FORMATTER);
+    }
 }
@@ -0,0 +1,31 @@
+package com.template.batch.util;
+
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+
+/**
+ * Utilitário para o parâmetro de reprocessamento completo do modo incremental
+ * 
+ * SUPORTA:
+ * - fullReprocess=true (String ou Boolean)
+ * - Se não fornecido, retorna false (leitura incremental a partir do watermark)
+ */
+public class IncrementalParameterUtil {
+
+    public static final String FULL_REPROCESS_PARAMETER_NAME = "fullReprocess";
+
+    /**
+     * @param jobParameters Parâmetros do job
+     * @return true se o job deve ignorar o watermark e reler toda a tabela de origem
+     */
+    public static boolean isFullReprocess(JobParameters jobParameters) {
+        if (jobParameters == null) {
+            return false;
+        }
+        JobParameter<?> parameter = jobParameters.getParameter(FULL_REPROCESS_PARAMETER_NAME);
+        if (parameter == null || parameter.getValue() == null) {
+            return false;
+        }
+        return Boolean.parseBoolean(String.valueOf(parameter.getValue()));
+    }
+}
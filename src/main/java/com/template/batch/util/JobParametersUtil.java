@@ -0,0 +1,79 @@
+package com.template.batch.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+
+/**
+ * Monta os JobParameters de uma execução (linha de comando, servidor de jobs, agendador)
+ * 
+ * PARÂMETROS:
+ * - time: System.currentTimeMillis() (identifica uma nova JobInstance a cada execução);
+ *   ausente em buildRestartable: a JobInstance é identificada só pela data
+ * - processDate: yyyyMMdd, como Long quando numérico ou String caso contrário
+ *   (ver DateParameterUtil)
+ * - fullReprocess: repassado como String (ver IncrementalParameterUtil)
+ * - rewriteUnchanged: "true" em buildRestartable (não identificador); o targetTableWriter
+ *   reescreve linhas com (nome, valor) iguais para que processado_em receba a data
+ */
+public class JobParametersUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobParametersUtil.class);
+
+    public static final String PROCESS_DATE_PARAMETER_NAME = "processDate";
+    public static final String REWRITE_UNCHANGED_PARAMETER_NAME = "rewriteUnchanged";
+
+    /**
+     * @param processDate data no formato yyyyMMdd (null/vazio = LocalDateTime.now() no processamento)
+     * @param fullReprocess "true" para ignorar o watermark (null/vazio = não enviado)
+     */
+    public static JobParameters build(String processDate, String fullReprocess) {
+        return build(new JobParametersBuilder().addLong("time", System.currentTimeMillis()), processDate, fullReprocess);
+    }
+
+    /**
+     * Parâmetros sem "time": a mesma data gera sempre a mesma JobInstance (backfill)
+     * - Data já concluída: JobInstanceAlreadyCompleteException
+     * - Data com execução FAILED/STOPPED: o JobLauncher reinicia a execução anterior
+     * - fullReprocess não é identificador: não impede o restart
+     * - rewriteUnchanged=true: com batch.writer.target.skip-unchanged a data não mudaria
+     *   nenhuma linha já existente (processado_em fica fora da comparação) e o backfill
+     *   seria um no-op
+     */
+    public static JobParameters buildRestartable(String processDate, String fullReprocess) {
+        JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+        jobParametersBuilder.addString(REWRITE_UNCHANGED_PARAMETER_NAME, "true", false);
+        if (fullReprocess != null && !fullReprocess.isEmpty()) {
+            jobParametersBuilder.addString(IncrementalParameterUtil.FULL_REPROCESS_PARAMETER_NAME, fullReprocess, false);
+        }
+        return build(jobParametersBuilder, processDate, null);
+    }
+
+    private static JobParameters build(JobParametersBuilder jobParametersBuilder, String processDate, String fullReprocess) {
+
+        // Adiciona parâmetro de data se fornecido
+        if (processDate != null && !processDate.isEmpty()) {
+            logger.info("Parâmetro de data encontrado: '{}' (formato yyyyMMdd)", processDate);
+            // Tenta adicionar como Long primeiro (se for número)
+            try {
+                Long dateAsLong = Long.parseLong(processDate);
+                jobParametersBuilder.addLong(PROCESS_DATE_PARAMETER_NAME, dateAsLong);
+                logger.debug("Data adicionada como Long: {}", dateAsLong);
+            } catch (NumberFormatException e) {
+                // Se não for número, adiciona como String
+                jobParametersBuilder.addString(PROCESS_DATE_PARAMETER_NAME, processDate);
+                logger.debug("Data adicionada como String: {}", processDate);
+            }
+        } else {
+            logger.info("Parâmetro de data não fornecido. Usará LocalDateTime.now() no processamento.");
+        }
+
+        if (fullReprocess != null && !fullReprocess.isEmpty()) {
+            logger.info("Parâmetro fullReprocess: '{}'", fullReprocess);
+            jobParametersBuilder.addString(IncrementalParameterUtil.FULL_REPROCESS_PARAMETER_NAME, fullReprocess);
+        }
+
+        return jobParametersBuilder.toJobParameters();
+    }
+}
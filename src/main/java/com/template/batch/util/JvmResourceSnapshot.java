@@ -0,0 +1,189 @@
+package com.template.batch.util;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fotografia dos recursos da JVM usada para medir um step (GC, heap e alocação)
+ *
+ * USO:
+ * - start() no início do step: guarda GC acumulado e bytes alocados pela thread;
+ *   zera o pico dos pools de heap só se nenhum outro step estiver medindo
+ * - finish() no fim do step (libera o próximo reset do pico)
+ * - gcTimeMillisSince()/gcCountSince(): GC ocorrido desde o start
+ * - maxGcPauseMillisSince(): maior pausa de GC desde o start
+ * - allocatedBytesSince(): bytes alocados pela thread corrente desde o start
+ *   (chamar na mesma thread do start; -1 se a JVM não suporta a medição)
+ * - peakHeapBytes(): soma dos picos dos pools de heap (aproximado, ver LIMITAÇÃO)
+ * - heapAfterLastGcBytes(): heap ocupado logo após o último GC (conjunto vivo)
+ *
+ * PAUSAS DE GC:
+ * - Notificações de GC (uma por coleta) alimentam um histórico circular das
+ *   últimas coletas; a maior pausa do step é procurada nesse histórico
+ * - Coletores concorrentes (ciclos do G1/ZGC) não contam como pausa
+ *
+ * LIMITAÇÃO:
+ * - GC e pico de heap são da JVM inteira: com steps concorrentes (partições)
+ *   os valores incluem o trabalho das outras threads
+ * - Pico de heap aproximado: soma dos picos de cada pool (que não ocorrem no mesmo
+ *   instante), desde o último reset. Com steps sobrepostos o reset acontece só quando
+ *   o primeiro deles começa (um step nunca apaga o pico de outro em andamento), então
+ *   o valor cobre a janela de todos os steps sobrepostos, não só a do step
+ * - Alocação é por thread: cada partição mede apenas o próprio trabalho
+ */
+public class JvmResourceSnapshot {
+
+    private static final GcPauseHistory PAUSES = GcPauseHistory.install();
+
+    // Steps entre start() e finish(): o pico só é zerado quando não há nenhum
+    private static final AtomicInteger ACTIVE_STEPS = new AtomicInteger();
+
+    private final long gcTimeMillis;
+    private final long gcCount;
+    private final long allocatedBytes;
+    private final long startUptimeMillis;
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    private JvmResourceSnapshot(long gcTimeMillis, long gcCount, long allocatedBytes, long startUptimeMillis) {
+        this.gcTimeMillis = gcTimeMillis;
+        this.gcCount = gcCount;
+        this.allocatedBytes = allocatedBytes;
+        this.startUptimeMillis = startUptimeMillis;
+    }
+
+    public static JvmResourceSnapshot start() {
+        if (ACTIVE_STEPS.getAndIncrement() == 0) {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                    pool.resetPeakUsage();
+                }
+            }
+        }
+        return new JvmResourceSnapshot(totalGcTimeMillis(), totalGcCount(), currentThreadAllocatedBytes(),
+                ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    public void finish() {
+        if (finished.compareAndSet(false, true)) {
+            ACTIVE_STEPS.decrementAndGet();
+        }
+    }
+
+    public long allocatedBytesSince() {
+        long current = currentThreadAllocatedBytes();
+        return current < 0 || allocatedBytes < 0 ? -1L : current - allocatedBytes;
+    }
+
+    public long gcTimeMillisSince() {
+        return totalGcTimeMillis() - gcTimeMillis;
+    }
+
+    public long gcCountSince() {
+        return totalGcCount() - gcCount;
+    }
+
+    public long maxGcPauseMillisSince() {
+        return PAUSES.maxPauseMillisSince(startUptimeMillis);
+    }
+
+    public static long peakHeapBytes() {
+        long peak = 0L;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    public static long heapAfterLastGcBytes() {
+        long used = 0L;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getType() == MemoryType.HEAP && pool.isValid() ? pool.getCollectionUsage() : null;
+            if (afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1L;
+    }
+
+    private static long totalGcTimeMillis() {
+        long total = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(gc.getCollectionTime(), 0L);
+        }
+        return total;
+    }
+
+    private static long totalGcCount() {
+        long total = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(gc.getCollectionCount(), 0L);
+        }
+        return total;
+    }
+
+    /**
+     * Últimas coletas (fim em ms de uptime da JVM + duração), alimentado por notificações de GC
+     */
+    private static class GcPauseHistory {
+        private static final int CAPACITY = 1024;
+
+        private final long[] endUptimeMillis = new long[CAPACITY];
+        private final long[] durationMillis = new long[CAPACITY];
+        private int next;
+        private int size;
+
+        static GcPauseHistory install() {
+            GcPauseHistory history = new GcPauseHistory();
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                // Ciclos concorrentes (ex.: "G1 Concurrent GC", "ZGC Cycles") não param a aplicação
+                String name = gc.getName();
+                if (gc instanceof NotificationEmitter emitter && !name.contains("Concurrent") && !name.contains("Cycles")) {
+                    emitter.addNotificationListener((notification, handback) -> {
+                        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                            GarbageCollectionNotificationInfo info =
+                                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                            history.add(info.getGcInfo().getEndTime(), info.getGcInfo().getDuration());
+                        }
+                    }, null, null);
+                }
+            }
+            return history;
+        }
+
+        synchronized void add(long endUptime, long duration) {
+            endUptimeMillis[next] = endUptime;
+            durationMillis[next] = duration;
+            next = (next + 1) % CAPACITY;
+            size = Math.min(size + 1, CAPACITY);
+        }
+
+        synchronized long maxPauseMillisSince(long startUptime) {
+            long max = 0L;
+            for (int i = 0; i < size; i++) {
+                if (endUptimeMillis[i] >= startUptime) {
+                    max = Math.max(max, durationMillis[i]);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.template.batch.writer;
+
+import com.template.batch.domain.TargetRecord;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer para target_table com UPSERT "change-aware"
+ *
+ * PROBLEMA DO UPSERT INCONDICIONAL:
+ * - ON CONFLICT (id) DO UPDATE reescreve a linha mesmo quando nome e valor não mudaram
+ * - Cada reescrita gera WAL, uma nova versão da linha (dead tuple) e pressão no VACUUM
+ * - Em reexecuções de jobA/jobB quase todas as linhas ficam iguais
+ *
+ * SOLUÇÃO:
+ * - A comparação é feita DENTRO do banco: o DO UPDATE só acontece quando
+ *   (nome, valor) IS DISTINCT FROM os valores novos (EXCLUDED)
+ * - processedo_em NÃO entra na comparação (muda a cada execução); linhas inalteradas
+ *   mantêm o processedo_em da última alteração real
+ * - Linhas inalteradas não geram escrita alguma
+ *
+ * UM STATEMENT POR CHUNK:
+ * - O chunk é enviado como arrays (unnest) em um único INSERT ... SELECT
+ * - RETURNING (xmax = 0) diferencia linhas inseridas (true) de atualizadas (false)
+ * - Linhas inalteradas não aparecem no RETURNING: unchanged = chunk - retornadas
+ *
+ * IDS REPETIDOS NO CHUNK:
+ * - Um mesmo id duas vezes no INSERT ... ON CONFLICT falha com "ON CONFLICT DO UPDATE
+ *   command cannot affect row a second time"
+ * - Após a ordenação só a última ocorrência de cada id (ordem do chunk) é enviada
+ *
+ * CONTADORES:
+ * - Inseridos, atualizados e inalterados são acumulados por chunk e só entram no
+ *   ExecutionContext do step em afterChunk (após o commit)
+ * - Chunk com rollback (afterChunkError) descarta os contadores: o retry do mesmo chunk
+ *   não conta as linhas duas vezes
+ * - O writer é registrado como ChunkListener pelo próprio step (SimpleStepBuilder)
+ * - BatchExecutionListener exibe os contadores no resumo do step
+ *
+ * TRANSAÇÃO:
+ * - JdbcTemplate usa o mesmo DataSource do PlatformTransactionManager
+ * - O statement participa da transação do chunk (commit/rollback junto com o chunk)
+ *
+ * CONTENÇÃO DE LOCKS (writers concorrentes / partições):
+ * - Itens ordenados por id antes do envio: dois chunks que se sobrepõem adquirem
+ *   os row locks na mesma ordem, o que elimina o ciclo que causa deadlock
+ * - lock-timeout-ms > 0: SET LOCAL lock_timeout limita a espera por lock no chunk
+ * - Falhas por lock (deadlock, lock_timeout) propagam como PessimisticLockingFailureException
+ *   e o step faz retry do chunk com backoff (ver StepConfig)
+ * - Tempo gasto nas tentativas que falharam por lock e número de falhas vão para o
+ *   ExecutionContext e aparecem no resumo do step
+ * - Espera por lock em tentativas que conseguiram o lock não é medida (o statement não
+ *   separa espera de execução): o tempo reportado é só o perdido em tentativas desfeitas
+ */
+public class TargetTableUpsertWriter implements ItemWriter<TargetRecord>, ChunkListener {
+
+    public static final String INSERTED_COUNT_KEY = "targetTableWriter.inserted";
+    public static final String UPDATED_COUNT_KEY = "targetTableWriter.updated";
+    public static final String UNCHANGED_COUNT_KEY = "targetTableWriter.unchanged";
+    public static final String LOCK_FAILURE_COUNT_KEY = "targetTableWriter.lockFailures";
+    public static final String LOCK_FAILED_ATTEMPT_MILLIS_KEY = "targetTableWriter.lockFailedAttemptMs";
+
+    private static final Comparator<TargetRecord> BY_ID =
+            Comparator.comparing(TargetRecord::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO target_table (id, nome, valor, processedo_em) " +
+            "SELECT * FROM unnest(?::int8[], ?::varchar[], ?::numeric[], ?::timestamp[]) " +
+            "ON CONFLICT (id) DO UPDATE SET " +
+            "nome = EXCLUDED.nome, " +
+            "valor = EXCLUDED.valor, " +
+            "processedo_em = EXCLUDED.processedo_em ";
+
+    // Evita reescrever linhas cujo conteúdo de negócio não mudou
+    private static final String SKIP_UNCHANGED_CLAUSE =
+            "WHERE (target_table.nome, target_table.valor) IS DISTINCT FROM (EXCLUDED.nome, EXCLUDED.valor) ";
+
+    // xmax = 0 apenas para versões de linha criadas por INSERT
+    private static final String RETURNING_CLAUSE = "RETURNING (xmax = 0) AS inserted";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sql;
+    private final long lockTimeoutMillis;
+
+    private StepExecution stepExecution;
+
+    // Contadores do chunk em andamento (publicados apenas após o commit)
+    private long pendingInserted;
+    private long pendingUpdated;
+    private long pendingUnchanged;
+
+    /**
+     * @param dataSource DataSource transacional (mesmo do PlatformTransactionManager)
+     * @param skipUnchanged true para não reescrever linhas com (nome, valor) iguais
+     * @param lockTimeoutMillis espera máxima por row lock no chunk (0 = padrão do banco)
+     */
+    public TargetTableUpsertWriter(DataSource dataSource, boolean skipUnchanged, long lockTimeoutMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.sql = UPSERT_SQL + (skipUnchanged ? SKIP_UNCHANGED_CLAUSE : "") + RETURNING_CLAUSE;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+
+    public void setStepExecution(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+    }
+
+    @Override
+    public void write(Chunk<? extends TargetRecord> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Ordem de id = ordem de aquisição dos row locks (unnest preserva a ordem do array)
+        List<TargetRecord> items = new ArrayList<>(chunk.getItems());
+        items.sort(BY_ID);
+        items = lastPerId(items);
+
+        int size = items.size();
+        Long[] ids = new Long[size];
+        String[] nomes = new String[size];
+        BigDecimal[] valores = new BigDecimal[size];
+        Timestamp[] processadosEm = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            TargetRecord item = items.get(i);
+            ids[i] = item.getId();
+            nomes[i] = item.getNome();
+            valores[i] = item.getValor();
+            processadosEm[i] = item.getProcessadoEm() != null ? Timestamp.valueOf(item.getProcessadoEm()) : null;
+        }
+
+        if (lockTimeoutMillis > 0) {
+            // SET LOCAL vale apenas até o fim da transação do chunk
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeoutMillis + "ms'");
+        }
+
+        List<Boolean> results;
+        long start = System.nanoTime();
+        try {
+            results = jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setArray(1, connection.createArrayOf("int8", ids));
+                ps.setArray(2, connection.createArrayOf("varchar", nomes));
+                ps.setArray(3, connection.createArrayOf("numeric", valores));
+                ps.setArray(4, connection.createArrayOf("timestamp", processadosEm));
+                return ps;
+            }, (rs, rowNum) -> rs.getBoolean("inserted"));
+        } catch (PessimisticLockingFailureException e) {
+            // Deadlock ou lock_timeout: o tempo da tentativa foi gasto esperando lock
+            recordLockFailure(System.nanoTime() - start);
+            throw e;
+        }
+
+        long inserted = results.stream().filter(Boolean::booleanValue).count();
+        long updated = results.size() - inserted;
+        long unchanged = size - results.size();
+
+        pendingInserted += inserted;
+        pendingUpdated += updated;
+        pendingUnchanged += unchanged;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        discardPending();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (stepExecution != null) {
+            ExecutionContext executionContext = stepExecution.getExecutionContext();
+            executionContext.putLong(INSERTED_COUNT_KEY, executionContext.getLong(INSERTED_COUNT_KEY, 0L) + pendingInserted);
+            executionContext.putLong(UPDATED_COUNT_KEY, executionContext.getLong(UPDATED_COUNT_KEY, 0L) + pendingUpdated);
+            executionContext.putLong(UNCHANGED_COUNT_KEY, executionContext.getLong(UNCHANGED_COUNT_KEY, 0L) + pendingUnchanged);
+        }
+        discardPending();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        discardPending();
+    }
+
+    private void discardPending() {
+        pendingInserted = 0;
+        pendingUpdated = 0;
+        pendingUnchanged = 0;
+    }
+
+    /**
+     * Mantém só a última ocorrência de cada id (lista já ordenada por id; sort estável
+     * preserva a ordem do chunk entre ids iguais)
+     */
+    private static List<TargetRecord> lastPerId(List<TargetRecord> sorted) {
+        List<TargetRecord> unique = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            TargetRecord item = sorted.get(i);
+            boolean supersededByNext = item.getId() != null && i + 1 < sorted.size()
+                    && item.getId().equals(sorted.get(i + 1).getId());
+            if (!supersededByNext) {
+                unique.add(item);
+            }
+        }
+        return unique;
+    }
+
+    private void recordLockFailure(long elapsedNanos) {
+        if (stepExecution == null) {
+            return;
+        }
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putLong(LOCK_FAILURE_COUNT_KEY, context.getLong(LOCK_FAILURE_COUNT_KEY, 0L) + 1);
+        context.putLong(LOCK_FAILED_ATTEMPT_MILLIS_KEY,
+                context.getLong(LOCK_FAILED_ATTEMPT_MILLIS_KEY, 0L) + TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+}
@@ -1,4 +1,5 @@
--- Schema SQL para o banco PostgreSQL
+-- V1: schema inicial da aplicação (PostgreSQL)
+-- Aplicado uma única vez pelo SchemaVersionManager (registro em schema_version)
 
 -- ============================================================================
 -- TABELAS DE ORIGEM (Source Tables)
@@ -18,6 +19,14 @@ CREATE TABLE IF NOT EXISTS source_table_b (
     valor DECIMAL(10, 2) NOT NULL
 );
 
+-- Coluna de controle para leitura incremental (watermark)
+-- Preenchida no INSERT via DEFAULT; renovada em todo UPDATE pelo trigger de V2__source_updated_at_trigger.sql
+ALTER TABLE source_table_a ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE source_table_b ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_source_table_a_updated_at ON source_table_a (updated_at);
+CREATE INDEX IF NOT EXISTS idx_source_table_b_updated_at ON source_table_b (updated_at);
+
 -- ============================================================================
 -- TABELAS DE STAGING (Staging Tables)
 -- ============================================================================
@@ -80,6 +89,16 @@ CREATE TABLE IF NOT EXISTS staging_table_b (
     value DECIMAL(10, 2) NOT NULL
 );
 
+-- Log de ids alterados em staging (merge incremental)
+-- Preenchido por writerStagingA/writerStagingB na mesma transação do chunk
+-- PRIMARY KEY deduplica ids tocados por A e B
+CREATE TABLE IF NOT EXISTS staging_change_log (
+    id BIGINT PRIMARY KEY,
+    changed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_staging_change_log_changed_at ON staging_change_log (changed_at);
+
 -- ============================================================================
 -- TABELA DE DESTINO (Target Table)
 -- ============================================================================
@@ -91,3 +110,43 @@ CREATE TABLE IF NOT EXISTS target_table (
     valor DECIMAL(10, 2) NOT NULL,
     processedo_em TIMESTAMP NOT NULL
 );
+
+-- ============================================================================
+-- TABELA DE CONTROLE (Watermark)
+-- ============================================================================
+
+-- Maior updated_at processado com sucesso por job/step (modo incremental)
+-- Avançado atomicamente com o commit do último chunk
+CREATE TABLE IF NOT EXISTS batch_job_watermark (
+    job_name VARCHAR(100) NOT NULL,
+    step_name VARCHAR(100) NOT NULL,
+    high_watermark TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (job_name, step_name)
+);
+
+-- ============================================================================
+-- HISTÓRICO DE PERFORMANCE (uma linha por step executado)
+-- ============================================================================
+
+-- Perfil de performance de cada step (BATCH_STEP_EXECUTION guarda só contagens)
+-- Gravado por StepPerformanceListener ao fim do job; base do relatório de regressão
+CREATE TABLE IF NOT EXISTS batch_step_performance (
+    step_execution_id BIGINT PRIMARY KEY,
+    job_execution_id BIGINT NOT NULL,
+    job_name VARCHAR(100) NOT NULL,
+    step_name VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    duration_ms BIGINT NOT NULL,
+    read_count BIGINT NOT NULL,
+    write_count BIGINT NOT NULL,
+    items_per_second DOUBLE PRECISION NOT NULL,
+    chunk_p50_ms DOUBLE PRECISION,
+    chunk_p99_ms DOUBLE PRECISION,
+    db_time_ms BIGINT,
+    gc_time_ms BIGINT,
+    peak_heap_bytes BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_batch_step_performance_job ON batch_step_performance (job_name, step_name, job_execution_id);
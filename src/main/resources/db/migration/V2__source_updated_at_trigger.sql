@@ -0,0 +1,26 @@
+-- V2: updated_at das tabelas de origem renovado em todo UPDATE (modo incremental)
+-- Sem o trigger, uma linha alterada pelos sistemas de origem mantinha o updated_at do
+-- INSERT e nunca voltava a ser lida pelo reader incremental
+
+-- Corpo entre aspas simples (não $$): ScriptUtils separa statements em ';' fora de aspas
+CREATE OR REPLACE FUNCTION set_source_updated_at() RETURNS trigger AS '
+BEGIN
+    NEW.updated_at := CURRENT_TIMESTAMP;
+    RETURN NEW;
+END
+' LANGUAGE plpgsql;
+
+-- WHEN: UPDATE que não muda nome/valor não renova updated_at (não vira delta)
+DROP TRIGGER IF EXISTS trg_source_table_a_updated_at ON source_table_a;
+CREATE TRIGGER trg_source_table_a_updated_at
+    BEFORE UPDATE ON source_table_a
+    FOR EACH ROW
+    WHEN ((OLD.nome, OLD.valor) IS DISTINCT FROM (NEW.nome, NEW.valor))
+    EXECUTE FUNCTION set_source_updated_at();
+
+DROP TRIGGER IF EXISTS trg_source_table_b_updated_at ON source_table_b;
+CREATE TRIGGER trg_source_table_b_updated_at
+    BEFORE UPDATE ON source_table_b
+    FOR EACH ROW
+    WHEN ((OLD.nome, OLD.valor) IS DISTINCT FROM (NEW.nome, NEW.valor))
+    EXECUTE FUNCTION set_source_updated_at();
@@ -0,0 +1,129 @@
+-- V3: metadados do Spring Batch (BATCH_*) com os índices e as tabelas _ARCHIVE do expurgo
+-- Antes o metadataPurgeJob criava índices (CONCURRENTLY) e tabelas _ARCHIVE em tempo de
+-- execução; um CREATE INDEX CONCURRENTLY interrompido deixava um índice INVALID que a
+-- verificação por nome considerava pronto
+-- Prefixo fixo BATCH_ (spring.batch.jdbc.table-prefix padrão)
+
+-- ============================================================================
+-- TABELAS DO SPRING BATCH (schema-postgresql.sql do spring-batch-core 5.1)
+-- IF NOT EXISTS: bancos já criados pelo spring.batch.jdbc.initialize-schema não mudam
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS BATCH_JOB_INSTANCE (
+    JOB_INSTANCE_ID BIGINT NOT NULL PRIMARY KEY,
+    VERSION BIGINT,
+    JOB_NAME VARCHAR(100) NOT NULL,
+    JOB_KEY VARCHAR(32) NOT NULL,
+    constraint JOB_INST_UN unique (JOB_NAME, JOB_KEY)
+);
+
+CREATE TABLE IF NOT EXISTS BATCH_JOB_EXECUTION (
+    JOB_EXECUTION_ID BIGINT NOT NULL PRIMARY KEY,
+    VERSION BIGINT,
+    JOB_INSTANCE_ID BIGINT NOT NULL,
+    CREATE_TIME TIMESTAMP NOT NULL,
+    START_TIME TIMESTAMP DEFAULT NULL,
+    END_TIME TIMESTAMP DEFAULT NULL,
+    STATUS VARCHAR(10),
+    EXIT_CODE VARCHAR(2500),
+    EXIT_MESSAGE VARCHAR(2500),
+    LAST_UPDATED TIMESTAMP,
+    constraint JOB_INST_EXEC_FK foreign key (JOB_INSTANCE_ID)
+    references BATCH_JOB_INSTANCE(JOB_INSTANCE_ID)
+);
+
+CREATE TABLE IF NOT EXISTS BATCH_JOB_EXECUTION_PARAMS (
+    JOB_EXECUTION_ID BIGINT NOT NULL,
+    PARAMETER_NAME VARCHAR(100) NOT NULL,
+    PARAMETER_TYPE VARCHAR(100) NOT NULL,
+    PARAMETER_VALUE VARCHAR(2500),
+    IDENTIFYING CHAR(1) NOT NULL,
+    constraint JOB_EXEC_PARAMS_FK foreign key (JOB_EXECUTION_ID)
+    references BATCH_JOB_EXECUTION(JOB_EXECUTION_ID)
+);
+
+CREATE TABLE IF NOT EXISTS BATCH_STEP_EXECUTION (
+    STEP_EXECUTION_ID BIGINT NOT NULL PRIMARY KEY,
+    VERSION BIGINT NOT NULL,
+    STEP_NAME VARCHAR(100) NOT NULL,
+    JOB_EXECUTION_ID BIGINT NOT NULL,
+    CREATE_TIME TIMESTAMP NOT NULL,
+    START_TIME TIMESTAMP DEFAULT NULL,
+    END_TIME TIMESTAMP DEFAULT NULL,
+    STATUS VARCHAR(10),
+    COMMIT_COUNT BIGINT,
+    READ_COUNT BIGINT,
+    FILTER_COUNT BIGINT,
+    WRITE_COUNT BIGINT,
+    READ_SKIP_COUNT BIGINT,
+    WRITE_SKIP_COUNT BIGINT,
+    PROCESS_SKIP_COUNT BIGINT,
+    ROLLBACK_COUNT BIGINT,
+    EXIT_CODE VARCHAR(2500),
+    EXIT_MESSAGE VARCHAR(2500),
+    LAST_UPDATED TIMESTAMP,
+    constraint JOB_EXEC_STEP_FK foreign key (JOB_EXECUTION_ID)
+    references BATCH_JOB_EXECUTION(JOB_EXECUTION_ID)
+);
+
+CREATE TABLE IF NOT EXISTS BATCH_STEP_EXECUTION_CONTEXT (
+    STEP_EXECUTION_ID BIGINT NOT NULL PRIMARY KEY,
+    SHORT_CONTEXT VARCHAR(2500) NOT NULL,
+    SERIALIZED_CONTEXT TEXT,
+    constraint STEP_EXEC_CTX_FK foreign key (STEP_EXECUTION_ID)
+    references BATCH_STEP_EXECUTION(STEP_EXECUTION_ID)
+);
+
+CREATE TABLE IF NOT EXISTS BATCH_JOB_EXECUTION_CONTEXT (
+    JOB_EXECUTION_ID BIGINT NOT NULL PRIMARY KEY,
+    SHORT_CONTEXT VARCHAR(2500) NOT NULL,
+    SERIALIZED_CONTEXT TEXT,
+    constraint JOB_EXEC_CTX_FK foreign key (JOB_EXECUTION_ID)
+    references BATCH_JOB_EXECUTION(JOB_EXECUTION_ID)
+);
+
+CREATE SEQUENCE IF NOT EXISTS BATCH_STEP_EXECUTION_SEQ MAXVALUE 9223372036854775807 NO CYCLE;
+CREATE SEQUENCE IF NOT EXISTS BATCH_JOB_EXECUTION_SEQ MAXVALUE 9223372036854775807 NO CYCLE;
+CREATE SEQUENCE IF NOT EXISTS BATCH_JOB_SEQ MAXVALUE 9223372036854775807 NO CYCLE;
+
+-- ============================================================================
+-- ÍNDICES DAS CHAVES ESTRANGEIRAS (o PostgreSQL não cria índice para FK)
+-- Sem eles cada JobExecution removida pelo expurgo varre BATCH_STEP_EXECUTION e
+-- BATCH_JOB_EXECUTION_PARAMS inteiras
+-- ============================================================================
+
+-- Índice INVALID (CONCURRENTLY interrompido, versões anteriores do expurgo) é removido:
+-- IF NOT EXISTS o consideraria pronto
+DO '
+DECLARE
+    invalid_index TEXT;
+BEGIN
+    FOR invalid_index IN
+        SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE NOT i.indisvalid AND c.relname IN (
+            ''batch_job_execution_job_instance_id_idx'',
+            ''batch_step_execution_job_execution_id_idx'',
+            ''batch_job_execution_params_job_execution_id_idx'')
+    LOOP
+        EXECUTE ''DROP INDEX '' || quote_ident(invalid_index);
+    END LOOP;
+END
+';
+
+-- Dentro da transação da migração (sem CONCURRENTLY): ou o índice fica válido ou a
+-- migração inteira é revertida. Bloqueia escritas nas tabelas BATCH_* durante a criação:
+-- rode a migração no passo de deploy (batch.schema.mode=migrate), sem jobs ativos
+CREATE INDEX IF NOT EXISTS batch_job_execution_job_instance_id_idx ON BATCH_JOB_EXECUTION (JOB_INSTANCE_ID);
+CREATE INDEX IF NOT EXISTS batch_step_execution_job_execution_id_idx ON BATCH_STEP_EXECUTION (JOB_EXECUTION_ID);
+CREATE INDEX IF NOT EXISTS batch_job_execution_params_job_execution_id_idx ON BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID);
+
+-- ============================================================================
+-- TABELAS _ARCHIVE (batch.purge.archive=true): mesmas colunas, sem constraints
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS BATCH_STEP_EXECUTION_CONTEXT_ARCHIVE (LIKE BATCH_STEP_EXECUTION_CONTEXT);
+CREATE TABLE IF NOT EXISTS BATCH_STEP_EXECUTION_ARCHIVE (LIKE BATCH_STEP_EXECUTION);
+CREATE TABLE IF NOT EXISTS BATCH_JOB_EXECUTION_CONTEXT_ARCHIVE (LIKE BATCH_JOB_EXECUTION_CONTEXT);
+CREATE TABLE IF NOT EXISTS BATCH_JOB_EXECUTION_PARAMS_ARCHIVE (LIKE BATCH_JOB_EXECUTION_PARAMS);
+CREATE TABLE IF NOT EXISTS BATCH_JOB_EXECUTION_ARCHIVE (LIKE BATCH_JOB_EXECUTION);
+CREATE TABLE IF NOT EXISTS BATCH_JOB_INSTANCE_ARCHIVE (LIKE BATCH_JOB_INSTANCE);
@@ -1,4 +1,4 @@
--- Dados de exemplo para as tabelas de origem
+-- Dados de exemplo para as tabelas de origem (apenas perfil dev: batch.schema.seed-locations)
 -- Usa ON CONFLICT DO NOTHING para evitar erros de chave duplicada
 
 -- Inserindo dados na source_table_a
@@ -0,0 +1,117 @@
+package com.template.batch.performance;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Orçamento de performance de um job contra o PostgreSQL embarcado (mvn verify, Failsafe)
+ *
+ * COMO FUNCIONA:
+ * - Um banco embarcado e um contexto Spring por JVM (todas as subclasses têm a mesma
+ *   configuração, então o cache de contextos do Spring Test reaproveita o mesmo)
+ * - Massa fixa de performance-budgets.properties gerada uma vez; cada job parte de
+ *   staging/target vazios (SyntheticDataGenerator.resetOutputs)
+ * - Job disparado via JobLauncherTestUtils: uma execução de aquecimento e uma medida;
+ *   falha se a medida não terminar COMPLETED ou se estourar qualquer limite do job
+ *   (itens/s, statements/item, bytes alocados/item)
+ *
+ * Uma subclasse *IT por job; pular: mvn verify -DskipITs
+ */
+@SpringBatchTest
+@SpringBootTest(properties = {
+        // Jobs disparados pelo teste, não pelo JobLauncherRunner
+        "spring.batch.job.name=",
+        "batch.incremental.enabled=false",
+        "batch.merge.incremental=false",
+        "batch.progress.log-interval-seconds=10",
+        // Statements por item vêm do DataSource instrumentado
+        "batch.jdbc.instrumentation.enabled=true",
+        // DEBUG do Spring Batch (application.yml) loga cada chunk e distorce a medição
+        "logging.level.org.springframework.batch=INFO",
+        "logging.level.com.template.batch=INFO"
+})
+abstract class AbstractPerformanceBudgetIT {
+
+    private static final EmbeddedPostgres DATABASE = startDatabase();
+    private static final PerformanceBudgets BUDGETS = PerformanceBudgets.load();
+
+    private static boolean datasetGenerated;
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> DATABASE.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    /**
+     * Nome do bean do job verificado (chaves <job>.* em performance-budgets.properties)
+     */
+    protected abstract String jobName();
+
+    @Test
+    void staysWithinPerformanceBudget() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(dataSource);
+        if (!datasetGenerated) {
+            BUDGETS.generate(generator);
+            datasetGenerated = true;
+        }
+        jobLauncherTestUtils.setJob(context.getBean(jobName(), Job.class));
+
+        // Aquecimento: a primeira execução na JVM soma carga de classes e JIT à alocação/tempo
+        generator.resetOutputs();
+        jobLauncherTestUtils.launchJob(jobLauncherTestUtils.getUniqueJobParameters());
+
+        generator.resetOutputs();
+        long start = System.nanoTime();
+        JobExecution execution = jobLauncherTestUtils.launchJob(jobLauncherTestUtils.getUniqueJobParameters());
+        JobResult result = JobResult.of(execution, System.nanoTime() - start);
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus(), jobName() + " não terminou COMPLETED");
+        List<String> violations = BUDGETS.check(result);
+        assertTrue(violations.isEmpty(), () -> "Orçamento de performance estourado:\n" + String.join("\n", violations));
+    }
+
+    private static EmbeddedPostgres startDatabase() {
+        try {
+            EmbeddedPostgres database = EmbeddedPostgres.builder().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    database.close();
+                } catch (IOException e) {
+                    // JVM encerrando: processo do banco embarcado já órfão
+                }
+            }));
+            return database;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao subir o PostgreSQL embarcado", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.template.batch.performance;
+
+/**
+ * Orçamento de performance do jobA (ver AbstractPerformanceBudgetIT)
+ */
+class JobAPerformanceIT extends AbstractPerformanceBudgetIT {
+
+    @Override
+    protected String jobName() {
+        return "jobA";
+    }
+}
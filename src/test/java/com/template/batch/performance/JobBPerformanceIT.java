@@ -0,0 +1,12 @@
+package com.template.batch.performance;
+
+/**
+ * Orçamento de performance do jobB (ver AbstractPerformanceBudgetIT)
+ */
+class JobBPerformanceIT extends AbstractPerformanceBudgetIT {
+
+    @Override
+    protected String jobName() {
+        return "jobB";
+    }
+}
@@ -0,0 +1,54 @@
+package com.template.batch.performance;
+
+import com.template.batch.listener.BatchExecutionListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.Duration;
+
+/**
+ * Resultado medido de uma execução de job
+ *
+ * - Itens lidos: steps de partição são ignorados (o step gerenciador já agrega
+ *   as contagens das partições)
+ * - Statements, bytes alocados e pico de heap: ExecutionContext de todos os steps
+ *   (gravados por BatchExecutionListener; cada step mede a própria thread)
+ */
+public record JobResult(String jobName, String status, long wallMillis, long itemsRead,
+                        long peakHeapBytes, long sqlStatements, long allocatedBytes) {
+
+    public static JobResult of(JobExecution execution, long wallNanos) {
+        long itemsRead = 0L;
+        long peakHeap = 0L;
+        long statements = 0L;
+        long allocated = 0L;
+        for (StepExecution step : execution.getStepExecutions()) {
+            if (!step.getStepName().contains(":")) {
+                itemsRead += step.getReadCount();
+            }
+            ExecutionContext context = step.getExecutionContext();
+            peakHeap = Math.max(peakHeap, context.getLong(BatchExecutionListener.PEAK_HEAP_BYTES_KEY, 0L));
+            statements += context.getLong(BatchExecutionListener.SQL_STATEMENTS_KEY, 0L);
+            allocated += context.getLong(BatchExecutionListener.ALLOCATED_BYTES_KEY, 0L);
+        }
+        return new JobResult(execution.getJobInstance().getJobName(), execution.getStatus().name(),
+                Duration.ofNanos(wallNanos).toMillis(), itemsRead, peakHeap, statements, allocated);
+    }
+
+    public boolean successful() {
+        return "COMPLETED".equals(status);
+    }
+
+    public double itemsPerSecond() {
+        return wallMillis > 0 ? itemsRead * 1000.0 / wallMillis : 0.0;
+    }
+
+    public double statementsPerItem() {
+        return itemsRead > 0 ? (double) sqlStatements / itemsRead : 0.0;
+    }
+
+    public double allocatedBytesPerItem() {
+        return itemsRead > 0 ? (double) allocatedBytes / itemsRead : 0.0;
+    }
+}
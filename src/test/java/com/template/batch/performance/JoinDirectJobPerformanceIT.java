@@ -0,0 +1,12 @@
+package com.template.batch.performance;
+
+/**
+ * Orçamento de performance do joinDirectJob (ver AbstractPerformanceBudgetIT)
+ */
+class JoinDirectJobPerformanceIT extends AbstractPerformanceBudgetIT {
+
+    @Override
+    protected String jobName() {
+        return "joinDirectJob";
+    }
+}
@@ -0,0 +1,12 @@
+package com.template.batch.performance;
+
+/**
+ * Orçamento de performance do joinStagingJob (ver AbstractPerformanceBudgetIT)
+ */
+class JoinStagingJobPerformanceIT extends AbstractPerformanceBudgetIT {
+
+    @Override
+    protected String jobName() {
+        return "joinStagingJob";
+    }
+}
@@ -0,0 +1,91 @@
+package com.template.batch.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Orçamentos de performance (performance-budgets.properties): massa sintética + limites por job
+ *
+ * LIMITES (ausente = métrica não verificada):
+ * - <job>.min-items-per-second: itens/s >= limite
+ * - <job>.max-statements-per-item: statements/item <= limite
+ * - <job>.max-allocated-bytes-per-item: bytes alocados/item <= limite
+ */
+public final class PerformanceBudgets {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceBudgets.class);
+
+    private static final String BUDGETS_RESOURCE = "performance-budgets.properties";
+
+    private final Properties budgets;
+
+    private PerformanceBudgets(Properties budgets) {
+        this.budgets = budgets;
+    }
+
+    public static PerformanceBudgets load() {
+        Properties budgets = new Properties();
+        try (InputStream input = PerformanceBudgets.class.getClassLoader().getResourceAsStream(BUDGETS_RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Arquivo de orçamentos não encontrado no classpath: " + BUDGETS_RESOURCE);
+            }
+            budgets.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PerformanceBudgets(budgets);
+    }
+
+    /**
+     * Gera a massa fixa dos orçamentos (dataset.*)
+     */
+    public SyntheticDataGenerator.GeneratedData generate(SyntheticDataGenerator generator) {
+        return generator.generate(
+                Long.parseLong(budgets.getProperty("dataset.rows")),
+                Double.parseDouble(budgets.getProperty("dataset.overlap")),
+                Double.parseDouble(budgets.getProperty("dataset.id-gap")),
+                Integer.parseInt(budgets.getProperty("dataset.name-cardinality")));
+    }
+
+    /**
+     * Compara o resultado com os limites do job e loga cada métrica verificada
+     *
+     * @return limites estourados (vazio = dentro do orçamento)
+     */
+    public List<String> check(JobResult result) {
+        List<String> violations = new ArrayList<>();
+        check(violations, result.jobName(), "itens/s", result.itemsPerSecond(),
+                budget(result.jobName(), "min-items-per-second"), true);
+        check(violations, result.jobName(), "statements/item", result.statementsPerItem(),
+                budget(result.jobName(), "max-statements-per-item"), false);
+        check(violations, result.jobName(), "bytes alocados/item", result.allocatedBytesPerItem(),
+                budget(result.jobName(), "max-allocated-bytes-per-item"), false);
+        return violations;
+    }
+
+    private void check(List<String> violations, String jobName, String metric,
+                       double measured, Double limit, boolean minimum) {
+        if (limit == null) {
+            return;
+        }
+        boolean ok = minimum ? measured >= limit : measured <= limit;
+        String line = String.format("%-16s %-20s %12.2f %s %12.2f  %s",
+                jobName, metric, measured, minimum ? ">=" : "<=", limit, ok ? "OK" : "ESTOURADO");
+        logger.info("Orçamento: {}", line);
+        if (!ok) {
+            violations.add(line);
+        }
+    }
+
+    private Double budget(String jobName, String name) {
+        String value = budgets.getProperty(jobName + "." + name);
+        return value == null || value.isBlank() ? null : Double.valueOf(value.trim());
+    }
+}
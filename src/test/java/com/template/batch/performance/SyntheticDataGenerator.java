@@ -0,0 +1,97 @@
+package com.template.batch.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Gera massa sintética em source_table_a/source_table_b direto no banco (generate_series)
+ *
+ * PARÂMETROS:
+ * - rows: linhas em cada tabela de origem
+ * - overlapRatio: fração dos ids de B que também existem em A (0.0 a 1.0)
+ *   (afeta joinDirectJob e o merge do joinStagingJob)
+ * - idGapRatio: fração de ids pulados na sequência (0.0 a 0.9)
+ *   (partições por faixa de id ficam com tamanhos diferentes do ideal)
+ * - nameCardinality: quantidade de nomes distintos
+ *
+ * DETERMINÍSTICO:
+ * - Sem random(): mesma configuração → mesmos ids, nomes e valores
+ * - Ids pulados: (g * 7919) % 1000 < idGapRatio * 1000 (distribuição uniforme em blocos de 1000)
+ * - Ids comuns: linhas de A com row_number % 1000 < overlapRatio * 1000; as demais
+ *   linhas de B recebem ids acima do maior id de A
+ *
+ * Limpa staging, target, change log e watermark: cada job medido parte do mesmo estado.
+ */
+public class SyntheticDataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyntheticDataGenerator(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public GeneratedData generate(long rows, double overlapRatio, double idGapRatio, int nameCardinality) {
+        int gapPermille = (int) Math.round(Math.min(Math.max(idGapRatio, 0.0), 0.9) * 1000);
+        int overlapPermille = (int) Math.round(Math.min(Math.max(overlapRatio, 0.0), 1.0) * 1000);
+        int cardinality = Math.max(nameCardinality, 1);
+        // Ids suficientes para, após os pulos, sobrarem "rows" linhas
+        long span = (long) Math.ceil(rows * 1000.0 / (1000 - gapPermille)) + 1000;
+
+        long start = System.nanoTime();
+        jdbcTemplate.execute("TRUNCATE TABLE source_table_a, source_table_b");
+        resetOutputs();
+
+        jdbcTemplate.update(
+                "INSERT INTO source_table_a (id, nome, valor) " +
+                "SELECT g, 'Nome ' || (g % ?), ((g * 7919) % 1000000) / 100.0 " +
+                "FROM generate_series(1::bigint, ?::bigint) g " +
+                "WHERE (g * 7919) % 1000 >= ? " +
+                "ORDER BY g LIMIT ?",
+                cardinality, span, gapPermille, rows);
+
+        Long maxIdA = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM source_table_a", Long.class);
+        jdbcTemplate.update(
+                "INSERT INTO source_table_b (id, nome, valor) " +
+                "SELECT CASE WHEN a.rn % 1000 < ? THEN a.id ELSE a.id + ? END, " +
+                "       'Nome ' || ((a.id * 13) % ?), ((a.id * 104729) % 1000000) / 100.0 " +
+                "FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM source_table_a) a",
+                overlapPermille, maxIdA, cardinality);
+
+        // Estatísticas atualizadas: planos realistas e estimativa de progresso (reltuples)
+        jdbcTemplate.execute("ANALYZE source_table_a");
+        jdbcTemplate.execute("ANALYZE source_table_b");
+
+        GeneratedData data = new GeneratedData(
+                count("SELECT COUNT(*) FROM source_table_a"),
+                count("SELECT COUNT(*) FROM source_table_b"),
+                count("SELECT COUNT(*) FROM source_table_a a JOIN source_table_b b ON b.id = a.id"));
+        logger.info("Massa gerada em {} ms: A={}, B={}, ids comuns={}, nomes distintos={}, ids pulados={}%",
+                (System.nanoTime() - start) / 1_000_000, data.rowsA(), data.rowsB(), data.overlappingIds(),
+                cardinality, gapPermille / 10.0);
+        return data;
+    }
+
+    /**
+     * Volta staging, target, change log e watermark ao estado vazio (origens intactas)
+     */
+    public void resetOutputs() {
+        jdbcTemplate.execute("TRUNCATE TABLE staging_table_a, staging_table_b, staging_change_log, " +
+                "target_table, batch_job_watermark");
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Tamanho da massa gerada
+     */
+    public record GeneratedData(long rowsA, long rowsB, long overlappingIds) {
+    }
+}